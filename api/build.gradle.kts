@@ -1,3 +1,4 @@
+import com.github.jengelman.gradle.plugins.shadow.tasks.ShadowJar
 import com.github.retrooper.compression.strategy.JsonArrayCompressionStrategy
 import com.github.retrooper.compression.strategy.JsonObjectCompressionStrategy
 import com.github.retrooper.compression.strategy.JsonToNbtStrategy
@@ -8,6 +9,7 @@ plugins {
     packetevents.`library-conventions`
     `mapping-compression`
     `pe-version`
+    alias(libs.plugins.jmh)
 }
 
 // papermc repo + disableAutoTargetJvm needed for mockbukkit
@@ -19,6 +21,11 @@ java {
     withJavadocJar()
 }
 
+// JFR events need Java 11, they are loaded reflectively and only if the runtime has jdk.jfr
+val java11: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
 dependencies {
     compileOnlyApi(libs.bundles.adventure)
     compileOnlyApi(libs.bundles.adventure.serializers)
@@ -39,6 +46,10 @@ dependencies {
     testImplementation(testlibs.slf4j)
     testImplementation(testlibs.bundles.junit)
     testImplementation(libs.netty)
+
+    jmhImplementation(libs.bundles.adventure)
+    jmhImplementation(libs.netty)
+    jmhImplementation(project(":netty-common"))
 }
 
 mappingCompression {
@@ -142,6 +153,18 @@ tasks {
         useJUnitPlatform()
     }
 
+    named<JavaCompile>(java11.compileJavaTaskName) {
+        options.release = 11
+    }
+
+    jar {
+        from(java11.output)
+    }
+
+    withType<ShadowJar> {
+        from(java11.output)
+    }
+
     shadowJar {
         exclude {
             val path = it.path
@@ -0,0 +1,115 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.jfr.impl;
+
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.jfr.PacketFlightRecorder;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Loaded reflectively by {@link PacketFlightRecorder} when the runtime has JFR.
+ * Disabled events are never begun, so the JIT can drop their allocation entirely.
+ */
+public final class JfrPacketFlightRecorder extends PacketFlightRecorder {
+
+    @Override
+    public @Nullable Object beginDecode() {
+        return begin(new PacketDecodeEvent());
+    }
+
+    @Override
+    public void commitDecode(Object event, @Nullable PacketTypeCommon packetType, @Nullable User user, int bytes) {
+        PacketDecodeEvent decodeEvent = (PacketDecodeEvent) event;
+        decodeEvent.end();
+        if (decodeEvent.shouldCommit()) {
+            fill(decodeEvent, packetType, user);
+            decodeEvent.bytes = bytes;
+            decodeEvent.commit();
+        }
+    }
+
+    @Override
+    public @Nullable Object beginListenerInvoke() {
+        return begin(new ListenerInvokeEvent());
+    }
+
+    @Override
+    public void commitListenerInvoke(Object event, @Nullable PacketTypeCommon packetType, @Nullable User user,
+                                     PacketListenerCommon listener) {
+        ListenerInvokeEvent invokeEvent = (ListenerInvokeEvent) event;
+        invokeEvent.end();
+        if (invokeEvent.shouldCommit()) {
+            fill(invokeEvent, packetType, user);
+            invokeEvent.listenerClass = listener.getClass();
+            invokeEvent.commit();
+        }
+    }
+
+    @Override
+    public @Nullable Object beginReEncode() {
+        return begin(new PacketReEncodeEvent());
+    }
+
+    @Override
+    public void commitReEncode(Object event, @Nullable PacketTypeCommon packetType, @Nullable User user, int bytes) {
+        PacketReEncodeEvent encodeEvent = (PacketReEncodeEvent) event;
+        encodeEvent.end();
+        if (encodeEvent.shouldCommit()) {
+            fill(encodeEvent, packetType, user);
+            encodeEvent.bytes = bytes;
+            encodeEvent.commit();
+        }
+    }
+
+    @Override
+    public @Nullable Object beginUserInject() {
+        UserInjectEvent event = new UserInjectEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void commitUserInject(Object event, User user) {
+        UserInjectEvent injectEvent = (UserInjectEvent) event;
+        injectEvent.end();
+        if (injectEvent.shouldCommit()) {
+            injectEvent.user = user.getName();
+            injectEvent.address = String.valueOf(user.getAddress());
+            injectEvent.commit();
+        }
+    }
+
+    private static @Nullable PacketFlightEvent begin(PacketFlightEvent event) {
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    private static void fill(PacketFlightEvent event, @Nullable PacketTypeCommon packetType, @Nullable User user) {
+        event.packetType = packetType == null ? null : packetType.getName();
+        event.user = user == null ? null : user.getName();
+    }
+}
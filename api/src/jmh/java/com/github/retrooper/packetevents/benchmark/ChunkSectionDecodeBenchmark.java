@@ -0,0 +1,139 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.protocol.stream.NetBufferInput;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamOutput;
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes 1.18+ chunk sections through the stream based {@link NetStreamInput}
+ * and the buffer based {@link NetBufferInput}.
+ * <p>
+ * Captured chunk payloads (the section bytes of a chunk data packet, one file per chunk)
+ * can be used by pointing the {@code packetevents.benchmark.chunks} system property
+ * to a directory containing them, otherwise overworld-like sections are generated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkSectionDecodeBenchmark {
+
+    private static final int SECTIONS = 24;
+    private static final int GENERATED_CHUNKS = 16;
+
+    private final List<byte[]> payloads = new ArrayList<>();
+    private final List<ByteBuffer> directPayloads = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        String directory = System.getProperty("packetevents.benchmark.chunks");
+        File[] files = directory == null ? null : new File(directory).listFiles(File::isFile);
+        if (files != null && files.length != 0) {
+            for (File file : files) {
+                this.payloads.add(Files.readAllBytes(file.toPath()));
+            }
+        } else {
+            Random random = new Random(0L);
+            for (int i = 0; i < GENERATED_CHUNKS; i++) {
+                this.payloads.add(generateChunk(random));
+            }
+        }
+        for (byte[] payload : this.payloads) {
+            ByteBuffer direct = ByteBuffer.allocateDirect(payload.length);
+            direct.put(payload).flip();
+            this.directPayloads.add(direct);
+        }
+    }
+
+    private static byte[] generateChunk(Random random) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NetStreamOutput out = new NetStreamOutput(bytes);
+        for (int section = 0; section < SECTIONS; section++) {
+            Chunk_v1_18 chunk = new Chunk_v1_18();
+            // lower sections are busy (ores, caves), upper sections mostly air
+            int states = section < 8 ? 40 : section < 12 ? 12 : section < 14 ? 3 : 1;
+            int base = 1 + random.nextInt(20000);
+            if (states > 1) {
+                for (int y = 0; y < 16; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            chunk.set(x, y, z, base + random.nextInt(states));
+                        }
+                    }
+                }
+            }
+            Chunk_v1_18.write(out, chunk);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decode(NetStreamInput in, Blackhole blackhole) {
+        for (int i = 0; i < SECTIONS; i++) {
+            blackhole.consume(Chunk_v1_18.read(in));
+        }
+    }
+
+    @Benchmark
+    public void streamInput(Blackhole blackhole) {
+        for (byte[] payload : this.payloads) {
+            decode(new NetStreamInput(new ByteArrayInputStream(payload)), blackhole);
+        }
+    }
+
+    @Benchmark
+    public void heapBufferInput(Blackhole blackhole) {
+        for (byte[] payload : this.payloads) {
+            decode(new NetBufferInput(payload), blackhole);
+        }
+    }
+
+    @Benchmark
+    public void directBufferInput(Blackhole blackhole) {
+        for (ByteBuffer payload : this.directPayloads) {
+            decode(new NetBufferInput(payload.duplicate()), blackhole);
+        }
+    }
+}
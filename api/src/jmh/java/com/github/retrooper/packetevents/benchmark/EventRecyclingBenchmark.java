@@ -0,0 +1,166 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.PacketEventsAPI;
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.injector.ChannelInjector;
+import com.github.retrooper.packetevents.manager.player.PlayerManager;
+import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
+import com.github.retrooper.packetevents.manager.server.ServerManager;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.NettyManager;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
+import io.github.retrooper.packetevents.impl.netty.NettyManagerImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes a serverbound packet without listeners, with and without event recycling.
+ * Run with the gc profiler ({@code -prof gc}) and compare {@code gc.alloc.rate.norm} to see the allocations per packet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventRecyclingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean recycling;
+
+    private User user;
+    private ByteBuf buffer;
+
+    @Setup
+    public void setup() {
+        PacketEventsAPI<Object> api = new BenchmarkAPI();
+        api.getSettings().eventRecycling(this.recycling);
+        PacketEvents.setAPI(api);
+        PacketType.prepare();
+
+        this.user = new User(null, ConnectionState.PLAY, ClientVersion.getLatest(),
+                new UserProfile(UUID.randomUUID(), "benchmark"));
+        this.buffer = Unpooled.buffer();
+        // keep alive with an id, no listeners means the buffer is never rewritten
+        this.buffer.writeByte(PacketType.Play.Client.KEEP_ALIVE.getId(ClientVersion.getLatest()));
+        this.buffer.writeLong(42L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.buffer.release();
+        PacketEvents.setAPI(null);
+    }
+
+    @Benchmark
+    public void handlePacket() throws Exception {
+        this.buffer.readerIndex(0);
+        PacketReceiveEvent event = PacketEventsImplHelper.handleServerBoundPacket(
+                null, this.user, null, this.buffer, true);
+        if (event != null) {
+            event.recycle();
+        }
+    }
+
+    private static final class BenchmarkAPI extends PacketEventsAPI<Object> {
+
+        private final ServerManager serverManager = ServerVersion::getLatest;
+        private final NettyManager nettyManager = new NettyManagerImpl();
+
+        @Override
+        public void load() {
+        }
+
+        @Override
+        public boolean isLoaded() {
+            return true;
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public boolean isInitialized() {
+            return true;
+        }
+
+        @Override
+        public void terminate() {
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public Object getPlugin() {
+            return null;
+        }
+
+        @Override
+        public ServerManager getServerManager() {
+            return this.serverManager;
+        }
+
+        @Override
+        public ProtocolManager getProtocolManager() {
+            return null;
+        }
+
+        @Override
+        public PlayerManager getPlayerManager() {
+            return null;
+        }
+
+        @Override
+        public NettyManager getNettyManager() {
+            return this.nettyManager;
+        }
+
+        @Override
+        public ChannelInjector getInjector() {
+            return null;
+        }
+    }
+}
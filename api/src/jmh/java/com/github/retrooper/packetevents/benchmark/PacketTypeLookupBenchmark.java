@@ -0,0 +1,122 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.util.VersionMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous boxed {@code Map<Byte, Map<Integer, PacketTypeCommon>>} packet id lookup
+ * (including the linear version index scan over the versions of the clientbound play {@link VersionMapper})
+ * against the array based lookup of {@link PacketType}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacketTypeLookupBenchmark {
+
+    private static final int MAX_PACKET_ID = 0x80;
+
+    // the release versions the lookups are done for
+    private ClientVersion[] versions;
+    // the versions of the mapper, only the versions in which the packet ids changed
+    private ClientVersion[] reversedMapperVersions;
+    private final Map<Byte, Map<Integer, PacketTypeCommon>> legacyMap = new HashMap<>();
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        PacketType.prepare();
+        List<ClientVersion> releases = new ArrayList<>();
+        for (ClientVersion version : ClientVersion.values()) {
+            if (version.isRelease()) {
+                releases.add(version);
+            }
+        }
+        this.versions = releases.toArray(new ClientVersion[0]);
+
+        Field mapperField = PacketType.class.getDeclaredField("CLIENTBOUND_PLAY_VERSION_MAPPER");
+        mapperField.setAccessible(true);
+        VersionMapper mapper = (VersionMapper) mapperField.get(null);
+        ClientVersion[] mapperVersions = mapper.getVersions();
+        this.reversedMapperVersions = mapper.getReversedVersions();
+        for (int index = 0; index < mapperVersions.length; index++) {
+            Map<Integer, PacketTypeCommon> packetIdMap = this.legacyMap.computeIfAbsent((byte) index, k -> new HashMap<>());
+            for (int packetId = 0; packetId < MAX_PACKET_ID; packetId++) {
+                PacketTypeCommon type = PacketType.Play.Server.getById(mapperVersions[index], packetId);
+                if (type != null) {
+                    packetIdMap.put(packetId, type);
+                }
+            }
+        }
+    }
+
+    // mirrors the previous VersionMapper#getIndex implementation
+    private int legacyIndex(ClientVersion version) {
+        int index = this.reversedMapperVersions.length - 1;
+        for (ClientVersion v : this.reversedMapperVersions) {
+            if (version.isNewerThanOrEquals(v)) {
+                return index;
+            }
+            index--;
+        }
+        return 0;
+    }
+
+    @Benchmark
+    public void legacyMapLookup(Blackhole blackhole) {
+        for (ClientVersion version : this.versions) {
+            for (int packetId = 0; packetId < MAX_PACKET_ID; packetId++) {
+                Map<Integer, PacketTypeCommon> map = this.legacyMap.get((byte) this.legacyIndex(version));
+                blackhole.consume(map.get(packetId));
+            }
+        }
+    }
+
+    @Benchmark
+    public void tableLookup(Blackhole blackhole) {
+        for (ClientVersion version : this.versions) {
+            for (int packetId = 0; packetId < MAX_PACKET_ID; packetId++) {
+                blackhole.consume(PacketType.Play.Server.getById(version, packetId));
+            }
+        }
+    }
+}
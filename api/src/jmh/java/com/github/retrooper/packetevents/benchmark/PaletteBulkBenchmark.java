@@ -0,0 +1,132 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.DataPalette;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compares per-block access of 1.18+ chunk section palettes against the bulk operations
+ * of {@link DataPalette}, for sections using a list, map and global palette.
+ * The set and remap benchmarks include copying the section, so both variants start from the same state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaletteBulkBenchmark {
+
+    private static final IntUnaryOperator MAPPER = state -> state == 1 ? 2 : state;
+
+    // 3 distinct states use a list palette, 40 a map palette and 300 the global palette
+    @Param({"3", "40", "300"})
+    private int states;
+
+    private DataPalette palette;
+    private int[] values;
+    private int[] scratch;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0L);
+        this.values = new int[4096];
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = 1 + random.nextInt(this.states);
+        }
+        this.palette = DataPalette.createForChunk();
+        this.palette.setAll(this.values);
+        this.scratch = new int[4096];
+    }
+
+    @Benchmark
+    public int scalarGet() {
+        int sum = 0;
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    sum += this.palette.get(x, y, z);
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] bulkGet() {
+        this.palette.getAll(this.scratch);
+        return this.scratch;
+    }
+
+    @Benchmark
+    public DataPalette scalarSet() {
+        DataPalette palette = DataPalette.createForChunk();
+        int i = 0;
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    palette.set(x, y, z, this.values[i++]);
+                }
+            }
+        }
+        return palette;
+    }
+
+    @Benchmark
+    public DataPalette bulkSet() {
+        DataPalette palette = DataPalette.createForChunk();
+        palette.setAll(this.values);
+        return palette;
+    }
+
+    @Benchmark
+    public DataPalette scalarRemap() {
+        DataPalette palette = this.palette.copy();
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    palette.set(x, y, z, MAPPER.applyAsInt(palette.get(x, y, z)));
+                }
+            }
+        }
+        return palette;
+    }
+
+    @Benchmark
+    public DataPalette bulkRemap() {
+        DataPalette palette = this.palette.copy();
+        palette.remapPalette(MAPPER);
+        return palette;
+    }
+}
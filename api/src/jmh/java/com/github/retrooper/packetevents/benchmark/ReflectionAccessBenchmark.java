@@ -0,0 +1,88 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.util.reflection.FieldAccessor;
+import com.github.retrooper.packetevents.util.reflection.ReflectionObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares plain {@link Field#get(Object)} and the typed {@link ReflectionObject} lookup against a
+ * {@link FieldAccessor} held in a field, the way the platform reflection utilities now read connection fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReflectionAccessBenchmark {
+
+    private static final FieldAccessor STATIC_ACCESSOR = FieldAccessor.of(Connection.class, Object.class, 1);
+
+    private Connection connection;
+    private Field field;
+    private FieldAccessor accessor;
+
+    @Setup
+    public void setup() throws NoSuchFieldException {
+        this.connection = new Connection();
+        this.field = Connection.class.getDeclaredField("channel");
+        this.field.setAccessible(true);
+        this.accessor = FieldAccessor.of(Connection.class, Object.class, 1);
+    }
+
+    @Benchmark
+    public Object field() throws IllegalAccessException {
+        return this.field.get(this.connection);
+    }
+
+    @Benchmark
+    public Object reflectionObject() {
+        return new ReflectionObject(this.connection, Connection.class).readObject(1, Object.class);
+    }
+
+    @Benchmark
+    public Object accessor() {
+        return this.accessor.get(this.connection);
+    }
+
+    @Benchmark
+    public Object staticAccessor() {
+        return STATIC_ACCESSOR.get(this.connection);
+    }
+
+    // Mirrors the layout of a vanilla connection, the channel being the second object field
+    private static final class Connection {
+        private final Object packetListener = new Object();
+        private final Object channel = new Object();
+    }
+}
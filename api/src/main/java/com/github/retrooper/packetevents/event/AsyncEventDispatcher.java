@@ -0,0 +1,311 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.event;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.exception.PacketProcessException;
+import com.github.retrooper.packetevents.metrics.LatencyHistogram;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Calls the asynchronous listeners, see {@link PacketListenerCommon#isAsync()}, on a small pool of worker threads.
+ * <p>
+ * Every user has its own queue which is only ever drained by one worker at a time, so the events of a user
+ * are seen in the order they happened while different users are handled in parallel.
+ * The queues are bounded by {@link com.github.retrooper.packetevents.settings.PacketEventsSettings#getAsyncQueueCapacity()},
+ * packets for a user whose queue is full are dropped and counted, the netty threads never wait for the listeners.
+ * Connection events ({@link UserConnectEvent}, {@link UserLoginEvent}, {@link UserDisconnectEvent}) are never dropped.
+ * <p>
+ * Once the disconnection of a user has been queued, their queue is closed as soon as it has been drained,
+ * events for that user arriving after that are dropped.
+ */
+public final class AsyncEventDispatcher {
+
+    // events drained from one queue before the worker moves on to other users
+    private static final int BATCH_SIZE = 64;
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    private final Map<User, Lane> lanes = new ConcurrentHashMap<>();
+    private final Lane globalLane = new Lane(null);
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private volatile @Nullable ExecutorService executor;
+
+    AsyncEventDispatcher() {
+    }
+
+    /**
+     * @return how many events are currently waiting for the asynchronous listeners
+     */
+    public long getQueuedEvents() {
+        return this.queued.sum();
+    }
+
+    /**
+     * @return how many events have been passed to the asynchronous listeners
+     */
+    public long getDeliveredEvents() {
+        return this.delivered.sum();
+    }
+
+    /**
+     * @return how many events have been dropped because their user's queue was full
+     */
+    public long getDroppedEvents() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * @return the time events spent waiting in the queues
+     */
+    public LatencyHistogram getQueueLatency() {
+        return this.queueLatency;
+    }
+
+    public boolean isRunning() {
+        return this.executor != null;
+    }
+
+    synchronized void start() {
+        if (this.executor != null) {
+            return;
+        }
+        this.executor = Executors.newFixedThreadPool(PacketEvents.getAPI().getSettings().getAsyncListenerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "packetevents-async-" + THREAD_ID.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    synchronized void shutdown() {
+        ExecutorService executor = this.executor;
+        if (executor != null) {
+            this.executor = null;
+            // queued events are still passed to the listeners they were meant for
+            executor.shutdown();
+        }
+        this.lanes.clear();
+    }
+
+    /**
+     * Copies a packet event for the asynchronous listeners, its buffer has to be positioned after the packet id.
+     */
+    static @Nullable ProtocolPacketEvent snapshot(ProtocolPacketEvent event) {
+        // the original buffer is re-encoded in place or released once the packet has been handled
+        Object buffer = ByteBufHelper.copy(event.getByteBuf());
+        try {
+            if (event instanceof PacketReceiveEvent) {
+                return new PacketReceiveEvent(event.getPacketId(), event.getPacketType(), event.getServerVersion(),
+                        event.getChannel(), event.getUser(), event.getPlayer(), buffer);
+            }
+            return new PacketSendEvent(event.getPacketId(), event.getPacketType(), event.getServerVersion(),
+                    event.getChannel(), event.getUser(), event.getPlayer(), buffer);
+        } catch (PacketProcessException ex) {
+            ByteBufHelper.release(buffer);
+            return null;
+        }
+    }
+
+    void dispatch(PacketEvent event, PacketListenerCommon[] listeners) {
+        ExecutorService executor = this.executor;
+        if (executor == null) {
+            this.drop(event);
+            return;
+        }
+        User user = event instanceof UserEvent ? ((UserEvent) event).getUser() : null;
+        Lane lane = user == null ? this.globalLane : this.lanes.get(user);
+        if (lane == null) {
+            if (event instanceof ProtocolPacketEvent && user.getChannel() != null && !ChannelHelper.isOpen(user.getChannel())) {
+                // the user has disconnected and their lane is gone, don't bring it back
+                this.drop(event);
+                return;
+            }
+            lane = this.lanes.computeIfAbsent(user, Lane::new);
+        }
+        if (event instanceof ProtocolPacketEvent) {
+            if (!lane.reserve()) {
+                this.drop(event);
+                return;
+            }
+        } else {
+            // only packets may be dropped, listeners must always see users connect and disconnect
+            lane.reserved.incrementAndGet();
+        }
+        if (!lane.offer(new Entry(event, listeners), executor)) {
+            // the lane was closed in the meantime
+            lane.reserved.decrementAndGet();
+            this.drop(event);
+        }
+    }
+
+    private void drop(PacketEvent event) {
+        this.dropped.increment();
+        cleanUp(event);
+    }
+
+    private void deliver(Entry entry) {
+        this.queued.decrement();
+        this.queueLatency.record(System.nanoTime() - entry.enqueued);
+        PacketEvent event = entry.event;
+        for (PacketListenerCommon listener : entry.listeners) {
+            try {
+                event.call(listener);
+            } catch (Throwable t) {
+                // keep the worker alive, otherwise the user's queue would never be drained again
+                PacketEvents.getAPI().getLogger().log(Level.WARNING, "PacketEvents caught an unhandled exception while calling your async listener.", t);
+            }
+        }
+        this.delivered.increment();
+        cleanUp(event);
+    }
+
+    private static void cleanUp(PacketEvent event) {
+        if (event instanceof ProtocolPacketEvent) {
+            ((ProtocolPacketEvent) event).cleanUp();
+        }
+    }
+
+    private static final class Entry {
+
+        private final PacketEvent event;
+        private final PacketListenerCommon[] listeners;
+        private final long enqueued = System.nanoTime();
+
+        private Entry(PacketEvent event, PacketListenerCommon[] listeners) {
+            this.event = event;
+            this.listeners = listeners;
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final @Nullable User user;
+        private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+        // counts the entries which have been admitted but not delivered yet, bounded by the queue capacity
+        private final AtomicInteger reserved = new AtomicInteger();
+        // counts the entries which haven't been delivered yet, the lane is scheduled while this isn't 0
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile ExecutorService executor;
+        // set once the disconnection of the user has been queued, the lane is closed once drained afterwards
+        private volatile boolean closing;
+        // guarded by this lane, closed lanes don't accept entries anymore
+        private boolean closed;
+
+        private Lane(@Nullable User user) {
+            this.user = user;
+        }
+
+        private boolean reserve() {
+            int capacity = PacketEvents.getAPI().getSettings().getAsyncQueueCapacity();
+            while (true) {
+                int reserved = this.reserved.get();
+                if (reserved >= capacity) {
+                    return false;
+                }
+                if (this.reserved.compareAndSet(reserved, reserved + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private boolean offer(Entry entry, ExecutorService executor) {
+            if (entry.event instanceof UserDisconnectEvent) {
+                this.closing = true;
+            }
+            if (!this.closing) {
+                this.enqueue(entry, executor);
+                return true;
+            }
+            // the lane may be closing concurrently, it must not be scheduled anymore once closed
+            synchronized (this) {
+                if (this.closed) {
+                    return false;
+                }
+                this.enqueue(entry, executor);
+                return true;
+            }
+        }
+
+        private void enqueue(Entry entry, ExecutorService executor) {
+            queued.increment();
+            this.queue.offer(entry);
+            if (this.size.getAndIncrement() == 0) {
+                this.executor = executor;
+                this.schedule();
+            }
+        }
+
+        // called by the worker once the lane has been drained
+        private void drained() {
+            if (!this.closing || this.user == null) {
+                return;
+            }
+            synchronized (this) {
+                if (this.size.get() == 0) {
+                    this.closed = true;
+                    lanes.remove(this.user, this);
+                }
+            }
+        }
+
+        private void schedule() {
+            try {
+                this.executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                // shut down, nobody is going to drain this queue anymore
+                Entry entry;
+                while ((entry = this.queue.poll()) != null) {
+                    queued.decrement();
+                    drop(entry.event);
+                }
+                this.reserved.set(0);
+                this.size.set(0);
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                deliver(this.queue.poll());
+                this.reserved.decrementAndGet();
+                if (this.size.decrementAndGet() == 0) {
+                    this.drained();
+                    return;
+                }
+            }
+            this.schedule();
+        }
+    }
+}
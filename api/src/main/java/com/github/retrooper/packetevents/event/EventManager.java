@@ -20,6 +20,12 @@ package com.github.retrooper.packetevents.event;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.exception.InvalidHandshakeException;
+import com.github.retrooper.packetevents.jfr.PacketFlightRecorder;
+import com.github.retrooper.packetevents.metrics.PacketMetrics;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.User;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
@@ -52,6 +58,15 @@ public class EventManager {
     //Since reads greatly outnumber writes, create an array for the best possible iteration time
     //Updated as a whole on writes, no index modifications are allowed
     private volatile PacketListenerCommon[] listeners = new PacketListenerCommon[0];
+    //Listeners indexed by the global index of the packet type they are interested in, see PacketType#getGlobalIndex,
+    //the last entry holds the listeners of packet types without an index (only the ones which don't filter)
+    //Null if no registered listener declared its packet types, in which case all listeners receive all packets
+    private volatile PacketListenerCommon[][] packetTypeListeners = null;
+    //Same as above, for the listeners which are called asynchronously
+    private volatile PacketListenerCommon[] asyncListeners = new PacketListenerCommon[0];
+    private volatile PacketListenerCommon[][] asyncPacketTypeListeners = null;
+    private final AsyncEventDispatcher asyncDispatcher = new AsyncEventDispatcher();
+    private final PacketMetrics metrics = new PacketMetrics();
 
 
     /**
@@ -79,7 +94,35 @@ public class EventManager {
      * @param postCallListenerAction The action to be ran after all the listeners have finished processing
      */
     public void callEvent(PacketEvent event, @Nullable Runnable postCallListenerAction) {
+        PacketListenerCommon[] listeners = this.listeners;
+        PacketListenerCommon[] asyncListeners = this.asyncListeners;
+        PacketTypeCommon packetType = null;
+        User user = null;
+        ProtocolPacketEvent asyncSnapshot = null;
+        if (event instanceof ProtocolPacketEvent) {
+            PacketListenerCommon[][] packetTypeListeners = this.packetTypeListeners;
+            PacketListenerCommon[][] asyncPacketTypeListeners = this.asyncPacketTypeListeners;
+            packetType = ((ProtocolPacketEvent) event).getPacketType();
+            user = ((ProtocolPacketEvent) event).getUser();
+            int index = packetType != null ? PacketType.getGlobalIndex(packetType) : -1;
+            if (packetTypeListeners != null) {
+                listeners = packetTypeListeners[index != -1 ? index : packetTypeListeners.length - 1];
+            }
+            if (asyncPacketTypeListeners != null) {
+                asyncListeners = asyncPacketTypeListeners[index != -1 ? index : asyncPacketTypeListeners.length - 1];
+            }
+            if (asyncListeners.length != 0) {
+                //Copy the packet before the synchronous listeners get to modify it
+                asyncSnapshot = AsyncEventDispatcher.snapshot((ProtocolPacketEvent) event);
+            }
+        }
+        boolean measure = this.metrics.isEnabled();
+        int bytes = measure && packetType != null ? ByteBufHelper.readableBytes(((ProtocolPacketEvent) event).getByteBuf()) : 0;
+        long dispatchStart = measure ? System.nanoTime() : 0L;
+        PacketFlightRecorder recorder = PacketFlightRecorder.get();
         for (PacketListenerCommon listener : listeners) {
+            long start = measure ? System.nanoTime() : 0L;
+            Object flightEvent = recorder.beginListenerInvoke();
             try {
                 event.call(listener);
             } catch (Exception t) {
@@ -88,16 +131,53 @@ public class EventManager {
                     PacketEvents.getAPI().getLogger().log(Level.WARNING, "PacketEvents caught an unhandled exception while calling your listener.", t);
                 }
             }
+            if (flightEvent != null) {
+                recorder.commitListenerInvoke(flightEvent, packetType, user, listener);
+            }
+            if (measure) {
+                this.metrics.recordListener(listener, System.nanoTime() - start);
+            }
             if (postCallListenerAction != null) {
                 postCallListenerAction.run();
             }
         }
+        if (measure && packetType != null) {
+            this.metrics.recordPacket(packetType, bytes, System.nanoTime() - dispatchStart);
+        }
+        if (asyncListeners.length != 0) {
+            PacketEvent asyncEvent = event instanceof ProtocolPacketEvent ? asyncSnapshot : event;
+            if (event instanceof CancellableEvent && ((CancellableEvent) event).isCancelled()) {
+                if (asyncSnapshot != null) {
+                    asyncSnapshot.cleanUp();
+                }
+            } else if (asyncEvent != null) {
+                this.asyncDispatcher.dispatch(asyncEvent, asyncListeners);
+            }
+        }
         // For performance reasons, we don't want to re-encode the packet if it's not needed.
         if (event instanceof ProtocolPacketEvent && !((ProtocolPacketEvent) event).needsReEncode()) {
             ((ProtocolPacketEvent) event).setLastUsedWrapper(null);
         }
     }
 
+    /**
+     * The queues of the asynchronous listeners, see {@link PacketListenerCommon#isAsync()}.
+     *
+     * @return {@link AsyncEventDispatcher}
+     */
+    public AsyncEventDispatcher getAsyncDispatcher() {
+        return asyncDispatcher;
+    }
+
+    /**
+     * The timings of the listeners and packet types, disabled by default.
+     *
+     * @return {@link PacketMetrics}
+     */
+    public PacketMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Register the dynamic packet event listener.
      *
@@ -151,8 +231,13 @@ public class EventManager {
      */
     public void unregisterAllListeners() {
         this.listenersMap.clear();
+        this.metrics.removeListeners();
         synchronized (this) {//like booky10 said, the synchronization is necessary here
             this.listeners = new PacketListenerCommon[0];
+            this.packetTypeListeners = null;
+            this.asyncListeners = new PacketListenerCommon[0];
+            this.asyncPacketTypeListeners = null;
+            this.asyncDispatcher.shutdown();
         }
     }
 
@@ -161,13 +246,62 @@ public class EventManager {
     private void recalculateListeners() {
         synchronized (this) {
             List<PacketListenerCommon> list = new ArrayList<>();
+            List<PacketListenerCommon> asyncList = new ArrayList<>();
             //adds from LOWEST to MONITOR, so in the correct order
             for (PacketListenerPriority priority : PacketListenerPriority.values()) {
                 Set<PacketListenerCommon> set = this.listenersMap.get(priority);
-                if (set != null) list.addAll(set);
+                if (set == null) continue;
+                for (PacketListenerCommon listener : set) {
+                    (listener.isAsync() ? asyncList : list).add(listener);
+                }
+            }
+            PacketListenerCommon[] listeners = list.toArray(new PacketListenerCommon[0]);
+            PacketListenerCommon[] asyncListeners = asyncList.toArray(new PacketListenerCommon[0]);
+            if (asyncListeners.length != 0) {
+                this.asyncDispatcher.start();
+            } else {
+                //Stop the threads once the last asynchronous listener is gone
+                this.asyncDispatcher.shutdown();
+            }
+            this.packetTypeListeners = calculatePacketTypeListeners(listeners);
+            this.listeners = listeners;
+            this.asyncPacketTypeListeners = calculatePacketTypeListeners(asyncListeners);
+            this.asyncListeners = asyncListeners;
+        }
+    }
+
+    //Returns null if none of the listeners filter by packet type
+    private static PacketListenerCommon[][] calculatePacketTypeListeners(PacketListenerCommon[] listeners) {
+        boolean filtered = false;
+        for (PacketListenerCommon listener : listeners) {
+            if (listener.getPacketTypes() != null) {
+                filtered = true;
+                break;
+            }
+        }
+        if (!filtered) {
+            return null;
+        }
+
+        int count = PacketType.getGlobalIndexCount();
+        PacketListenerCommon[][] table = new PacketListenerCommon[count + 1][];
+        List<PacketListenerCommon> list = new ArrayList<>(listeners.length);
+        for (int i = 0; i < table.length; i++) {
+            //The last entry is used for unknown packet types, which only the listeners without a filter receive
+            PacketTypeCommon packetType = i < count ? PacketType.getByGlobalIndex(i) : null;
+            for (PacketListenerCommon listener : listeners) {
+                Set<PacketTypeCommon> packetTypes = listener.getPacketTypes();
+                if (packetTypes == null || packetType != null && packetTypes.contains(packetType)) {
+                    list.add(listener);
+                }
             }
-            this.listeners = list.toArray(new PacketListenerCommon[0]);
+            //Share the array with the previous packet type if possible, most packet types share the same listeners
+            PacketListenerCommon[] previous = i == 0 ? null : table[i - 1];
+            table[i] = previous != null && previous.length == list.size() && list.equals(Arrays.asList(previous))
+                    ? previous : list.toArray(new PacketListenerCommon[0]);
+            list.clear();
         }
+        return table;
     }
 
     //Internal registration methods, specifically separated for lesser overhead when registering an array of Listeners
@@ -180,6 +314,10 @@ public class EventManager {
     //Returns true if the listener was removed, so a modification occurred
     private boolean unregisterListenerNoRecalculation(PacketListenerCommon listener) {
         Set<PacketListenerCommon> listenerSet = this.listenersMap.get(listener.getPriority());
-        return listenerSet != null && listenerSet.remove(listener);
+        if (listenerSet == null || !listenerSet.remove(listener)) {
+            return false;
+        }
+        this.metrics.removeListener(listener);
+        return true;
     }
 }
@@ -29,9 +29,13 @@ import com.github.retrooper.packetevents.util.TimeStampMode;
  * @since 1.2.6
  */
 public abstract class PacketEvent implements CallableEvent {
-    private final long timestamp;
+    private long timestamp;
 
     public PacketEvent() {
+        this.updateTimestamp();
+    }
+
+    void updateTimestamp() {
         TimeStampMode timeStampMode = PacketEvents.getAPI().getSettings()
                 .getTimeStampMode();
         switch (timeStampMode) {
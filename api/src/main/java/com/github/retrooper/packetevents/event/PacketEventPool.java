@@ -0,0 +1,138 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.event;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.exception.PacketProcessException;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Pool of packet events which get reused for other packets, used if
+ * {@link com.github.retrooper.packetevents.settings.PacketEventsSettings#eventRecycling(boolean)} is enabled.
+ * <p>
+ * There is one pool per thread, so events never have to be synchronized. Events are created for a
+ * specific side and connection state, so every combination of those has its own stack of free events.
+ * <p>
+ * Listeners which keep events after their call would see them change once they are reused.
+ * In debug mode, recycled events are never reused and any access to them throws an exception.
+ * Otherwise, every {@link #LEAK_DETECTION_INTERVAL}th recycled event is never reused, so that
+ * accessing it later on can be reported without corrupting anything.
+ */
+@ApiStatus.Internal
+public final class PacketEventPool {
+
+    private static final ThreadLocal<PacketEventPool> POOLS = ThreadLocal.withInitial(PacketEventPool::new);
+    private static final int STATE_COUNT = ConnectionState.values().length;
+    // Only exceeded if listeners process further packets on the same thread while handling an event
+    private static final int MAX_POOLED_EVENTS = 8;
+    private static final int LEAK_DETECTION_INTERVAL = 128;
+
+    private final Thread thread = Thread.currentThread();
+    private final ProtocolPacketEvent[][] events = new ProtocolPacketEvent[PacketSide.values().length * STATE_COUNT][MAX_POOLED_EVENTS];
+    private final int[] sizes = new int[this.events.length];
+    private int recycleCount;
+
+    private PacketEventPool() {
+    }
+
+    public static PacketEventPool get() {
+        return POOLS.get();
+    }
+
+    private static int getIndex(PacketSide side, ConnectionState state) {
+        return side.ordinal() * STATE_COUNT + state.ordinal();
+    }
+
+    /**
+     * Takes a free event of this pool and prepares it for the specified packet.
+     *
+     * @return the event, or null if there is no free event, in which case
+     * a new one has to be created and passed to {@link #adopt(ProtocolPacketEvent, PacketSide, ConnectionState)}
+     */
+    public @Nullable ProtocolPacketEvent acquire(
+            PacketSide side, ConnectionState state, Object channel, User user,
+            Object player, Object buffer, boolean autoProtocolTranslation
+    ) throws PacketProcessException {
+        int index = getIndex(side, state);
+        int size = this.sizes[index];
+        if (size == 0) {
+            return null;
+        }
+        ProtocolPacketEvent[] events = this.events[index];
+        ProtocolPacketEvent event = events[--size];
+        events[size] = null;
+        this.sizes[index] = size;
+        // if the packet is invalid, the event is simply dropped
+        event.reload(side, channel, user, player, buffer, autoProtocolTranslation);
+        return event;
+    }
+
+    /**
+     * Makes a newly created event part of this pool, so it will be reused after {@link ProtocolPacketEvent#recycle()}.
+     */
+    public <T extends ProtocolPacketEvent> T adopt(T event, PacketSide side, ConnectionState state) {
+        event.pool = this;
+        event.poolIndex = getIndex(side, state);
+        return event;
+    }
+
+    void release(ProtocolPacketEvent event) {
+        if (Thread.currentThread() != this.thread) {
+            // the stacks are only safe to use on the owning thread, let it be collected instead
+            return;
+        }
+        if (++this.recycleCount % LEAK_DETECTION_INTERVAL == 0
+                || PacketEvents.getAPI().getSettings().isDebugEnabled()) {
+            // never reuse this event, so any later access can be reported safely
+            return;
+        }
+        int index = event.poolIndex;
+        int size = this.sizes[index];
+        if (size < MAX_POOLED_EVENTS) {
+            this.events[index][size] = event;
+            this.sizes[index] = size + 1;
+        }
+    }
+
+    static void reportRecycledAccess(ProtocolPacketEvent event) {
+        String message = "A " + event.getClass().getSimpleName() + " has been accessed after its listeners have been called."
+                + " Events are recycled, use clone() to keep them for later.";
+        if (PacketEvents.getAPI().getSettings().isDebugEnabled()) {
+            throw new IllegalStateException(message);
+        }
+        if (!event.recycledAccessReported) {
+            event.recycledAccessReported = true;
+            PacketEvents.getAPI().getLogManager().warn(message + " Accessed at " + findAccessor());
+        }
+    }
+
+    private static String findAccessor() {
+        String eventPackage = PacketEventPool.class.getPackage().getName() + '.';
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!element.getClassName().startsWith(eventPackage)) {
+                return element.toString();
+            }
+        }
+        return "unknown";
+    }
+}
@@ -18,11 +18,17 @@
 
 package com.github.retrooper.packetevents.event;
 
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+
 public abstract class PacketListenerAbstract extends PacketListenerCommon {
     public PacketListenerAbstract(PacketListenerPriority priority) {
         super(priority);
     }
 
+    public PacketListenerAbstract(PacketListenerPriority priority, PacketTypeCommon... packetTypes) {
+        super(priority, packetTypes);
+    }
+
     public PacketListenerAbstract() {
         super();
     }
@@ -18,9 +18,16 @@
 
 package com.github.retrooper.packetevents.event;
 
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import org.jetbrains.annotations.Nullable;
+
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Abstract packet listener.
@@ -30,19 +37,60 @@ import java.util.Map;
  */
 public abstract class PacketListenerCommon {
     private final PacketListenerPriority priority;
+    private final @Nullable Set<PacketTypeCommon> packetTypes;
 
     public PacketListenerCommon(PacketListenerPriority priority) {
         this.priority = priority;
+        this.packetTypes = null;
+    }
+
+    /**
+     * Creates a listener which will only receive packet events of the specified packet types.
+     *
+     * @param priority    listener priority
+     * @param packetTypes the packet types this listener is interested in
+     */
+    public PacketListenerCommon(PacketListenerPriority priority, PacketTypeCommon... packetTypes) {
+        this.priority = priority;
+        this.packetTypes = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(packetTypes)));
     }
 
     public PacketListenerCommon() {
         this.priority = PacketListenerPriority.NORMAL;
+        this.packetTypes = null;
     }
 
     public PacketListenerPriority getPriority() {
         return priority;
     }
 
+    /**
+     * The packet types this listener wants to receive packet events for.
+     * This is only evaluated once during registration, so this has to stay constant while registered.
+     * <p>
+     * User events and external events are always passed to the listener.
+     *
+     * @return set of packet types, or null if this listener is interested in all packet types
+     */
+    public @Nullable Set<PacketTypeCommon> getPacketTypes() {
+        return packetTypes;
+    }
+
+    /**
+     * Whether this listener is called asynchronously, off the netty threads.
+     * Asynchronous listeners receive read-only copies of the events after the synchronous listeners
+     * have been called, in the order the events happened for each user. Cancelled events are skipped,
+     * and packet events contain the packet as it arrived, without changes made by synchronous listeners.
+     * <p>
+     * This is only evaluated once during registration, so this has to stay constant while registered.
+     *
+     * @return true if this listener should be called asynchronously
+     * @see EventManager#getAsyncDispatcher()
+     */
+    public boolean isAsync() {
+        return false;
+    }
+
     public void onUserConnect(UserConnectEvent event) {
     }
 
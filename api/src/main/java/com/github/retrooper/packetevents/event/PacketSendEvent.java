@@ -53,6 +53,7 @@ public class PacketSendEvent extends ProtocolPacketEvent {
 
 
     public List<Runnable> getTasksAfterSend() {
+        checkRecycled();
         if (tasksAfterSend == null) {
             tasksAfterSend = new ArrayList<>();
         }
@@ -63,6 +64,13 @@ public class PacketSendEvent extends ProtocolPacketEvent {
         return tasksAfterSend != null && !tasksAfterSend.isEmpty();
     }
 
+    @Override
+    protected void reset() {
+        super.reset();
+        // tasks after send run once the packet has been written, which may be after recycling
+        this.tasksAfterSend = null;
+    }
+
     @Override
     public PacketSendEvent clone() {
         try {
@@ -31,7 +31,9 @@ import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.VersionContext;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -41,32 +43,45 @@ import java.util.ArrayList;
 import java.util.List;
 
 public abstract class ProtocolPacketEvent extends PacketEvent implements PlayerEvent, CancellableEvent, UserEvent {
-    private final Object channel;
-    private final ConnectionState connectionState;
-    private final User user;
-    private final Object player;
+    // Not final, as pooled events get reused for other packets, see PacketEventPool
+    private Object channel;
+    private ConnectionState connectionState;
+    private User user;
+    private Object player;
     private Object byteBuf;
-    private final int packetID;
-    private final PacketTypeCommon packetType;
+    private int packetID;
+    private PacketTypeCommon packetType;
     private ServerVersion serverVersion;
     private boolean cancel;
     private PacketWrapper<?> lastUsedWrapper;
     private List<Runnable> postTasks = null;
+    // Wrappers with sections pointing into our buffer, see PacketWrapper#detachSection
+    private List<PacketWrapper<?>> sectionWrappers = null;
     private boolean cloned;
     private boolean needsReEncode = PacketEvents.getAPI().getSettings().reEncodeByDefault();
+    @Nullable
+    PacketEventPool pool;
+    int poolIndex;
+    private boolean recycled;
+    boolean recycledAccessReported;
 
     public ProtocolPacketEvent(PacketSide packetSide, Object channel,
                                User user, Object player, Object byteBuf,
                                boolean autoProtocolTranslation) throws PacketProcessException {
+        this.load(packetSide, channel, user, player, byteBuf, autoProtocolTranslation);
+    }
+
+    private void load(PacketSide packetSide, Object channel,
+                      User user, Object player, Object byteBuf,
+                      boolean autoProtocolTranslation) throws PacketProcessException {
         this.channel = channel;
         this.user = user;
         this.player = player;
-        if (autoProtocolTranslation || user.getClientVersion() == null) {
-            this.serverVersion = PacketEvents.getAPI().getServerManager().getVersion();
-        } else {
-            //TODO Optimize
-            this.serverVersion = user.getClientVersion().toServerVersion();
+        VersionContext versionContext = autoProtocolTranslation ? null : user.getVersionContext();
+        if (versionContext == null) {
+            versionContext = VersionContext.server();
         }
+        this.serverVersion = versionContext.getServerVersion();
 
         this.byteBuf = byteBuf;
         int size = ByteBufHelper.readableBytes(byteBuf);
@@ -78,11 +93,11 @@ public abstract class ProtocolPacketEvent extends PacketEvent implements PlayerE
         } catch (Exception e) {
             throw new PacketProcessException("Failed to read the Packet ID of a packet. (Size: " + size + ")");
         }
-        ClientVersion version = serverVersion.toClientVersion();
         ConnectionState state = packetSide == PacketSide.CLIENT ? user.getDecoderState() : user.getEncoderState();
         this.packetType = PacketType.getById(packetSide, state,
-                version, packetID);
+                versionContext, packetID);
         if (this.packetType == null) {
+            ClientVersion version = versionContext.getClientVersion();
             // mojang messed up and keeps sending disconnect packets in the wrong protocol state
             if (PacketType.getById(packetSide, ConnectionState.PLAY, version, packetID) == PacketType.Play.Server.DISCONNECT) {
                 throw new InvalidDisconnectPacketSend();
@@ -107,7 +122,66 @@ public abstract class ProtocolPacketEvent extends PacketEvent implements PlayerE
         cloned = true;
     }
 
+    /**
+     * Prepares a recycled event for the next packet.
+     */
+    void reload(PacketSide packetSide, Object channel,
+                User user, Object player, Object byteBuf,
+                boolean autoProtocolTranslation) throws PacketProcessException {
+        this.recycled = false;
+        this.updateTimestamp();
+        this.load(packetSide, channel, user, player, byteBuf, autoProtocolTranslation);
+    }
+
+    /**
+     * Whether this event will be reused for other packets after {@link #recycle()}.
+     * Such events mustn't be used after the listeners have been called, use {@link #clone()} to keep them.
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    /**
+     * Hands this event back to its pool once the packet has been processed, doesn't do anything
+     * if this event isn't pooled. Any access to it afterwards is a bug.
+     */
+    @ApiStatus.Internal
+    public void recycle() {
+        this.detachWrappers();
+        PacketEventPool pool = this.pool;
+        if (pool == null || this.recycled) {
+            return;
+        }
+        this.reset();
+        this.recycled = true;
+        pool.release(this);
+    }
+
+    /**
+     * Resets all the state of this event which was changed while processing the packet.
+     */
+    protected void reset() {
+        this.channel = null;
+        this.user = null;
+        this.player = null;
+        this.byteBuf = null;
+        this.cancel = false;
+        this.lastUsedWrapper = null;
+        if (this.postTasks != null) {
+            // post tasks only run before recycling, so the list can be reused
+            this.postTasks.clear();
+        }
+        this.needsReEncode = PacketEvents.getAPI().getSettings().reEncodeByDefault();
+    }
+
+    protected final void checkRecycled() {
+        if (this.recycled) {
+            PacketEventPool.reportRecycledAccess(this);
+        }
+    }
+
     public void markForReEncode(boolean needsReEncode) {
+        checkRecycled();
         this.needsReEncode = needsReEncode;
     }
 
@@ -121,6 +195,7 @@ public abstract class ProtocolPacketEvent extends PacketEvent implements PlayerE
     }
 
     public Object getChannel() {
+        checkRecycled();
         return channel;
     }
 
@@ -137,15 +212,18 @@ public abstract class ProtocolPacketEvent extends PacketEvent implements PlayerE
 
     @Override
     public User getUser() {
+        checkRecycled();
         return user;
     }
 
     @Override
     public <T> T getPlayer() {
+        checkRecycled();
         return (T) player;
     }
 
     public ConnectionState getConnectionState() {
+        checkRecycled();
         return connectionState;
     }
 
@@ -162,26 +240,32 @@ public abstract class ProtocolPacketEvent extends PacketEvent implements PlayerE
     }
 
     public ServerVersion getServerVersion() {
+        checkRecycled();
         return serverVersion;
     }
 
     public void setServerVersion(@NotNull ServerVersion serverVersion) {
+        checkRecycled();
         this.serverVersion = serverVersion;
     }
 
     public Object getByteBuf() {
+        checkRecycled();
         return byteBuf;
     }
 
     public void setByteBuf(Object byteBuf) {
+        checkRecycled();
         this.byteBuf = byteBuf;
     }
 
     public int getPacketId() {
+        checkRecycled();
         return packetID;
     }
 
     public PacketTypeCommon getPacketType() {
+        checkRecycled();
         return packetType;
     }
 
@@ -192,30 +276,59 @@ public abstract class ProtocolPacketEvent extends PacketEvent implements PlayerE
 
     @Override
     public boolean isCancelled() {
+        checkRecycled();
         return this.cancel;
     }
 
     @Override
     public void setCancelled(boolean val) {
+        checkRecycled();
         this.cancel = val;
     }
 
     @Nullable
     public PacketWrapper<?> getLastUsedWrapper() {
+        checkRecycled();
         return lastUsedWrapper;
     }
 
     public void setLastUsedWrapper(@Nullable PacketWrapper<?> lastUsedWrapper) {
+        checkRecycled();
         this.lastUsedWrapper = lastUsedWrapper;
     }
 
     public List<Runnable> getPostTasks() {
+        checkRecycled();
         if (postTasks == null) {
             postTasks = new ArrayList<>();
         }
         return postTasks;
     }
 
+    @ApiStatus.Internal
+    public void addSectionWrapper(PacketWrapper<?> wrapper) {
+        if (this.sectionWrappers == null) {
+            this.sectionWrappers = new ArrayList<>(2);
+        }
+        this.sectionWrappers.add(wrapper);
+    }
+
+    /**
+     * Detaches the wrappers read from this event from its buffer, so they stay usable once the buffer is released.
+     * Has to be called while the buffer is still valid, {@link #recycle()} and {@link #cleanUp()} already do this.
+     */
+    @ApiStatus.Internal
+    public void detachWrappers() {
+        List<PacketWrapper<?>> wrappers = this.sectionWrappers;
+        if (wrappers == null || wrappers.isEmpty()) {
+            return;
+        }
+        for (PacketWrapper<?> wrapper : wrappers) {
+            wrapper.detachSection();
+        }
+        wrappers.clear();
+    }
+
     public boolean hasPostTasks() {
         return postTasks != null && !postTasks.isEmpty();
     }
@@ -227,6 +340,7 @@ public abstract class ProtocolPacketEvent extends PacketEvent implements PlayerE
     }
 
     public void cleanUp() {
+        this.detachWrappers();
         if (isClone()) {
             ByteBufHelper.release(byteBuf);
         }
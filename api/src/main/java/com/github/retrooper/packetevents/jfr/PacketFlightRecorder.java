@@ -0,0 +1,87 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.jfr;
+
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Emits Java Flight Recorder events for decoding, listener calls, re-encoding and injection,
+ * so packet processing can be lined up with GC pauses and safepoints in a recording.
+ * <p>
+ * The events are enabled and configured through the usual JFR settings, e.g. {@code packetevents.ListenerInvoke#enabled=true}.
+ * On runtimes without {@code jdk.jfr} this class does nothing.
+ * Each {@code begin} method returns null if its event is disabled, in which case the matching
+ * {@code commit} method must not be called.
+ */
+@ApiStatus.Internal
+public class PacketFlightRecorder {
+
+    private static final PacketFlightRecorder INSTANCE = load();
+
+    protected PacketFlightRecorder() {
+    }
+
+    public static PacketFlightRecorder get() {
+        return INSTANCE;
+    }
+
+    public @Nullable Object beginDecode() {
+        return null;
+    }
+
+    public void commitDecode(Object event, @Nullable PacketTypeCommon packetType, @Nullable User user, int bytes) {
+    }
+
+    public @Nullable Object beginListenerInvoke() {
+        return null;
+    }
+
+    public void commitListenerInvoke(Object event, @Nullable PacketTypeCommon packetType, @Nullable User user,
+                                     PacketListenerCommon listener) {
+    }
+
+    public @Nullable Object beginReEncode() {
+        return null;
+    }
+
+    public void commitReEncode(Object event, @Nullable PacketTypeCommon packetType, @Nullable User user, int bytes) {
+    }
+
+    public @Nullable Object beginUserInject() {
+        return null;
+    }
+
+    public void commitUserInject(Object event, User user) {
+    }
+
+    private static PacketFlightRecorder load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            // compiled separately against Java 11, see the java11 source set
+            String implName = PacketFlightRecorder.class.getPackage().getName() + ".impl.JfrPacketFlightRecorder";
+            return (PacketFlightRecorder) Class.forName(implName).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return new PacketFlightRecorder();
+        }
+    }
+}
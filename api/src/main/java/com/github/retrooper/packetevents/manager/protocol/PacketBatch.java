@@ -0,0 +1,145 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.manager.protocol;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Queues outgoing packets and flushes every channel once.
+ * <p>
+ * Packets are written without flushing, {@link #flush()} then flushes each channel that
+ * had packets written to it a single time. A batch can be reused, so plugins sending
+ * packets every tick can keep one and flush it at the end of the tick.
+ * <p>
+ * When broadcasting, a wrapper is only encoded once per encoding it needs (once on backend
+ * servers, once per client version on proxies) and the encoded packet is shared by the channels.
+ * Packets sent silently share the encoded buffer itself, other packets get a copy of it
+ * since packet listeners may rewrite the buffer.
+ * <p>
+ * This class is not thread safe.
+ */
+public class PacketBatch {
+
+    private final ProtocolManager protocolManager;
+    private final Set<Object> unflushedChannels = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public PacketBatch(ProtocolManager protocolManager) {
+        this.protocolManager = protocolManager;
+    }
+
+    public void write(Object channel, PacketWrapper<?> wrapper) {
+        this.protocolManager.writePacket(channel, wrapper);
+        this.unflushedChannels.add(channel);
+    }
+
+    public void writeSilently(Object channel, PacketWrapper<?> wrapper) {
+        this.protocolManager.writePacketSilently(channel, wrapper);
+        this.unflushedChannels.add(channel);
+    }
+
+    public void broadcast(Collection<?> channels, PacketWrapper<?> wrapper) {
+        this.broadcast(channels, wrapper, false);
+    }
+
+    public void broadcastSilently(Collection<?> channels, PacketWrapper<?> wrapper) {
+        this.broadcast(channels, wrapper, true);
+    }
+
+    /**
+     * Flushes every channel packets were written to since the last flush.
+     */
+    public void flush() {
+        for (Object channel : this.unflushedChannels) {
+            if (ChannelHelper.isOpen(channel)) {
+                ChannelHelper.flush(channel);
+            }
+        }
+        this.unflushedChannels.clear();
+    }
+
+    private void broadcast(Collection<?> channels, PacketWrapper<?> wrapper, boolean silently) {
+        if (channels.isEmpty()) {
+            return;
+        }
+        if (!PacketEvents.getAPI().getInjector().isProxy()) {
+            // the packet is encoded for the server version, so it is the same for every channel
+            this.writeShared(channels, wrapper, silently);
+            return;
+        }
+        // proxies encode the packet for the version of each client
+        Map<ClientVersion, List<Object>> channelsByVersion = new EnumMap<>(ClientVersion.class);
+        for (Object channel : channels) {
+            User user = this.protocolManager.getUser(channel);
+            if (user == null) {
+                continue;
+            }
+            ClientVersion clientVersion = user.getClientVersion();
+            if (clientVersion == null) {
+                // the version isn't known yet, so the packet can't be shared with other channels
+                if (silently) {
+                    this.writeSilently(channel, wrapper);
+                } else {
+                    this.write(channel, wrapper);
+                }
+                continue;
+            }
+            channelsByVersion.computeIfAbsent(clientVersion, version -> new ArrayList<>()).add(channel);
+        }
+        for (List<Object> versionChannels : channelsByVersion.values()) {
+            this.writeShared(versionChannels, wrapper, silently);
+        }
+    }
+
+    private void writeShared(Collection<?> channels, PacketWrapper<?> wrapper, boolean silently) {
+        Object[] buffers = this.protocolManager.transformWrappers(wrapper, channels.iterator().next(), true);
+        try {
+            for (Object channel : channels) {
+                if (!ChannelHelper.isOpen(channel)) {
+                    continue;
+                }
+                for (Object buffer : buffers) {
+                    if (silently) {
+                        this.protocolManager.writePacketSilently(channel, ByteBufHelper.retainedDuplicate(buffer));
+                    } else {
+                        this.protocolManager.writePacket(channel, ByteBufHelper.copy(buffer));
+                    }
+                }
+                this.unflushedChannels.add(channel);
+            }
+        } finally {
+            for (Object buffer : buffers) {
+                ByteBufHelper.release(buffer);
+            }
+        }
+    }
+}
@@ -54,7 +54,6 @@ public interface ProtocolManager {
     void receivePacket(Object channel, Object byteBuf);
     void receivePacketSilently(Object channel, Object byteBuf);
     ClientVersion getClientVersion(Object channel);
-    //TODO Define method that accepts an array of channels/set/list of channels.
 
     default void sendPackets(Object channel, Object... byteBuf) {
         for (Object buf : byteBuf) {
@@ -135,6 +134,30 @@ public interface ProtocolManager {
         writePacketsSilently(channel, transformed);
     }
 
+    /**
+     * Sends the wrapper to all channels, encoding it only once per client version
+     * and flushing each channel once.
+     */
+    default void broadcastPacket(Collection<?> channels, PacketWrapper<?> wrapper) {
+        PacketBatch batch = createBatch();
+        batch.broadcast(channels, wrapper);
+        batch.flush();
+    }
+
+    default void broadcastPacketSilently(Collection<?> channels, PacketWrapper<?> wrapper) {
+        PacketBatch batch = createBatch();
+        batch.broadcastSilently(channels, wrapper);
+        batch.flush();
+    }
+
+    /**
+     * @return a new batch writing packets through this protocol manager
+     * @see PacketBatch
+     */
+    default PacketBatch createBatch() {
+        return new PacketBatch(this);
+    }
+
     default void receivePacket(Object channel, PacketWrapper<?> wrapper) {
         Object[] transformed = transformWrappers(wrapper, channel, false);
         receivePackets(channel, transformed);
@@ -0,0 +1,104 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent latency histogram with power of two buckets, bucket {@code i} holds the
+ * durations from {@code 2^i} up to {@code 2^(i + 1)} nanoseconds.
+ * Recording only increments striped counters, so it is cheap to call from every netty thread at once.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The amount of buckets, the last one also holds everything above {@code 2^BUCKETS} nanoseconds (~18 minutes).
+     */
+    public static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int bucket = 63 - Long.numberOfLeadingZeros(nanos | 1L);
+        this.buckets[Math.min(bucket, BUCKETS - 1)].increment();
+        this.totalNanos.add(nanos);
+    }
+
+    public long getCount() {
+        long count = 0L;
+        for (LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getBucketCount(int bucket) {
+        return this.buckets[bucket].sum();
+    }
+
+    public long getTotalNanos() {
+        return this.totalNanos.sum();
+    }
+
+    public double getMeanNanos() {
+        long count = this.getCount();
+        return count == 0L ? 0D : (double) this.getTotalNanos() / count;
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket the percentile falls into, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0L) {
+            return 0L;
+        }
+        long threshold = (long) Math.ceil(count * Math.max(0D, Math.min(100D, percentile)) / 100D);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= threshold && counts[i] != 0L) {
+                return (1L << (i + 1)) - 1L;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.totalNanos.reset();
+    }
+}
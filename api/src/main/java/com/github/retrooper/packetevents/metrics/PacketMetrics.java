@@ -0,0 +1,121 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.metrics;
+
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in timings of the listeners and packet types, meant for finding out which listener
+ * slows down which packets without attaching a profiler.
+ * Nothing is measured until {@link #setEnabled(boolean)} is called, a disabled instance only
+ * costs a volatile read per event.
+ */
+public final class PacketMetrics {
+
+    private final Map<PacketListenerCommon, ListenerMetrics> listeners = new ConcurrentHashMap<>();
+    private final Map<PacketTypeCommon, PacketTypeMetrics> packetTypes = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Collection<ListenerMetrics> getListenerMetrics() {
+        return Collections.unmodifiableCollection(this.listeners.values());
+    }
+
+    public @Nullable ListenerMetrics getListenerMetrics(PacketListenerCommon listener) {
+        return this.listeners.get(listener);
+    }
+
+    public Collection<PacketTypeMetrics> getPacketTypeMetrics() {
+        return Collections.unmodifiableCollection(this.packetTypes.values());
+    }
+
+    public @Nullable PacketTypeMetrics getPacketTypeMetrics(PacketTypeCommon packetType) {
+        return this.packetTypes.get(packetType);
+    }
+
+    /**
+     * Forgets everything measured so far.
+     * The timings of a listener are already forgotten once it is unregistered.
+     */
+    public void reset() {
+        this.listeners.clear();
+        this.packetTypes.clear();
+    }
+
+    /**
+     * Forgets the timings of an unregistered listener, so the listener isn't kept alive by them.
+     */
+    @ApiStatus.Internal
+    public void removeListener(PacketListenerCommon listener) {
+        this.listeners.remove(listener);
+    }
+
+    @ApiStatus.Internal
+    public void removeListeners() {
+        this.listeners.clear();
+    }
+
+    @ApiStatus.Internal
+    public void recordListener(PacketListenerCommon listener, long nanos) {
+        ListenerMetrics metrics = this.listeners.get(listener);
+        if (metrics == null) {
+            metrics = this.listeners.computeIfAbsent(listener, ListenerMetrics::new);
+        }
+        metrics.getLatency().record(nanos);
+    }
+
+    @ApiStatus.Internal
+    public void recordPacket(PacketTypeCommon packetType, int bytes, long nanos) {
+        this.getOrCreate(packetType).recordPacket(bytes, nanos);
+    }
+
+    @ApiStatus.Internal
+    public void recordDecode(PacketTypeCommon packetType, long nanos) {
+        this.getOrCreate(packetType).recordDecode(nanos);
+    }
+
+    @ApiStatus.Internal
+    public void recordEncode(PacketTypeCommon packetType, int bytes, long nanos) {
+        this.getOrCreate(packetType).recordEncode(bytes, nanos);
+    }
+
+    private PacketTypeMetrics getOrCreate(PacketTypeCommon packetType) {
+        // avoid computeIfAbsent locking the bin on the hot path
+        PacketTypeMetrics metrics = this.packetTypes.get(packetType);
+        if (metrics == null) {
+            metrics = this.packetTypes.computeIfAbsent(packetType, PacketTypeMetrics::new);
+        }
+        return metrics;
+    }
+}
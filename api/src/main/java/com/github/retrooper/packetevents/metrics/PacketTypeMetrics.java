@@ -0,0 +1,101 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.metrics;
+
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The work done for one packet type: calling the listeners, decoding wrappers
+ * and re-encoding the packet when a listener modified it.
+ */
+public final class PacketTypeMetrics {
+
+    private final PacketTypeCommon packetType;
+    private final LatencyHistogram listenerLatency = new LatencyHistogram();
+    private final LatencyHistogram decodeLatency = new LatencyHistogram();
+    private final LatencyHistogram encodeLatency = new LatencyHistogram();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder encodedBytes = new LongAdder();
+
+    PacketTypeMetrics(PacketTypeCommon packetType) {
+        this.packetType = packetType;
+    }
+
+    public PacketTypeCommon getPacketType() {
+        return this.packetType;
+    }
+
+    /**
+     * @return how many packets of this type were passed to the listeners
+     */
+    public long getPackets() {
+        return this.listenerLatency.getCount();
+    }
+
+    /**
+     * @return the time it took to call all listeners for one packet
+     */
+    public LatencyHistogram getListenerLatency() {
+        return this.listenerLatency;
+    }
+
+    /**
+     * @return the time it took to read a wrapper from the packet buffer
+     */
+    public LatencyHistogram getDecodeLatency() {
+        return this.decodeLatency;
+    }
+
+    /**
+     * @return the time it took to write a modified packet back into its buffer
+     */
+    public LatencyHistogram getEncodeLatency() {
+        return this.encodeLatency;
+    }
+
+    /**
+     * @return the total size of the packets passed to the listeners, excluding their packet ids
+     */
+    public long getBytes() {
+        return this.bytes.sum();
+    }
+
+    /**
+     * @return the total size of the re-encoded packets, including their packet ids
+     */
+    public long getEncodedBytes() {
+        return this.encodedBytes.sum();
+    }
+
+    void recordPacket(int bytes, long nanos) {
+        this.bytes.add(bytes);
+        this.listenerLatency.record(nanos);
+    }
+
+    void recordDecode(long nanos) {
+        this.decodeLatency.record(nanos);
+    }
+
+    void recordEncode(int bytes, long nanos) {
+        this.encodedBytes.add(bytes);
+        this.encodeLatency.record(nanos);
+    }
+}
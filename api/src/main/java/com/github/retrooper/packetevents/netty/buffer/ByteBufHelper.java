@@ -20,6 +20,7 @@ package com.github.retrooper.packetevents.netty.buffer;
 
 import com.github.retrooper.packetevents.PacketEvents;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public class ByteBufHelper {
@@ -240,29 +241,27 @@ public class ByteBufHelper {
     }
 
     public static int readVarInt(Object buffer) {
-        int value = 0;
-        int length = 0;
-        byte currentByte;
-        do {
-            currentByte = readByte(buffer);
-            value |= (currentByte & 0x7F) << (length * 7);
-            length++;
-            if (length > 5) {
-                throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
-            }
-        } while ((currentByte & 0x80) == 0x80);
-        return value;
+        return PacketEvents.getAPI().getNettyManager().getByteBufOperator().readVarInt(buffer);
     }
 
     public static void writeVarInt(Object buffer, int value) {
-        while (true) {
-            if ((value & ~0x7F) == 0) {
-                writeByte(buffer, value);
-                return;
-            }
-            writeByte(buffer, (value & 0x7F) | 0x80);
-            value >>>= 7;
-        }
+        PacketEvents.getAPI().getNettyManager().getByteBufOperator().writeVarInt(buffer, value);
+    }
+
+    public static long readVarLong(Object buffer) {
+        return PacketEvents.getAPI().getNettyManager().getByteBufOperator().readVarLong(buffer);
+    }
+
+    public static void readLongs(Object buffer, long[] destination) {
+        PacketEvents.getAPI().getNettyManager().getByteBufOperator().readLongs(buffer, destination);
+    }
+
+    public static ByteBuffer nioBuffer(Object buffer, int index, int length) {
+        return PacketEvents.getAPI().getNettyManager().getByteBufOperator().nioBuffer(buffer, index, length);
+    }
+
+    public static String readString(Object buffer, int length, Charset charset) {
+        return PacketEvents.getAPI().getNettyManager().getByteBufOperator().readString(buffer, length, charset);
     }
 
     public static byte[] copyBytes(Object buffer) {
@@ -18,6 +18,7 @@
 
 package com.github.retrooper.packetevents.netty.buffer;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public interface ByteBufOperator {
@@ -115,4 +116,65 @@ public interface ByteBufOperator {
     default void writeBoolean(Object buffer, boolean value) {
         writeByte(buffer, value ? 1 : 0);
     }
+
+    // Bulk operations, platforms should override these to avoid going through this interface once per byte
+
+    default int readVarInt(Object buffer) {
+        int value = 0;
+        int length = 0;
+        byte currentByte;
+        do {
+            currentByte = readByte(buffer);
+            value |= (currentByte & 0x7F) << (length * 7);
+            length++;
+            if (length > 5) {
+                throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
+            }
+        } while ((currentByte & 0x80) == 0x80);
+        return value;
+    }
+
+    default void writeVarInt(Object buffer, int value) {
+        while (true) {
+            if ((value & ~0x7F) == 0) {
+                writeByte(buffer, value);
+                return;
+            }
+            writeByte(buffer, (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+    }
+
+    default long readVarLong(Object buffer) {
+        long value = 0;
+        int size = 0;
+        int b;
+        while (((b = readByte(buffer)) & 0x80) == 0x80) {
+            value |= (long) (b & 0x7F) << (size++ * 7);
+        }
+        return value | ((long) (b & 0x7F) << (size * 7));
+    }
+
+    default void readLongs(Object buffer, long[] destination) {
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = readLong(buffer);
+        }
+    }
+
+    /**
+     * Exposes the given region as a {@link ByteBuffer}, sharing the memory of the buffer where
+     * possible. The returned buffer is only valid as long as the buffer is not released.
+     */
+    default ByteBuffer nioBuffer(Object buffer, int index, int length) {
+        byte[] bytes = new byte[length];
+        getBytes(buffer, index, bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    default String readString(Object buffer, int length, Charset charset) {
+        int readerIndex = readerIndex(buffer);
+        String s = toString(buffer, readerIndex, length, charset);
+        readerIndex(buffer, readerIndex + length);
+        return s;
+    }
 }
@@ -0,0 +1,166 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.component;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.item.type.ItemType;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Interns decoded item component patches by their encoded bytes, so items with the same
+ * components (sent over and over by inventory updates) share one patch map instead of decoding it again.
+ * <p>
+ * Only patches of immutable values (numbers, strings, enums...) are interned, as most
+ * component values are mutable and must not be shared between item stacks.
+ * The cache is direct-mapped, colliding patches simply replace each other.
+ */
+@ApiStatus.Internal
+public final class ComponentPatchCache {
+
+    /**
+     * Patches longer than this aren't interned, they are usually unique anyway.
+     */
+    public static final int MAX_PATCH_LENGTH = 128;
+    private static final int HASHED_PREFIX_LENGTH = 16;
+    private static final int SIZE = 1024;
+
+    private static final Entry[] ENTRIES = new Entry[SIZE];
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[MAX_PATCH_LENGTH]);
+
+    private ComponentPatchCache() {
+    }
+
+    /**
+     * Looks up the patches encoded at the reader index of the buffer, skipping them if found.
+     *
+     * @return the interned patches, or null if they have to be decoded
+     */
+    public static @Nullable Map<ComponentType<?>, Optional<?>> read(
+            Object buffer, ServerVersion version, ItemType type, int presentCount, int absentCount
+    ) {
+        int start = ByteBufHelper.readerIndex(buffer);
+        int length = Math.min(MAX_PATCH_LENGTH, ByteBufHelper.readableBytes(buffer));
+        if (length < keyLength(presentCount, absentCount)) {
+            return null;
+        }
+        byte[] scratch = SCRATCH.get();
+        ByteBufHelper.nioBuffer(buffer, start, length).get(scratch, 0, length);
+        Entry entry = ENTRIES[slot(scratch, type, presentCount, absentCount)];
+        if (entry == null || entry.type != type || entry.version != version
+                || entry.presentCount != presentCount || entry.absentCount != absentCount
+                || entry.bytes.length > length || !startsWith(scratch, entry.bytes)) {
+            return null;
+        }
+        ByteBufHelper.readerIndex(buffer, start + entry.bytes.length);
+        return entry.patches;
+    }
+
+    /**
+     * Interns the patches which were just decoded from the buffer between the start and the reader index.
+     * Interned patches must not be modified anymore.
+     *
+     * @return whether the patches were interned
+     */
+    public static boolean store(
+            Object buffer, int start, ServerVersion version, ItemType type, int presentCount, int absentCount,
+            Map<ComponentType<?>, Optional<?>> patches
+    ) {
+        int length = ByteBufHelper.readerIndex(buffer) - start;
+        if (length > MAX_PATCH_LENGTH || !isImmutable(patches)) {
+            return false;
+        }
+        byte[] bytes = new byte[length];
+        ByteBufHelper.getBytes(buffer, start, bytes);
+        int slot = slot(bytes, type, presentCount, absentCount);
+        ENTRIES[slot] = new Entry(type, version, presentCount, absentCount, bytes, Collections.unmodifiableMap(patches));
+        return true;
+    }
+
+    /**
+     * Patches are keyed by their first bytes, as their length isn't known before decoding them.
+     * Every patch entry starts with at least one byte for its component id, so patches are never
+     * shorter than their entry count and the key never reaches past the end of the patch.
+     */
+    private static int keyLength(int presentCount, int absentCount) {
+        return Math.min(HASHED_PREFIX_LENGTH, presentCount + absentCount);
+    }
+
+    private static int slot(byte[] bytes, ItemType type, int presentCount, int absentCount) {
+        int hash = System.identityHashCode(type);
+        hash = 31 * hash + presentCount;
+        hash = 31 * hash + absentCount;
+        int keyLength = keyLength(presentCount, absentCount);
+        for (int i = 0; i < keyLength; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        hash ^= hash >>> 16;
+        return hash & (SIZE - 1);
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isImmutable(Map<ComponentType<?>, Optional<?>> patches) {
+        for (Optional<?> patch : patches.values()) {
+            if (patch.isPresent() && !isImmutable(patch.get())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof Number || value instanceof String || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum || value instanceof UUID;
+    }
+
+    private static final class Entry {
+        private final ItemType type;
+        private final ServerVersion version;
+        private final int presentCount;
+        private final int absentCount;
+        private final byte[] bytes;
+        private final Map<ComponentType<?>, Optional<?>> patches;
+
+        private Entry(
+                ItemType type, ServerVersion version, int presentCount, int absentCount,
+                byte[] bytes, Map<ComponentType<?>, Optional<?>> patches
+        ) {
+            this.type = type;
+            this.version = version;
+            this.presentCount = presentCount;
+            this.absentCount = absentCount;
+            this.bytes = bytes;
+            this.patches = patches;
+        }
+    }
+}
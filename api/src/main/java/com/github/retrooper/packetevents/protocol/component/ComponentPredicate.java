@@ -50,7 +50,7 @@ public class ComponentPredicate implements Predicate<IComponentMap> {
 
     @SuppressWarnings("unchecked")
     public static ComponentPredicate fromPatches(PatchableComponentMap components) {
-        Map<ComponentType<?>, Optional<?>> patches = components.getPatches();
+        Map<ComponentType<?>, Optional<?>> patches = components.peekPatches();
         List<ComponentValue<?>> values = new ArrayList<>(patches.size());
         for (Map.Entry<ComponentType<?>, Optional<?>> patch : patches.entrySet()) {
             if (patch.getValue().isPresent()) {
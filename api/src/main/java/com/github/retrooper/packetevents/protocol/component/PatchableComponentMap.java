@@ -18,6 +18,7 @@
 
 package com.github.retrooper.packetevents.protocol.component;
 
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
@@ -32,10 +33,12 @@ public class PatchableComponentMap implements IComponentMap {
             Collections.emptyMap(), Collections.emptyMap());
 
     private final Map<ComponentType<?>, ?> base;
-    private final Map<ComponentType<?>, Optional<?>> patches;
+    private Map<ComponentType<?>, Optional<?>> patches;
+    // whether the patches are shared with other maps and have to be copied before modifying them
+    private boolean sharedPatches;
 
     public PatchableComponentMap(StaticComponentMap base) {
-        this(base.getDelegate(), new HashMap<>());
+        this(base, new HashMap<>());
     }
 
     public PatchableComponentMap(Map<ComponentType<?>, ?> base) {
@@ -46,7 +49,19 @@ public class PatchableComponentMap implements IComponentMap {
             StaticComponentMap base,
             Map<ComponentType<?>, Optional<?>> patches
     ) {
-        this(base.getDelegate(), patches);
+        // the delegate of static maps is immutable already, so it doesn't need to be copied
+        this.base = base.getDelegate();
+        this.patches = patches;
+    }
+
+    private PatchableComponentMap(
+            Map<ComponentType<?>, ?> base,
+            Map<ComponentType<?>, Optional<?>> patches,
+            boolean sharedPatches
+    ) {
+        this.base = base;
+        this.patches = patches;
+        this.sharedPatches = sharedPatches;
     }
 
     public PatchableComponentMap(
@@ -57,6 +72,18 @@ public class PatchableComponentMap implements IComponentMap {
         this.patches = patches;
     }
 
+    /**
+     * Creates a map using the specified patches without copying them, they are copied
+     * once the map is modified. The patches must not be modified by the caller afterwards.
+     */
+    @ApiStatus.Internal
+    public static PatchableComponentMap shared(
+            StaticComponentMap base,
+            Map<ComponentType<?>, Optional<?>> patches
+    ) {
+        return new PatchableComponentMap(base.getDelegate(), patches, true);
+    }
+
     @SuppressWarnings("unchecked") // no
     @Override
     public <T> @Nullable T get(ComponentType<T> type) {
@@ -72,9 +99,11 @@ public class PatchableComponentMap implements IComponentMap {
         Object baseVal = this.base.get(type);
         T newVal = value.orElse(null);
         if (Objects.equals(baseVal, newVal)) {
-            this.patches.remove(type); // fallback to base
+            if (this.patches.containsKey(type)) {
+                this.modifiablePatches().remove(type); // fallback to base
+            }
         } else {
-            this.patches.put(type, value);
+            this.modifiablePatches().put(type, value);
         }
     }
 
@@ -85,7 +114,18 @@ public class PatchableComponentMap implements IComponentMap {
     }
 
     public PatchableComponentMap copy() {
-        return new PatchableComponentMap(this.base, new HashMap<>(this.patches));
+        if (this.sharedPatches) {
+            return new PatchableComponentMap(this.base, this.patches, true);
+        }
+        return new PatchableComponentMap(this.base, new HashMap<>(this.patches), false);
+    }
+
+    private Map<ComponentType<?>, Optional<?>> modifiablePatches() {
+        if (this.sharedPatches) {
+            this.patches = new HashMap<>(this.patches);
+            this.sharedPatches = false;
+        }
+        return this.patches;
     }
 
     public Map<ComponentType<?>, ?> getBase() {
@@ -93,9 +133,22 @@ public class PatchableComponentMap implements IComponentMap {
     }
 
     public Map<ComponentType<?>, Optional<?>> getPatches() {
+        // the returned map may be modified by the caller
+        return this.modifiablePatches();
+    }
+
+    /**
+     * @return the patches, without copying them if they are shared, so the returned map must not be modified
+     */
+    @ApiStatus.Internal
+    public Map<ComponentType<?>, Optional<?>> peekPatches() {
         return this.patches;
     }
 
+    public boolean hasPatches() {
+        return !this.patches.isEmpty();
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -0,0 +1,374 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.entity.data;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact alternative to a list of {@link EntityData}, addressed by the entity data index.
+ * <p>
+ * Byte, int, float and boolean values are stored unboxed, all other values are stored as objects.
+ * Entries keep the order they were read or added in, so a read store is written back the same way.
+ * Values can be edited in place, e.g. clearing the glowing bit of the shared flags:
+ * <pre>{@code store.setFlag(0, 0x40, false);}</pre>
+ * <p>
+ * This class isn't thread-safe.
+ */
+public class EntityMetadataStore implements EntityMetadataProvider {
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private byte[] indices;
+    private EntityDataType<?>[] types;
+    private int[] primitives;
+    private Object[] objects;
+    private int size;
+    // Set once a packet replaced this store by a list, modifications would be lost from then on
+    private boolean detached;
+
+    public EntityMetadataStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EntityMetadataStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.indices = new byte[capacity];
+        this.types = new EntityDataType[capacity];
+        this.primitives = new int[capacity];
+        this.objects = new Object[capacity];
+    }
+
+    public static EntityMetadataStore of(@Nullable List<EntityData> entityData) {
+        if (entityData == null) {
+            return new EntityMetadataStore();
+        }
+        EntityMetadataStore store = new EntityMetadataStore(entityData.size());
+        for (EntityData data : entityData) {
+            store.set(data.getIndex(), data.getType(), data.getValue());
+        }
+        return store;
+    }
+
+    public static EntityMetadataStore read(PacketWrapper<?> wrapper) {
+        ServerVersion serverVersion = wrapper.getServerVersion();
+        ClientVersion version = serverVersion.toClientVersion();
+        EntityMetadataStore store = new EntityMetadataStore();
+        if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9)) {
+            boolean v1_10 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_10);
+            short index;
+            while ((index = wrapper.readUnsignedByte()) != 255) {
+                int typeID = v1_10 ? wrapper.readVarInt() : wrapper.readUnsignedByte();
+                EntityDataType<?> type = EntityDataTypes.getById(version, typeID);
+                if (type == null) {
+                    throw new IllegalStateException("Unknown entity metadata type id: " + typeID + " version " + version);
+                }
+                store.readEntry(wrapper, index, type);
+            }
+        } else {
+            for (byte data = wrapper.readByte(); data != Byte.MAX_VALUE; data = wrapper.readByte()) {
+                int typeID = (data & 0xE0) >> 5;
+                int index = data & 0x1F;
+                store.readEntry(wrapper, index, EntityDataTypes.getById(version, typeID));
+            }
+        }
+        return store;
+    }
+
+    public static void write(PacketWrapper<?> wrapper, EntityMetadataStore store) {
+        ServerVersion serverVersion = wrapper.getServerVersion();
+        ClientVersion version = serverVersion.toClientVersion();
+        if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9)) {
+            boolean v1_10 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_10);
+            for (int slot = 0; slot < store.size; slot++) {
+                EntityDataType<?> type = store.types[slot];
+                wrapper.writeByte(store.indices[slot]);
+                if (v1_10) {
+                    wrapper.writeVarInt(type.getId(version));
+                } else {
+                    wrapper.writeByte(type.getId(version));
+                }
+                store.writeEntry(wrapper, slot);
+            }
+            wrapper.writeByte(255); // End of metadata array
+        } else {
+            for (int slot = 0; slot < store.size; slot++) {
+                int typeID = store.types[slot].getId(version);
+                int data = (typeID << 5 | store.indices[slot] & 31) & 255;
+                wrapper.writeByte(data);
+                store.writeEntry(wrapper, slot);
+            }
+            wrapper.writeByte(127); // End of metadata array
+        }
+    }
+
+    private void readEntry(PacketWrapper<?> wrapper, int index, EntityDataType<?> type) {
+        int slot = this.add(index, type);
+        if (type == EntityDataTypes.BYTE) {
+            this.primitives[slot] = wrapper.readByte();
+        } else if (type == EntityDataTypes.INT) {
+            this.primitives[slot] = wrapper.getServerVersion().isNewerThanOrEquals(ServerVersion.V_1_9)
+                    ? wrapper.readVarInt() : wrapper.readInt();
+        } else if (type == EntityDataTypes.FLOAT) {
+            this.primitives[slot] = Float.floatToRawIntBits(wrapper.readFloat());
+        } else if (type == EntityDataTypes.BOOLEAN) {
+            this.primitives[slot] = wrapper.readBoolean() ? 1 : 0;
+        } else {
+            this.objects[slot] = type.getDataDeserializer().apply(wrapper);
+        }
+    }
+
+    private void writeEntry(PacketWrapper<?> wrapper, int slot) {
+        EntityDataType<?> type = this.types[slot];
+        int primitive = this.primitives[slot];
+        if (type == EntityDataTypes.BYTE) {
+            wrapper.writeByte(primitive);
+        } else if (type == EntityDataTypes.INT) {
+            if (wrapper.getServerVersion().isNewerThanOrEquals(ServerVersion.V_1_9)) {
+                wrapper.writeVarInt(primitive);
+            } else {
+                wrapper.writeInt(primitive);
+            }
+        } else if (type == EntityDataTypes.FLOAT) {
+            wrapper.writeFloat(Float.intBitsToFloat(primitive));
+        } else if (type == EntityDataTypes.BOOLEAN) {
+            wrapper.writeBoolean(primitive != 0);
+        } else {
+            type.getDataSerializer().accept(wrapper, this.objects[slot]);
+        }
+    }
+
+    private static boolean isPrimitive(EntityDataType<?> type) {
+        return type == EntityDataTypes.BYTE || type == EntityDataTypes.INT
+                || type == EntityDataTypes.FLOAT || type == EntityDataTypes.BOOLEAN;
+    }
+
+    private int slot(int index) {
+        byte key = (byte) index;
+        byte[] indices = this.indices;
+        for (int slot = 0; slot < this.size; slot++) {
+            if (indices[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // returns the slot of the index, which is added if missing, and (re)sets its type
+    private int add(int index, EntityDataType<?> type) {
+        this.checkAttached();
+        if (index < 0 || index > 254) {
+            throw new IllegalArgumentException("Entity data index " + index + " is out of bounds");
+        }
+        int slot = this.slot(index);
+        if (slot == -1) {
+            if (this.size == this.indices.length) {
+                int capacity = this.size << 1;
+                this.indices = Arrays.copyOf(this.indices, capacity);
+                this.types = Arrays.copyOf(this.types, capacity);
+                this.primitives = Arrays.copyOf(this.primitives, capacity);
+                this.objects = Arrays.copyOf(this.objects, capacity);
+            }
+            slot = this.size++;
+            this.indices[slot] = (byte) index;
+        }
+        this.types[slot] = type;
+        this.objects[slot] = null;
+        return slot;
+    }
+
+    private int primitiveSlot(int index, EntityDataType<?> type) {
+        int slot = this.slot(index);
+        if (slot == -1) {
+            throw new IllegalStateException("No entity data with index " + index);
+        }
+        if (this.types[slot] != type) {
+            throw new IllegalStateException("Entity data with index " + index + " is of type "
+                    + this.types[slot].getName() + ", not " + type.getName());
+        }
+        return slot;
+    }
+
+    /**
+     * Makes all later modifications of this store fail, used once a packet converted the store to a list.
+     */
+    @ApiStatus.Internal
+    public void detach() {
+        this.detached = true;
+    }
+
+    private void checkAttached() {
+        if (this.detached) {
+            throw new IllegalStateException("The store was converted to a list by its packet, modify the list instead");
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean has(int index) {
+        return this.slot(index) != -1;
+    }
+
+    public @Nullable EntityDataType<?> getType(int index) {
+        int slot = this.slot(index);
+        return slot == -1 ? null : this.types[slot];
+    }
+
+    /**
+     * @return the value with the index, primitive values are boxed
+     */
+    public @Nullable Object getValue(int index) {
+        int slot = this.slot(index);
+        if (slot == -1) {
+            return null;
+        }
+        return this.getValueAt(slot);
+    }
+
+    private Object getValueAt(int slot) {
+        EntityDataType<?> type = this.types[slot];
+        int primitive = this.primitives[slot];
+        if (type == EntityDataTypes.BYTE) {
+            return (byte) primitive;
+        } else if (type == EntityDataTypes.INT) {
+            return primitive;
+        } else if (type == EntityDataTypes.FLOAT) {
+            return Float.intBitsToFloat(primitive);
+        } else if (type == EntityDataTypes.BOOLEAN) {
+            return primitive != 0;
+        }
+        return this.objects[slot];
+    }
+
+    public byte getByte(int index) {
+        return (byte) this.primitives[this.primitiveSlot(index, EntityDataTypes.BYTE)];
+    }
+
+    public int getInt(int index) {
+        return this.primitives[this.primitiveSlot(index, EntityDataTypes.INT)];
+    }
+
+    public float getFloat(int index) {
+        return Float.intBitsToFloat(this.primitives[this.primitiveSlot(index, EntityDataTypes.FLOAT)]);
+    }
+
+    public boolean getBoolean(int index) {
+        return this.primitives[this.primitiveSlot(index, EntityDataTypes.BOOLEAN)] != 0;
+    }
+
+    /**
+     * @return whether all bits of the mask are set in the byte with the index
+     */
+    public boolean getFlag(int index, int mask) {
+        return (this.getByte(index) & mask) == mask;
+    }
+
+    public void setByte(int index, byte value) {
+        this.primitives[this.add(index, EntityDataTypes.BYTE)] = value;
+    }
+
+    public void setInt(int index, int value) {
+        this.primitives[this.add(index, EntityDataTypes.INT)] = value;
+    }
+
+    public void setFloat(int index, float value) {
+        this.primitives[this.add(index, EntityDataTypes.FLOAT)] = Float.floatToRawIntBits(value);
+    }
+
+    public void setBoolean(int index, boolean value) {
+        this.primitives[this.add(index, EntityDataTypes.BOOLEAN)] = value ? 1 : 0;
+    }
+
+    /**
+     * Sets or clears the bits of the mask in the byte with the index, which has to exist already.
+     */
+    public void setFlag(int index, int mask, boolean value) {
+        this.checkAttached();
+        int slot = this.primitiveSlot(index, EntityDataTypes.BYTE);
+        int flags = this.primitives[slot];
+        this.primitives[slot] = (byte) (value ? flags | mask : flags & ~mask);
+    }
+
+    public <T> void setValue(int index, EntityDataType<T> type, T value) {
+        this.set(index, type, value);
+    }
+
+    private void set(int index, EntityDataType<?> type, Object value) {
+        if (!isPrimitive(type)) {
+            this.objects[this.add(index, type)] = value;
+        } else if (type == EntityDataTypes.BOOLEAN) {
+            this.setBoolean(index, (Boolean) value);
+        } else if (type == EntityDataTypes.FLOAT) {
+            this.setFloat(index, ((Number) value).floatValue());
+        } else if (type == EntityDataTypes.INT) {
+            this.setInt(index, ((Number) value).intValue());
+        } else {
+            this.setByte(index, ((Number) value).byteValue());
+        }
+    }
+
+    public boolean remove(int index) {
+        this.checkAttached();
+        int slot = this.slot(index);
+        if (slot == -1) {
+            return false;
+        }
+        int moved = this.size - slot - 1;
+        System.arraycopy(this.indices, slot + 1, this.indices, slot, moved);
+        System.arraycopy(this.types, slot + 1, this.types, slot, moved);
+        System.arraycopy(this.primitives, slot + 1, this.primitives, slot, moved);
+        System.arraycopy(this.objects, slot + 1, this.objects, slot, moved);
+        this.size--;
+        this.types[this.size] = null;
+        this.objects[this.size] = null;
+        return true;
+    }
+
+    public void clear() {
+        this.checkAttached();
+        Arrays.fill(this.types, 0, this.size, null);
+        Arrays.fill(this.objects, 0, this.size, null);
+        this.size = 0;
+    }
+
+    public List<EntityData> toList() {
+        List<EntityData> list = new ArrayList<>(this.size);
+        for (int slot = 0; slot < this.size; slot++) {
+            list.add(new EntityData(this.indices[slot] & 0xFF, this.types[slot], this.getValueAt(slot)));
+        }
+        return list;
+    }
+
+    @Override
+    public List<EntityData> entityData(ClientVersion version) {
+        return this.toList();
+    }
+}
@@ -22,6 +22,7 @@ import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.resources.ResourceLocation;
 import com.github.retrooper.packetevents.util.mappings.TypesBuilder;
 import com.github.retrooper.packetevents.util.mappings.TypesBuilderData;
+import com.github.retrooper.packetevents.util.mappings.VersionedIdTable;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
@@ -33,8 +34,8 @@ import java.util.Optional;
 public class EntityTypes {
     private static final Map<String, EntityType> ENTITY_TYPE_MAP = new HashMap<>();
     //Key - mappings version, value - map with entity type ids and entity types
-    private static final Map<Byte, Map<Integer, EntityType>> ENTITY_TYPE_ID_MAP = new HashMap<>();
-    private static final Map<Byte, Map<Integer, EntityType>> LEGACY_ENTITY_TYPE_ID_MAP = new HashMap<>();
+    private static final VersionedIdTable<EntityType> ENTITY_TYPE_ID_MAP = new VersionedIdTable<>();
+    private static final VersionedIdTable<EntityType> LEGACY_ENTITY_TYPE_ID_MAP = new VersionedIdTable<>();
     private static final TypesBuilder TYPES_BUILDER = new TypesBuilder("entity/entity_type_mappings");
     private static final TypesBuilder LEGACY_TYPES_BUILDER = new TypesBuilder("entity/legacy_entity_type_mappings");
 
@@ -73,15 +74,11 @@ public class EntityTypes {
         };
         ENTITY_TYPE_MAP.put(entityType.getName().toString(), entityType);
         for (ClientVersion version : TYPES_BUILDER.getVersions()) {
-            int index = TYPES_BUILDER.getDataIndex(version);
-            Map<Integer, EntityType> typeIdMap = ENTITY_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-            typeIdMap.put(entityType.getId(version), entityType);
+            ENTITY_TYPE_ID_MAP.put(TYPES_BUILDER.getDataIndex(version), entityType.getId(version), entityType);
         }
 
         for (ClientVersion version : LEGACY_TYPES_BUILDER.getVersions()) {
-            int index = LEGACY_TYPES_BUILDER.getDataIndex(version);
-            Map<Integer, EntityType> legacyTypeIdMap = LEGACY_ENTITY_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-            legacyTypeIdMap.put(entityType.getLegacyId(version), entityType);
+            LEGACY_ENTITY_TYPE_ID_MAP.put(LEGACY_TYPES_BUILDER.getDataIndex(version), entityType.getLegacyId(version), entityType);
         }
 
         return entityType;
@@ -107,16 +104,14 @@ public class EntityTypes {
     }
 
     public static EntityType getById(ClientVersion version, int id) {
-        int index = TYPES_BUILDER.getDataIndex(version);
-        return ENTITY_TYPE_ID_MAP.get((byte) index).get(id);
+        return ENTITY_TYPE_ID_MAP.get(TYPES_BUILDER.getDataIndex(version), id);
     }
 
     public static EntityType getByLegacyId(ClientVersion version, int id) {
         if (version.isNewerThanOrEquals(ClientVersion.V_1_14)) {
             return null;
         }
-        int index = LEGACY_TYPES_BUILDER.getDataIndex(version);
-        return LEGACY_ENTITY_TYPE_ID_MAP.get((byte) index).get(id);
+        return LEGACY_ENTITY_TYPE_ID_MAP.get(LEGACY_TYPES_BUILDER.getDataIndex(version), id);
     }
 
     // Credit to ViaVersion for these categories
@@ -38,6 +38,7 @@ import com.github.retrooper.packetevents.protocol.nbt.NBTString;
 import com.github.retrooper.packetevents.protocol.nbt.NBTType;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.resources.ResourceLocation;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
@@ -84,6 +85,14 @@ public class ItemStack {
         updateCachedEmptyStatus();
     }
 
+    /**
+     * Creates an item stack without going through a {@link Builder}, used when decoding items.
+     */
+    @ApiStatus.Internal
+    public static ItemStack of(ItemType type, int amount, @Nullable PatchableComponentMap components) {
+        return new ItemStack(type, amount, null, components, -1);
+    }
+
     public static ItemStack decode(NBT nbt, ClientVersion version) {
         if (nbt instanceof NBTString) {
             ResourceLocation itemName = new ResourceLocation(((NBTString) nbt).getValue());
@@ -112,7 +121,7 @@ public class ItemStack {
         if (version.isNewerThanOrEquals(ClientVersion.V_1_20_5)) {
             boolean simple = itemStack.isEmpty()
                     || itemStack.components == null
-                    || itemStack.components.getPatches().isEmpty();
+                    || !itemStack.components.hasPatches();
             if (simple) {
                 return new NBTString(itemStack.type.getName().toString());
             }
@@ -269,7 +278,7 @@ public class ItemStack {
     }
 
     public boolean hasComponentPatches() {
-        return this.components != null && !this.components.getPatches().isEmpty();
+        return this.components != null && this.components.hasPatches();
     }
 
     public PatchableComponentMap getComponents() {
@@ -512,7 +521,7 @@ public class ItemStack {
             int maxAmount = getType().getMaxAmount();
             return "ItemStack[type=" + identifier + ", amount=" + amount + "/" + maxAmount
                     + ", nbt tag names: " + (nbt != null ? nbt.getTagNames() : "[null]")
-                    + ", legacyData=" + legacyData + ", components=" + (components != null ? components.getPatches() : null) + "]";
+                    + ", legacyData=" + legacyData + ", components=" + (components != null ? components.peekPatches() : null) + "]";
         }
     }
 
@@ -23,6 +23,7 @@ import com.github.retrooper.packetevents.resources.ResourceLocation;
 import com.github.retrooper.packetevents.util.mappings.MappingHelper;
 import com.github.retrooper.packetevents.util.mappings.TypesBuilder;
 import com.github.retrooper.packetevents.util.mappings.TypesBuilderData;
+import com.github.retrooper.packetevents.util.mappings.VersionedIdTable;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,7 +31,7 @@ import java.util.Map;
 public class ArmorMaterials {
 
     private static final Map<String, ArmorMaterial> MATERIAL_MAP = new HashMap<>();
-    private static final Map<Byte, Map<Integer, ArmorMaterial>> MATERIAL_ID_MAP = new HashMap<>();
+    private static final VersionedIdTable<ArmorMaterial> MATERIAL_ID_MAP = new VersionedIdTable<>();
     private static final TypesBuilder TYPES_BUILDER = new TypesBuilder("item/item_armor_material_mappings");
 
     public static ArmorMaterial define(String key) {
@@ -64,9 +65,7 @@ public class ArmorMaterials {
     }
 
     public static ArmorMaterial getById(ClientVersion version, int id) {
-        int index = TYPES_BUILDER.getDataIndex(version);
-        Map<Integer, ArmorMaterial> idMap = MATERIAL_ID_MAP.get((byte) index);
-        return idMap.get(id);
+        return MATERIAL_ID_MAP.get(TYPES_BUILDER.getDataIndex(version), id);
     }
 
     public static final ArmorMaterial LEATHER = define("leather");
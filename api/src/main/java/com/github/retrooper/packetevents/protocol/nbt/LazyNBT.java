@@ -0,0 +1,92 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.nbt;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.protocol.nbt.codec.NBTCodec;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * NBT as it was sent over the network, only parsed once it is accessed.
+ * <p>
+ * As long as {@link #getNBT()} hasn't been called, the tag is written back byte for byte.
+ * Once it has been parsed, the parsed tag is written instead, as it may have been modified.
+ */
+public final class LazyNBT {
+
+    private final byte @Nullable [] data;
+    private final @Nullable ServerVersion serverVersion;
+    private @Nullable NBT nbt;
+    private boolean parsed;
+
+    /**
+     * @param data          the encoded tag, including the framing of the version
+     * @param serverVersion the version the tag was encoded for
+     */
+    public LazyNBT(byte[] data, ServerVersion serverVersion) {
+        this.data = data;
+        this.serverVersion = serverVersion;
+    }
+
+    private LazyNBT(@Nullable NBT nbt) {
+        this.data = null;
+        this.serverVersion = null;
+        this.nbt = nbt;
+        this.parsed = true;
+    }
+
+    public static LazyNBT of(@Nullable NBT nbt) {
+        return new LazyNBT(nbt);
+    }
+
+    public @Nullable NBT getNBT() {
+        if (!this.parsed) {
+            Object buffer = UnpooledByteBufAllocationHelper.wrappedBuffer(this.data);
+            try {
+                // the limits were already checked while skipping
+                this.nbt = NBTCodec.readNBTFromBuffer(buffer, this.serverVersion, NBTLimiter.noop());
+            } finally {
+                ByteBufHelper.release(buffer);
+            }
+            this.parsed = true;
+        }
+        return this.nbt;
+    }
+
+    public boolean isParsed() {
+        return this.parsed;
+    }
+
+    /**
+     * @return the encoded tag if it can be written as is for the given version, otherwise null
+     */
+    public byte @Nullable [] getUnmodifiedData(ServerVersion serverVersion) {
+        if (this.parsed || !isSameEncoding(this.serverVersion, serverVersion)) {
+            return null;
+        }
+        return this.data;
+    }
+
+    private static boolean isSameEncoding(ServerVersion first, ServerVersion second) {
+        return first.isNewerThanOrEquals(ServerVersion.V_1_8) == second.isNewerThanOrEquals(ServerVersion.V_1_8)
+                && first.isOlderThan(ServerVersion.V_1_20_2) == second.isOlderThan(ServerVersion.V_1_20_2);
+    }
+}
@@ -23,7 +23,9 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufInputStream;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufOutputStream;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.nbt.*;
+import com.github.retrooper.packetevents.protocol.nbt.serializer.ByteBufNBTSerializer;
 import com.github.retrooper.packetevents.protocol.nbt.serializer.DefaultNBTSerializer;
+import com.github.retrooper.packetevents.protocol.nbt.serializer.SequentialNBTReader;
 import com.google.gson.*;
 import com.google.gson.internal.LazilyParsedNumber;
 
@@ -158,8 +160,7 @@ public class NBTCodec {
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8)) {
             try {
                 final boolean named = serverVersion.isOlderThan(ServerVersion.V_1_20_2);
-                return DefaultNBTSerializer.INSTANCE.deserializeTag(
-                        limiter, new ByteBufInputStream(byteBuf), named);
+                return ByteBufNBTSerializer.INSTANCE.deserializeTag(limiter, byteBuf, named);
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -183,18 +184,56 @@ public class NBTCodec {
         return null;
     }
 
+    /**
+     * Moves past the NBT at the reader index without parsing it. On 1.8 and above the
+     * structure is walked to check the limits, 1.7 only sends a length prefixed gzip blob.
+     */
+    public static void skipNBTFromBuffer(Object byteBuf, ServerVersion serverVersion, NBTLimiter limiter) {
+        if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8)) {
+            try {
+                final boolean named = serverVersion.isOlderThan(ServerVersion.V_1_20_2);
+                SequentialNBTReader.skipTag(limiter, new ByteBufInputStream(byteBuf), named);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        } else {
+            final short length = ByteBufHelper.readShort(byteBuf);
+            if (length > 0) {
+                limiter.checkReadability(length);
+                ByteBufHelper.skipBytes(byteBuf, length);
+            }
+        }
+    }
+
+    public static LazyNBT readLazyNBTFromBuffer(Object byteBuf, ServerVersion serverVersion, NBTLimiter limiter) {
+        int start = ByteBufHelper.readerIndex(byteBuf);
+        skipNBTFromBuffer(byteBuf, serverVersion, limiter);
+        byte[] data = new byte[ByteBufHelper.readerIndex(byteBuf) - start];
+        ByteBufHelper.getBytes(byteBuf, start, data);
+        return new LazyNBT(data, serverVersion);
+    }
+
+    public static void writeLazyNBTToBuffer(Object byteBuf, ServerVersion serverVersion, LazyNBT nbt) {
+        byte[] data = nbt.getUnmodifiedData(serverVersion);
+        if (data != null) {
+            ByteBufHelper.writeBytes(byteBuf, data);
+        } else {
+            writeNBTToBuffer(byteBuf, serverVersion, nbt.getNBT());
+        }
+    }
+
     public static void writeNBTToBuffer(Object byteBuf, ServerVersion serverVersion, NBTCompound tag) {
         writeNBTToBuffer(byteBuf, serverVersion, (NBT) tag);
     }
 
     public static void writeNBTToBuffer(Object byteBuf, ServerVersion serverVersion, NBT tag) {
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8)) {
-            try (ByteBufOutputStream outputStream = new ByteBufOutputStream(byteBuf)) {
+            try {
                 if (tag != null) {
                     boolean named = serverVersion.isOlderThan(ServerVersion.V_1_20_2);
-                    DefaultNBTSerializer.INSTANCE.serializeTag(outputStream, tag, named);
+                    ByteBufNBTSerializer.INSTANCE.serializeTag(byteBuf, tag, named);
                 } else {
-                    DefaultNBTSerializer.INSTANCE.serializeTag(outputStream, NBTEnd.INSTANCE);
+                    ByteBufNBTSerializer.INSTANCE.serializeTag(byteBuf, NBTEnd.INSTANCE);
                 }
             } catch (IOException e) {
                 throw new IllegalStateException(e);
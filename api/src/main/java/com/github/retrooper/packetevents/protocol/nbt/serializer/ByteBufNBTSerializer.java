@@ -0,0 +1,378 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.nbt.serializer;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.nbt.NBT;
+import com.github.retrooper.packetevents.protocol.nbt.NBTByte;
+import com.github.retrooper.packetevents.protocol.nbt.NBTByteArray;
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTDouble;
+import com.github.retrooper.packetevents.protocol.nbt.NBTEnd;
+import com.github.retrooper.packetevents.protocol.nbt.NBTFloat;
+import com.github.retrooper.packetevents.protocol.nbt.NBTInt;
+import com.github.retrooper.packetevents.protocol.nbt.NBTIntArray;
+import com.github.retrooper.packetevents.protocol.nbt.NBTList;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLong;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLongArray;
+import com.github.retrooper.packetevents.protocol.nbt.NBTShort;
+import com.github.retrooper.packetevents.protocol.nbt.NBTString;
+import com.github.retrooper.packetevents.protocol.nbt.NBTType;
+
+import java.io.UTFDataFormatException;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * Reads and writes NBT straight from and to a buffer, without going through
+ * {@link java.io.DataInput}/{@link java.io.DataOutput} streams like {@link DefaultNBTSerializer}.
+ * <p>
+ * Tag names are decoded from modified UTF-8 by hand and common names are interned,
+ * so reading the same keys over and over doesn't allocate new strings.
+ */
+public class ByteBufNBTSerializer extends NBTSerializer<Object, Object> {
+
+    public static final ByteBufNBTSerializer INSTANCE = new ByteBufNBTSerializer();
+
+    private static final int MAX_INTERNED_NAME_LENGTH = 32;
+    private static final String[] NAME_CACHE = new String[512];
+    private static final ThreadLocal<byte[]> NAME_BUFFER = ThreadLocal.withInitial(() -> new byte[MAX_INTERNED_NAME_LENGTH]);
+
+    static {
+        String[] commonNames = {
+                "id", "Count", "count", "components", "tag", "Damage", "display", "Name", "Lore",
+                "Enchantments", "lvl", "Properties", "text", "extra", "color", "bold", "italic",
+                "underlined", "strikethrough", "obfuscated", "translate", "with", "type", "value",
+                "name", "element", "minecraft:custom_data", "minecraft:enchantments", "levels"
+        };
+        for (String name : commonNames) {
+            NAME_CACHE[nameCacheIndex(name)] = name;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public ByteBufNBTSerializer() {
+        super(
+                (limiter, buffer) -> {
+                    limiter.increment(1);
+                    return ByteBufHelper.readByte(buffer);
+                },
+                ByteBufHelper::writeByte,
+                (limiter, buffer) -> {
+                    String name = readName(buffer);
+                    limiter.increment(name.length() * 2 + 28);
+                    return name;
+                },
+                ByteBufNBTSerializer::writeUTF
+        );
+        registerType(NBTType.END, 0, (limiter, buffer) -> {
+            limiter.increment(8);
+            return NBTEnd.INSTANCE;
+        }, (buffer, tag) -> {
+        });
+        registerType(NBTType.BYTE, 1, (limiter, buffer) -> {
+            limiter.increment(9);
+            return new NBTByte(ByteBufHelper.readByte(buffer));
+        }, (buffer, tag) -> ByteBufHelper.writeByte(buffer, tag.getAsByte()));
+        registerType(NBTType.SHORT, 2, (limiter, buffer) -> {
+            limiter.increment(10);
+            return new NBTShort(ByteBufHelper.readShort(buffer));
+        }, (buffer, tag) -> ByteBufHelper.writeShort(buffer, tag.getAsShort()));
+        registerType(NBTType.INT, 3, (limiter, buffer) -> {
+            limiter.increment(12);
+            return new NBTInt(ByteBufHelper.readInt(buffer));
+        }, (buffer, tag) -> ByteBufHelper.writeInt(buffer, tag.getAsInt()));
+        registerType(NBTType.LONG, 4, (limiter, buffer) -> {
+            limiter.increment(16);
+            return new NBTLong(ByteBufHelper.readLong(buffer));
+        }, (buffer, tag) -> ByteBufHelper.writeLong(buffer, tag.getAsLong()));
+        registerType(NBTType.FLOAT, 5, (limiter, buffer) -> {
+            limiter.increment(12);
+            return new NBTFloat(ByteBufHelper.readFloat(buffer));
+        }, (buffer, tag) -> ByteBufHelper.writeFloat(buffer, tag.getAsFloat()));
+        registerType(NBTType.DOUBLE, 6, (limiter, buffer) -> {
+            limiter.increment(16);
+            return new NBTDouble(ByteBufHelper.readDouble(buffer));
+        }, (buffer, tag) -> ByteBufHelper.writeDouble(buffer, tag.getAsDouble()));
+        registerType(
+                NBTType.BYTE_ARRAY, 7,
+                (limiter, buffer) -> {
+                    limiter.increment(24);
+                    int length = ByteBufHelper.readInt(buffer);
+
+                    if (length >= 1 << 24)
+                        throw new IllegalArgumentException("Byte array length is too large: " + length);
+
+                    limiter.checkReadability(length);
+                    limiter.increment(length);
+
+                    byte[] array = new byte[length];
+                    ByteBufHelper.readBytes(buffer, array);
+                    return new NBTByteArray(array);
+                },
+                (buffer, tag) -> {
+                    byte[] array = tag.getValue();
+                    ByteBufHelper.writeInt(buffer, array.length);
+                    ByteBufHelper.writeBytes(buffer, array);
+                }
+        );
+        registerType(NBTType.STRING, 8, (limiter, buffer) -> {
+            limiter.increment(36);
+            String string = readUTF(buffer);
+            limiter.increment(string.length() * 2);
+            return new NBTString(string);
+        }, (buffer, tag) -> writeUTF(buffer, tag.getValue()));
+        registerType(
+                NBTType.LIST, 9,
+                (limiter, buffer) -> {
+                    limiter.increment(37);
+
+                    NBTType<? extends NBT> valueType = readTagType(limiter, buffer);
+                    int size = ByteBufHelper.readInt(buffer);
+
+                    if ((valueType == NBTType.END) && (size > 0)) {
+                        throw new IllegalStateException("Missing nbt list values tag type");
+                    }
+                    limiter.increment(4 * size);
+                    NBTList<NBT> list = new NBTList<>((NBTType<NBT>) valueType, size);
+                    for (int i = 0; i < size; i++) {
+                        list.addTag(readTag(limiter, buffer, valueType));
+                    }
+                    return list;
+                },
+                (buffer, tag) -> {
+                    writeTagType(buffer, tag.getTagsType());
+                    ByteBufHelper.writeInt(buffer, tag.size());
+                    for (NBT value : ((List<NBT>) tag.getTags())) {
+                        writeTag(buffer, value);
+                    }
+                }
+        );
+        registerType(
+                NBTType.COMPOUND, 10,
+                (limiter, buffer) -> {
+                    limiter.increment(48);
+
+                    NBTCompound compound = new NBTCompound();
+                    NBTType<?> valueType;
+                    while ((valueType = readTagType(limiter, buffer)) != NBTType.END) {
+                        String name = readTagName(limiter, buffer);
+                        NBT nbt = readTag(limiter, buffer, valueType);
+                        if (!compound.getTags().containsKey(name)) limiter.increment(36);
+                        compound.setTag(name, nbt);
+                    }
+                    return compound;
+                },
+                (buffer, tag) -> {
+                    for (Entry<String, NBT> entry : tag.getTags().entrySet()) {
+                        NBT value = entry.getValue();
+                        writeTagType(buffer, value.getType());
+                        writeTagName(buffer, entry.getKey());
+                        writeTag(buffer, value);
+                    }
+                    writeTagType(buffer, NBTType.END);
+                }
+        );
+        registerType(
+                NBTType.INT_ARRAY, 11,
+                (limiter, buffer) -> {
+                    limiter.increment(24);
+                    int length = ByteBufHelper.readInt(buffer);
+
+                    if (length >= 1 << 24)
+                        throw new IllegalArgumentException("Int array length is too large: " + length);
+
+                    limiter.checkReadability(length * 4);
+                    limiter.increment(length * 4);
+
+                    int[] array = new int[length];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = ByteBufHelper.readInt(buffer);
+                    }
+                    return new NBTIntArray(array);
+                },
+                (buffer, tag) -> {
+                    int[] array = tag.getValue();
+                    ByteBufHelper.writeInt(buffer, array.length);
+                    for (int i : array) {
+                        ByteBufHelper.writeInt(buffer, i);
+                    }
+                }
+        );
+        registerType(
+                NBTType.LONG_ARRAY, 12,
+                (limiter, buffer) -> {
+                    limiter.increment(24);
+                    int length = ByteBufHelper.readInt(buffer);
+
+                    if (length >= 1 << 24)
+                        throw new IllegalArgumentException("Long array length is too large: " + length);
+
+                    limiter.checkReadability(length * 8);
+                    limiter.increment(length * 8);
+
+                    long[] array = new long[length];
+                    ByteBufHelper.readLongs(buffer, array);
+                    return new NBTLongArray(array);
+                },
+                (buffer, tag) -> {
+                    long[] array = tag.getValue();
+                    ByteBufHelper.writeInt(buffer, array.length);
+                    for (long i : array) {
+                        ByteBufHelper.writeLong(buffer, i);
+                    }
+                }
+        );
+    }
+
+    private static String readName(Object buffer) throws UTFDataFormatException {
+        int length = ByteBufHelper.readUnsignedShort(buffer);
+        if (length > MAX_INTERNED_NAME_LENGTH) {
+            byte[] bytes = new byte[length];
+            ByteBufHelper.readBytes(buffer, bytes);
+            return decodeUTF(bytes, length);
+        }
+
+        byte[] bytes = NAME_BUFFER.get();
+        ByteBufHelper.readBytes(buffer, bytes, 0, length);
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        int index = nameCacheIndex(hash);
+        String cached = NAME_CACHE[index];
+        if (cached != null && matches(cached, bytes, length)) {
+            return cached;
+        }
+        String name = decodeUTF(bytes, length);
+        if (name.length() == length) { // only ascii names, where the bytes equal the chars
+            NAME_CACHE[index] = name;
+        }
+        return name;
+    }
+
+    private static boolean matches(String name, byte[] bytes, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int nameCacheIndex(String name) {
+        // same as the hash of the ascii bytes
+        return nameCacheIndex(name.hashCode());
+    }
+
+    private static int nameCacheIndex(int hash) {
+        return (hash ^ hash >>> 16) & (NAME_CACHE.length - 1);
+    }
+
+    private static String readUTF(Object buffer) throws UTFDataFormatException {
+        int length = ByteBufHelper.readUnsignedShort(buffer);
+        byte[] bytes = new byte[length];
+        ByteBufHelper.readBytes(buffer, bytes);
+        return decodeUTF(bytes, length);
+    }
+
+    // modified utf-8, see DataInput#readUTF
+    private static String decodeUTF(byte[] bytes, int length) throws UTFDataFormatException {
+        char[] chars = new char[length];
+        int count = 0;
+        int charCount = 0;
+        while (count < length) {
+            int c = bytes[count] & 0xFF;
+            switch (c >> 4) {
+                case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
+                    count++;
+                    chars[charCount++] = (char) c;
+                    break;
+                case 12: case 13: {
+                    count += 2;
+                    if (count > length) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    int c2 = bytes[count - 1];
+                    if ((c2 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + count);
+                    }
+                    chars[charCount++] = (char) (((c & 0x1F) << 6) | (c2 & 0x3F));
+                    break;
+                }
+                case 14: {
+                    count += 3;
+                    if (count > length) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    int c2 = bytes[count - 2];
+                    int c3 = bytes[count - 1];
+                    if (((c2 & 0xC0) != 0x80) || ((c3 & 0xC0) != 0x80)) {
+                        throw new UTFDataFormatException("malformed input around byte " + (count - 1));
+                    }
+                    chars[charCount++] = (char) (((c & 0x0F) << 12) | ((c2 & 0x3F) << 6) | (c3 & 0x3F));
+                    break;
+                }
+                default:
+                    throw new UTFDataFormatException("malformed input around byte " + count);
+            }
+        }
+        return new String(chars, 0, charCount);
+    }
+
+    // modified utf-8, see DataOutput#writeUTF
+    private static void writeUTF(Object buffer, String string) throws UTFDataFormatException {
+        int stringLength = string.length();
+        int length = 0;
+        for (int i = 0; i < stringLength; i++) {
+            char c = string.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c > 0x07FF) {
+                length += 3;
+            } else {
+                length += 2;
+            }
+        }
+        if (length > 65535) {
+            throw new UTFDataFormatException("encoded string too long: " + length + " bytes");
+        }
+
+        byte[] bytes = new byte[length];
+        int count = 0;
+        for (int i = 0; i < stringLength; i++) {
+            char c = string.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                bytes[count++] = (byte) c;
+            } else if (c > 0x07FF) {
+                bytes[count++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+                bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                bytes[count++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        ByteBufHelper.writeShort(buffer, length);
+        ByteBufHelper.writeBytes(buffer, bytes);
+    }
+}
@@ -52,6 +52,25 @@ public final class SequentialNBTReader implements NBTReader<NBT, DataInputStream
         return nbt;
     }
 
+    /**
+     * Skips a whole tag without building it, while still applying the limiter.
+     *
+     * @param named whether the root tag has a name
+     */
+    public static void skipTag(NBTLimiter limiter, DataInput in, boolean named) throws IOException {
+        NBTType<?> type = DefaultNBTSerializer.INSTANCE.readTagType(limiter, in);
+        if (type == NBTType.END) {
+            return;
+        }
+        if (named) {
+            // skip name, charged like a name read by DefaultNBTSerializer
+            int len = in.readUnsignedShort();
+            limiter.increment(len * 2 + 28);
+            in.skipBytes(len);
+        }
+        TAG_SKIPS.get(type).skip(limiter, in);
+    }
+
     private static void checkReadable(NBT lastRead) {
         if (lastRead == null) return;
         if (lastRead instanceof Iterator && ((Iterator<NBT>) lastRead).hasNext()) {
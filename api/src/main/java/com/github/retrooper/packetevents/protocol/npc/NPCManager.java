@@ -0,0 +1,153 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.npc;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.protocol.PacketBatch;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manages the viewers of a group of {@link NPC}s and batches their packets.
+ * <p>
+ * Packets of registered NPCs are written without flushing, {@link #flush()} should be called
+ * once per tick (for example from a repeating task) to flush every viewer a single time.
+ * Updates shown to several viewers are encoded once per client version and shared by the viewers,
+ * see {@link PacketBatch}.
+ * <p>
+ * If a view distance is set, {@link #updateViewer(Object, Vector3d)} spawns the NPCs in range
+ * for a viewer and despawns the ones that went out of range.
+ */
+public class NPCManager {
+    private final Map<Integer, NPC> npcs = new ConcurrentHashMap<>();
+    private final PacketBatch batch;
+    private final boolean silent;
+    private volatile double viewDistanceSquared = -1.0;
+
+    public NPCManager() {
+        this(false);
+    }
+
+    /**
+     * @param silent whether packets skip the packet listeners, viewers then share the encoded packets directly
+     */
+    public NPCManager(boolean silent) {
+        this.batch = PacketEvents.getAPI().getProtocolManager().createBatch();
+        this.silent = silent;
+    }
+
+    public void register(NPC npc) {
+        NPC previous = this.npcs.put(npc.getId(), npc);
+        if (previous != null && previous != npc) {
+            previous.despawnAll();
+            previous.setManager(null);
+        }
+        npc.setManager(this);
+    }
+
+    public void unregister(NPC npc) {
+        if (this.npcs.remove(npc.getId(), npc)) {
+            npc.despawnAll();
+            npc.setManager(null);
+        }
+    }
+
+    public @Nullable NPC getNPC(int entityId) {
+        return this.npcs.get(entityId);
+    }
+
+    public Collection<NPC> getNPCs() {
+        return Collections.unmodifiableCollection(this.npcs.values());
+    }
+
+    /**
+     * @return the view distance in blocks, or a negative value if NPCs aren't culled
+     */
+    public double getViewDistance() {
+        double viewDistanceSquared = this.viewDistanceSquared;
+        return viewDistanceSquared < 0.0 ? -1.0 : Math.sqrt(viewDistanceSquared);
+    }
+
+    /**
+     * @param viewDistance the view distance in blocks, or a negative value to disable culling
+     */
+    public void setViewDistance(double viewDistance) {
+        this.viewDistanceSquared = viewDistance < 0.0 ? -1.0 : viewDistance * viewDistance;
+    }
+
+    /**
+     * Spawns every NPC in view distance of the viewer and despawns every NPC out of it.
+     * Does nothing if no view distance is set.
+     *
+     * @param channel  the channel of the viewer
+     * @param position the position of the viewer
+     */
+    public void updateViewer(Object channel, Vector3d position) {
+        double viewDistanceSquared = this.viewDistanceSquared;
+        if (viewDistanceSquared < 0.0) {
+            return;
+        }
+        for (NPC npc : this.npcs.values()) {
+            boolean inRange = npc.getLocation().getPosition().distanceSquared(position) <= viewDistanceSquared;
+            if (inRange) {
+                npc.spawn(channel);
+            } else {
+                npc.despawn(channel);
+            }
+        }
+    }
+
+    /**
+     * Forgets the viewer without sending any packets, for example once it disconnected.
+     */
+    public void removeViewer(Object channel) {
+        for (NPC npc : this.npcs.values()) {
+            npc.getChannels().remove(channel);
+        }
+    }
+
+    /**
+     * Flushes every viewer packets were written to since the last flush.
+     */
+    public synchronized void flush() {
+        this.batch.flush();
+    }
+
+    synchronized void write(Object channel, PacketWrapper<?> wrapper) {
+        if (this.silent) {
+            this.batch.writeSilently(channel, wrapper);
+        } else {
+            this.batch.write(channel, wrapper);
+        }
+    }
+
+    synchronized void broadcast(Collection<?> channels, PacketWrapper<?> wrapper) {
+        if (this.silent) {
+            this.batch.broadcastSilently(channels, wrapper);
+        } else {
+            this.batch.broadcast(channels, wrapper);
+        }
+    }
+}
@@ -70,12 +70,11 @@ import com.github.retrooper.packetevents.protocol.packettype.serverbound.Serverb
 import com.github.retrooper.packetevents.protocol.packettype.serverbound.ServerboundPacketType_1_8;
 import com.github.retrooper.packetevents.protocol.packettype.serverbound.ServerboundPacketType_1_9;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.VersionContext;
 import com.github.retrooper.packetevents.util.VersionMapper;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 public final class PacketType {
 
@@ -153,6 +152,132 @@ public final class PacketType {
         return PREPARED;
     }
 
+    /**
+     * Returns an index for the given packet type which is unique across all connection states and packet sides.
+     * The indices are dense, so they can be used to index arrays of size {@link #getGlobalIndexCount()}.
+     *
+     * @param type packet type
+     * @return global index of this packet type, or -1 if this is not a packet type declared in this class
+     */
+    public static int getGlobalIndex(PacketTypeCommon type) {
+        // ordered by how often these states are encountered
+        if (type instanceof Play.Client) {
+            return GlobalIndex.PLAY_CLIENT + ((Play.Client) type).ordinal();
+        } else if (type instanceof Play.Server) {
+            return GlobalIndex.PLAY_SERVER + ((Play.Server) type).ordinal();
+        } else if (type instanceof Configuration.Client) {
+            return GlobalIndex.CONFIGURATION_CLIENT + ((Configuration.Client) type).ordinal();
+        } else if (type instanceof Configuration.Server) {
+            return GlobalIndex.CONFIGURATION_SERVER + ((Configuration.Server) type).ordinal();
+        } else if (type instanceof Login.Client) {
+            return GlobalIndex.LOGIN_CLIENT + ((Login.Client) type).ordinal();
+        } else if (type instanceof Login.Server) {
+            return GlobalIndex.LOGIN_SERVER + ((Login.Server) type).ordinal();
+        } else if (type instanceof Status.Client) {
+            return GlobalIndex.STATUS_CLIENT + ((Status.Client) type).ordinal();
+        } else if (type instanceof Status.Server) {
+            return GlobalIndex.STATUS_SERVER + ((Status.Server) type).ordinal();
+        } else if (type instanceof Handshaking.Client) {
+            return GlobalIndex.HANDSHAKING_CLIENT + ((Handshaking.Client) type).ordinal();
+        } else if (type instanceof Handshaking.Server) {
+            return GlobalIndex.HANDSHAKING_SERVER + ((Handshaking.Server) type).ordinal();
+        }
+        return -1;
+    }
+
+    public static int getGlobalIndexCount() {
+        return GlobalIndex.TYPES.length;
+    }
+
+    /**
+     * Inverse of {@link #getGlobalIndex(PacketTypeCommon)}.
+     */
+    public static PacketTypeCommon getByGlobalIndex(int globalIndex) {
+        return GlobalIndex.TYPES[globalIndex];
+    }
+
+    // Lazily initialized holder, the packet type enums can't be accessed while PacketType itself is initializing
+    private static final class GlobalIndex {
+        private static final PacketTypeCommon[] TYPES;
+        private static final int HANDSHAKING_CLIENT, HANDSHAKING_SERVER;
+        private static final int STATUS_CLIENT, STATUS_SERVER;
+        private static final int LOGIN_CLIENT, LOGIN_SERVER;
+        private static final int CONFIGURATION_CLIENT, CONFIGURATION_SERVER;
+        private static final int PLAY_CLIENT, PLAY_SERVER;
+
+        static {
+            PacketTypeCommon[][] groups = {
+                    Handshaking.Client.values(), Handshaking.Server.values(),
+                    Status.Client.values(), Status.Server.values(),
+                    Login.Client.values(), Login.Server.values(),
+                    Configuration.Client.values(), Configuration.Server.values(),
+                    Play.Client.values(), Play.Server.values()
+            };
+            int[] offsets = new int[groups.length];
+            int length = 0;
+            for (int i = 0; i < groups.length; i++) {
+                offsets[i] = length;
+                length += groups[i].length;
+            }
+            TYPES = new PacketTypeCommon[length];
+            for (int i = 0; i < groups.length; i++) {
+                System.arraycopy(groups[i], 0, TYPES, offsets[i], groups[i].length);
+            }
+            HANDSHAKING_CLIENT = offsets[0];
+            HANDSHAKING_SERVER = offsets[1];
+            STATUS_CLIENT = offsets[2];
+            STATUS_SERVER = offsets[3];
+            LOGIN_CLIENT = offsets[4];
+            LOGIN_SERVER = offsets[5];
+            CONFIGURATION_CLIENT = offsets[6];
+            CONFIGURATION_SERVER = offsets[7];
+            PLAY_CLIENT = offsets[8];
+            PLAY_SERVER = offsets[9];
+        }
+    }
+
+    private static @Nullable PacketTypeCommon getByIndex(PacketTypeCommon[] table, int packetId) {
+        return packetId >= 0 && packetId < table.length ? table[packetId] : null;
+    }
+
+    /**
+     * @return the index of the packet id table of the version, or -1 if packet ids of the state don't depend on the version
+     */
+    public static int getVersionIndex(PacketSide side, ConnectionState state, ClientVersion version) {
+        switch (state) {
+            case PLAY:
+                return side == PacketSide.CLIENT ? SERVERBOUND_PLAY_VERSION_MAPPER.getIndex(version)
+                        : CLIENTBOUND_PLAY_VERSION_MAPPER.getIndex(version);
+            case CONFIGURATION:
+                return side == PacketSide.CLIENT ? SERVERBOUND_CONFIG_VERSION_MAPPER.getIndex(version)
+                        : CLIENTBOUND_CONFIG_VERSION_MAPPER.getIndex(version);
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Same as {@link #getById(PacketSide, ConnectionState, ClientVersion, int)}, but uses the
+     * packet id table indices already resolved by the version context.
+     */
+    public static PacketTypeCommon getById(PacketSide side, ConnectionState state, VersionContext context, int packetID) {
+        int index = context.getPacketTypeIndex(side, state);
+        if (index == -1) {
+            return getById(side, state, context.getClientVersion(), packetID);
+        }
+        if (!PREPARED) {
+            PacketType.prepare();
+        }
+        PacketTypeCommon[] table;
+        if (state == ConnectionState.PLAY) {
+            table = side == PacketSide.CLIENT ? Play.Client.PACKET_TYPE_ID_TABLE[index] : Play.Server.PACKET_TYPE_ID_TABLE[index];
+        } else {
+            table = side == PacketSide.CLIENT ? Configuration.Client.PACKET_TYPE_ID_TABLE[index]
+                    : Configuration.Server.PACKET_TYPE_ID_TABLE[index];
+        }
+        return getByIndex(table, packetID);
+    }
+
     public static PacketTypeCommon getById(PacketSide side, ConnectionState state, ClientVersion version, int packetID) {
         switch (state) {
             case HANDSHAKING:
@@ -440,7 +565,9 @@ public final class PacketType {
             SELECT_KNOWN_PACKS;
 
             private static int INDEX = 0;
-            private static final Map<Byte, Map<Integer, PacketTypeCommon>> PACKET_TYPE_ID_MAP = new HashMap<>();
+            // indexed by [version index][packet id]
+            private static final PacketTypeCommon[][] PACKET_TYPE_ID_TABLE =
+                    new PacketTypeCommon[SERVERBOUND_CONFIG_VERSION_MAPPER.getVersions().length][];
             private final int[] ids;
 
             Client() {
@@ -457,13 +584,14 @@ public final class PacketType {
 
             private static void loadPacketIds(Enum<?>[] enumConstants) {
                 int index = INDEX;
+                PacketTypeCommon[] table = new PacketTypeCommon[enumConstants.length];
                 for (Enum<?> constant : enumConstants) {
                     int id = constant.ordinal();
                     Configuration.Client value = Configuration.Client.valueOf(constant.name());
                     value.ids[index] = id;
-                    Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-                    packetIdMap.put(id, value);
+                    table[id] = value;
                 }
+                PACKET_TYPE_ID_TABLE[index] = table;
                 INDEX++;
             }
 
@@ -476,8 +604,7 @@ public final class PacketType {
                     PacketType.prepare();
                 }
                 int index = SERVERBOUND_CONFIG_VERSION_MAPPER.getIndex(version);
-                Map<Integer, PacketTypeCommon> map = PACKET_TYPE_ID_MAP.get((byte) index);
-                return map.get(packetId);
+                return getByIndex(PACKET_TYPE_ID_TABLE[index], packetId);
             }
 
             @Deprecated
@@ -527,7 +654,9 @@ public final class PacketType {
             SERVER_LINKS;
 
             private static int INDEX = 0;
-            private static final Map<Byte, Map<Integer, PacketTypeCommon>> PACKET_TYPE_ID_MAP = new HashMap<>();
+            // indexed by [version index][packet id]
+            private static final PacketTypeCommon[][] PACKET_TYPE_ID_TABLE =
+                    new PacketTypeCommon[CLIENTBOUND_CONFIG_VERSION_MAPPER.getVersions().length][];
             private final int[] ids;
 
             Server() {
@@ -546,13 +675,14 @@ public final class PacketType {
 
             private static void loadPacketIds(Enum<?>[] enumConstants) {
                 int index = INDEX;
+                PacketTypeCommon[] table = new PacketTypeCommon[enumConstants.length];
                 for (Enum<?> constant : enumConstants) {
                     int id = constant.ordinal();
                     Configuration.Server value = Configuration.Server.valueOf(constant.name());
                     value.ids[index] = id;
-                    Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-                    packetIdMap.put(id, value);
+                    table[id] = value;
                 }
+                PACKET_TYPE_ID_TABLE[index] = table;
                 INDEX++;
             }
 
@@ -565,8 +695,7 @@ public final class PacketType {
                     PacketType.prepare();
                 }
                 int index = CLIENTBOUND_CONFIG_VERSION_MAPPER.getIndex(version);
-                Map<Integer, PacketTypeCommon> map = PACKET_TYPE_ID_MAP.get((byte) index);
-                return map.get(packetId);
+                return getByIndex(PACKET_TYPE_ID_TABLE[index], packetId);
             }
 
             @Deprecated
@@ -677,7 +806,9 @@ public final class PacketType {
             ;
 
             private static int INDEX = 0;
-            private static final Map<Byte, Map<Integer, PacketTypeCommon>> PACKET_TYPE_ID_MAP = new HashMap<>();
+            // indexed by [version index][packet id]
+            private static final PacketTypeCommon[][] PACKET_TYPE_ID_TABLE =
+                    new PacketTypeCommon[SERVERBOUND_PLAY_VERSION_MAPPER.getVersions().length][];
             private final int[] ids;
 
             Client() {
@@ -691,20 +822,19 @@ public final class PacketType {
                     PacketType.prepare();
                 }
                 int index = SERVERBOUND_PLAY_VERSION_MAPPER.getIndex(version);
-                Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-                return packetIdMap.get(packetId);
+                return getByIndex(PACKET_TYPE_ID_TABLE[index], packetId);
             }
 
             private static void loadPacketIds(Enum<?>[] enumConstants) {
                 int index = INDEX;
+                PacketTypeCommon[] table = new PacketTypeCommon[enumConstants.length];
                 for (Enum<?> constant : enumConstants) {
                     int id = constant.ordinal();
                     Client value = Client.valueOf(constant.name());
                     value.ids[index] = id;
-                    Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index,
-                            k -> new HashMap<>());
-                    packetIdMap.put(id, value);
+                    table[id] = value;
                 }
+                PACKET_TYPE_ID_TABLE[index] = table;
                 INDEX++;
             }
 
@@ -926,7 +1056,9 @@ public final class PacketType {
             ;
 
             private static int INDEX = 0;
-            private static final Map<Byte, Map<Integer, PacketTypeCommon>> PACKET_TYPE_ID_MAP = new HashMap<>();
+            // indexed by [version index][packet id]
+            private static final PacketTypeCommon[][] PACKET_TYPE_ID_TABLE =
+                    new PacketTypeCommon[CLIENTBOUND_PLAY_VERSION_MAPPER.getVersions().length][];
             private final int[] ids;
 
             Server() {
@@ -948,8 +1080,7 @@ public final class PacketType {
                     PacketType.prepare();
                 }
                 int index = CLIENTBOUND_PLAY_VERSION_MAPPER.getIndex(version);
-                Map<Integer, PacketTypeCommon> map = PACKET_TYPE_ID_MAP.get((byte) index);
-                return map.get(packetId);
+                return getByIndex(PACKET_TYPE_ID_TABLE[index], packetId);
             }
 
             @Override
@@ -959,13 +1090,14 @@ public final class PacketType {
 
             private static void loadPacketIds(Enum<?>[] enumConstants) {
                 int index = INDEX;
+                PacketTypeCommon[] table = new PacketTypeCommon[enumConstants.length];
                 for (Enum<?> constant : enumConstants) {
                     int id = constant.ordinal();
                     Server value = Server.valueOf(constant.name());
                     value.ids[index] = id;
-                    Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-                    packetIdMap.put(id, value);
+                    table[id] = value;
                 }
+                PACKET_TYPE_ID_TABLE[index] = table;
                 INDEX++;
             }
 
@@ -59,6 +59,7 @@ public class User implements IRegistryHolder {
     private ConnectionState decoderState;
     private ConnectionState encoderState;
     private ClientVersion clientVersion;
+    private @Nullable VersionContext versionContext;
     private final UserProfile profile;
     private int entityId = -1;
 
@@ -71,7 +72,7 @@ public class User implements IRegistryHolder {
         this.channel = channel;
         this.decoderState = connectionState;
         this.encoderState = connectionState;
-        this.clientVersion = clientVersion;
+        this.setClientVersion(clientVersion);
         this.profile = profile;
     }
 
@@ -134,6 +135,14 @@ public class User implements IRegistryHolder {
 
     public void setClientVersion(ClientVersion clientVersion) {
         this.clientVersion = clientVersion;
+        this.versionContext = clientVersion != null ? VersionContext.of(clientVersion) : null;
+    }
+
+    /**
+     * @return the cached derivations of the client version, or null if the version isn't known yet
+     */
+    public @Nullable VersionContext getVersionContext() {
+        return versionContext;
     }
 
     public UserProfile getProfile() {
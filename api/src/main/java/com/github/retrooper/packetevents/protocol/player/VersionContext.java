@@ -0,0 +1,102 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.player;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Everything derived from a client version which is needed to process its packets,
+ * resolved once per version and shared by all users on that version.
+ *
+ * @see User#getVersionContext()
+ */
+public final class VersionContext {
+    private static final VersionContext[] CONTEXTS = new VersionContext[ClientVersion.values().length];
+    private static volatile VersionContext SERVER_CONTEXT;
+
+    private final ClientVersion clientVersion;
+    private final ServerVersion serverVersion;
+    // indices into the packet type tables, by [side ordinal][0 = play, 1 = configuration]
+    private final int[][] packetTypeIndices;
+
+    private VersionContext(ClientVersion clientVersion, ServerVersion serverVersion) {
+        this.clientVersion = clientVersion;
+        this.serverVersion = serverVersion;
+        PacketSide[] sides = PacketSide.values();
+        this.packetTypeIndices = new int[sides.length][2];
+        for (PacketSide side : sides) {
+            this.packetTypeIndices[side.ordinal()][0] = PacketType.getVersionIndex(side, ConnectionState.PLAY, clientVersion);
+            this.packetTypeIndices[side.ordinal()][1] = PacketType.getVersionIndex(side, ConnectionState.CONFIGURATION, clientVersion);
+        }
+    }
+
+    public static VersionContext of(ClientVersion version) {
+        VersionContext context = CONTEXTS[version.ordinal()];
+        if (context == null) {
+            // racing threads create equal contexts, so it doesn't matter which one is kept
+            context = new VersionContext(version, version.toServerVersion());
+            CONTEXTS[version.ordinal()] = context;
+        }
+        return context;
+    }
+
+    /**
+     * @return the context of the server version, used when packets are processed in the format of the server
+     */
+    @ApiStatus.Internal
+    public static VersionContext server() {
+        VersionContext context = SERVER_CONTEXT;
+        if (context == null) {
+            ServerVersion version = PacketEvents.getAPI().getServerManager().getVersion();
+            // keep the exact server version, multiple server versions may share a protocol version
+            context = new VersionContext(version.toClientVersion(), version);
+            SERVER_CONTEXT = context;
+        }
+        return context;
+    }
+
+    public ClientVersion getClientVersion() {
+        return clientVersion;
+    }
+
+    public @Nullable ServerVersion getServerVersion() {
+        return serverVersion;
+    }
+
+    /**
+     * @return the index of the packet type table for this version, or -1 if packet ids of the state don't depend on the version
+     */
+    @ApiStatus.Internal
+    public int getPacketTypeIndex(PacketSide side, ConnectionState state) {
+        switch (state) {
+            case PLAY:
+                return this.packetTypeIndices[side.ordinal()][0];
+            case CONFIGURATION:
+                return this.packetTypeIndices[side.ordinal()][1];
+            default:
+                return -1;
+        }
+    }
+}
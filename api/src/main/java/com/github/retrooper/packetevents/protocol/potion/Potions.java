@@ -23,6 +23,7 @@ import com.github.retrooper.packetevents.resources.ResourceLocation;
 import com.github.retrooper.packetevents.util.mappings.MappingHelper;
 import com.github.retrooper.packetevents.util.mappings.TypesBuilder;
 import com.github.retrooper.packetevents.util.mappings.TypesBuilderData;
+import com.github.retrooper.packetevents.util.mappings.VersionedIdTable;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
@@ -38,7 +39,7 @@ import java.util.Map;
 public class Potions {
 
     private static final Map<String, Potion> POTION_MAP = new HashMap<>();
-    private static final Map<Byte, Map<Integer, Potion>> POTION_ID_MAP = new HashMap<>();
+    private static final VersionedIdTable<Potion> POTION_ID_MAP = new VersionedIdTable<>();
 
     // initial mappings based upon https://minecraft.wiki/w/Potion#History
     private static final TypesBuilder TYPES_BUILDER = new TypesBuilder("item/item_potion_mappings");
@@ -73,9 +74,7 @@ public class Potions {
     }
 
     public static @Nullable Potion getById(ClientVersion version, int id) {
-        int index = TYPES_BUILDER.getDataIndex(version);
-        Map<Integer, Potion> idMap = POTION_ID_MAP.get((byte) index);
-        return idMap.get(id);
+        return POTION_ID_MAP.get(TYPES_BUILDER.getDataIndex(version), id);
     }
 
     public static final Potion WATER = define("water");
@@ -0,0 +1,213 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.stream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link NetStreamInput} reading straight from a {@link ByteBuffer}, which may be
+ * a view of the packet buffer itself.
+ * <p>
+ * The stream based implementation reads every value one byte at a time, this one uses
+ * the absolute and bulk operations of the buffer instead, which matters for the long
+ * arrays backing chunk sections.
+ */
+public class NetBufferInput extends NetStreamInput {
+
+    private final ByteBuffer buffer;
+
+    public NetBufferInput(byte[] data) {
+        this(ByteBuffer.wrap(data));
+    }
+
+    public NetBufferInput(ByteBuffer buffer) {
+        super(null);
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    public ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    @Override
+    public int read() {
+        return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        int remaining = this.buffer.remaining();
+        if (remaining == 0) {
+            return -1;
+        }
+        len = Math.min(len, remaining);
+        this.buffer.get(b, off, len);
+        return len;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+        this.buffer.position(this.buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return this.buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // nothing to close, the buffer is owned by the caller
+    }
+
+    @Override
+    public byte readByte() {
+        return this.buffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() {
+        return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public short readShort() {
+        return this.buffer.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() {
+        return this.buffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() {
+        return this.buffer.getChar();
+    }
+
+    @Override
+    public int readInt() {
+        return this.buffer.getInt();
+    }
+
+    @Override
+    public long readLong() {
+        return this.buffer.getLong();
+    }
+
+    @Override
+    public int readVarInt() {
+        int value = 0;
+        int size = 0;
+        byte b;
+        while (((b = this.buffer.get()) & 0x80) == 0x80) {
+            value |= (b & 0x7F) << (size++ * 7);
+            if (size > 5) {
+                throw new IllegalStateException("VarInt too long (length must be <= 5)");
+            }
+        }
+        return value | ((b & 0x7F) << (size * 7));
+    }
+
+    @Override
+    public long readVarLong() {
+        long value = 0;
+        int size = 0;
+        byte b;
+        while (((b = this.buffer.get()) & 0x80) == 0x80) {
+            value |= (long) (b & 0x7F) << (size++ * 7);
+            if (size > 10) {
+                throw new IllegalStateException("VarLong too long (length must be <= 10)");
+            }
+        }
+        return value | ((long) (b & 0x7F) << (size * 7));
+    }
+
+    @Override
+    public byte[] readBytes(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Array cannot have length less than 0.");
+        }
+        if (length > this.buffer.remaining()) {
+            throw new IllegalStateException();
+        }
+        byte[] b = new byte[length];
+        this.buffer.get(b);
+        return b;
+    }
+
+    @Override
+    public int readBytes(byte[] b) {
+        return this.read(b, 0, b.length);
+    }
+
+    @Override
+    public int readBytes(byte[] b, int offset, int length) {
+        return this.read(b, offset, length);
+    }
+
+    @Override
+    public int readShorts(short[] s, int offset, int length) {
+        length = Math.min(length, this.buffer.remaining() / Short.BYTES);
+        this.buffer.asShortBuffer().get(s, offset, length);
+        this.buffer.position(this.buffer.position() + length * Short.BYTES);
+        return length;
+    }
+
+    @Override
+    public int readInts(int[] i, int offset, int length) {
+        length = Math.min(length, this.buffer.remaining() / Integer.BYTES);
+        this.buffer.asIntBuffer().get(i, offset, length);
+        this.buffer.position(this.buffer.position() + length * Integer.BYTES);
+        return length;
+    }
+
+    @Override
+    public long[] readLongs(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Array cannot have length less than 0.");
+        }
+        // check before allocating, the length comes from the network
+        if (length > this.buffer.remaining() / Long.BYTES) {
+            throw new IllegalStateException();
+        }
+        long[] l = new long[length];
+        this.readLongs(l, 0, length);
+        return l;
+    }
+
+    @Override
+    public int readLongs(long[] l, int offset, int length) {
+        length = Math.min(length, this.buffer.remaining() / Long.BYTES);
+        this.buffer.asLongBuffer().get(l, offset, length);
+        this.buffer.position(this.buffer.position() + length * Long.BYTES);
+        return length;
+    }
+}
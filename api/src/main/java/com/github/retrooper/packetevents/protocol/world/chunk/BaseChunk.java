@@ -63,6 +63,28 @@ public interface BaseChunk {
 
     boolean isEmpty();
 
+    /**
+     * Creates a copy of this section which can be modified without affecting this section,
+     * used by {@link Column} to share sections between columns until they are modified.
+     * <p>
+     * Sections which don't override this are copied block by block into a section created by {@link #create()},
+     * anything besides the block states (e.g. light) isn't copied.
+     */
+    default BaseChunk copy() {
+        BaseChunk copy = create();
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int id = getBlockId(x, y, z);
+                    if (id != 0) {
+                        copy.set(x, y, z, id);
+                    }
+                }
+            }
+        }
+        return copy;
+    }
+
     static BaseChunk create() {
         if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_18)) {
             return new Chunk_v1_18();
@@ -0,0 +1,269 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.chunk;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.world.dimension.DimensionType;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches decoded chunk columns by their encoded bytes, so a chunk which is sent to many players
+ * (e.g. in a spawn area) only has to be decoded once. Pass the cache to
+ * {@code WrapperPlayServerChunkData(PacketSendEvent, ChunkColumnCache)} to use it.
+ * <p>
+ * Every wrapper gets its own copy-on-write view of the cached column, see {@link Column#shared(Column)}.
+ * Rewrites of the column which only depend on the column and the client version can be cached as well
+ * using {@code WrapperPlayServerChunkData#rewriteColumn}, they are then done and encoded once per client version.
+ * <p>
+ * Entries are looked up by a 64-bit hash of the encoded column, the bytes are only compared on a hash match.
+ * Every entry keeps a copy of its encoded column for that. The least recently used entries are evicted
+ * once the cache is full.
+ */
+public final class ChunkColumnCache {
+
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+
+    /**
+     * @param maxEntries maximum amount of cached columns, decoded columns can take up a few hundred kilobytes each
+     */
+    public ChunkColumnCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive, got " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return this.size() > ChunkColumnCache.this.maxEntries;
+            }
+        };
+    }
+
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Creates the key of the column encoded in the buffer between the start index and the specified length.
+     */
+    @ApiStatus.Internal
+    public Key createKey(
+            DimensionType dimensionType, int worldHeight, int chunkX, int chunkZ,
+            Object buffer, int start, int length
+    ) {
+        ByteBuffer bytes = ByteBufHelper.nioBuffer(buffer, start, length);
+        return new Key(dimensionType, worldHeight, chunkX, chunkZ, hash(bytes.duplicate()), bytes);
+    }
+
+    @ApiStatus.Internal
+    public synchronized @Nullable Entry get(Key key) {
+        return this.entries.get(key);
+    }
+
+    /**
+     * Caches the decoded column, the column and light data must not be modified anymore afterwards.
+     *
+     * @return the cached entry, which may be another one if the column was cached concurrently
+     */
+    @ApiStatus.Internal
+    public synchronized Entry put(Key key, Column column, @Nullable LightData lightData, boolean ignoreOldData) {
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            entry = new Entry(column, lightData, ignoreOldData);
+            // The key of a lookup only views the packet buffer, which is released after the packet
+            this.entries.put(key.retain(), entry);
+        }
+        return entry;
+    }
+
+    private static long hash(ByteBuffer bytes) {
+        long hash = 0x9E3779B97F4A7C15L ^ bytes.remaining();
+        while (bytes.remaining() >= Long.BYTES) {
+            hash = Long.rotateLeft(hash ^ bytes.getLong() * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+        }
+        while (bytes.hasRemaining()) {
+            hash = Long.rotateLeft(hash ^ (bytes.get() & 0xFF) * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ hash >>> 33;
+    }
+
+    @ApiStatus.Internal
+    public static final class Key {
+
+        private final DimensionType dimensionType;
+        private final int worldHeight;
+        private final int chunkX;
+        private final int chunkZ;
+        private final long hash;
+        private final ByteBuffer bytes;
+
+        private Key(DimensionType dimensionType, int worldHeight, int chunkX, int chunkZ, long hash, ByteBuffer bytes) {
+            this.dimensionType = dimensionType;
+            this.worldHeight = worldHeight;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.hash = hash;
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return a key which holds its own copy of the encoded column
+         */
+        private Key retain() {
+            ByteBuffer copy = ByteBuffer.allocate(this.bytes.remaining());
+            copy.put(this.bytes.duplicate());
+            copy.flip();
+            return new Key(this.dimensionType, this.worldHeight, this.chunkX, this.chunkZ, this.hash, copy);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key key = (Key) obj;
+            return this.hash == key.hash
+                    && this.chunkX == key.chunkX && this.chunkZ == key.chunkZ
+                    && this.worldHeight == key.worldHeight
+                    && this.dimensionType.equals(key.dimensionType)
+                    && this.bytes.equals(key.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.hash);
+        }
+    }
+
+    /**
+     * A cached column, which is never modified. Wrappers only ever get shared copies of it.
+     */
+    @ApiStatus.Internal
+    public static final class Entry {
+
+        private final Column column;
+        private final @Nullable LightData lightData;
+        private final boolean ignoreOldData;
+        private final Map<RewriteKey, Rewrite> rewrites = new ConcurrentHashMap<>();
+
+        private Entry(Column column, @Nullable LightData lightData, boolean ignoreOldData) {
+            this.column = column;
+            this.lightData = lightData;
+            this.ignoreOldData = ignoreOldData;
+        }
+
+        public Column getColumn() {
+            return this.column;
+        }
+
+        public @Nullable LightData getLightData() {
+            return this.lightData;
+        }
+
+        public boolean isIgnoreOldData() {
+            return this.ignoreOldData;
+        }
+
+        public @Nullable Rewrite getRewrite(Object key, ClientVersion version) {
+            return this.rewrites.get(new RewriteKey(key, version));
+        }
+
+        /**
+         * Caches the rewritten column, it must not be modified anymore afterwards.
+         *
+         * @return the cached rewrite, which may be another one if the column was rewritten concurrently
+         */
+        public Rewrite putRewrite(Object key, ClientVersion version, Column column) {
+            Rewrite rewrite = new Rewrite(column);
+            Rewrite previous = this.rewrites.putIfAbsent(new RewriteKey(key, version), rewrite);
+            return previous != null ? previous : rewrite;
+        }
+    }
+
+    /**
+     * A rewritten column and its encoded bytes, which are only known once the first packet using it was written.
+     */
+    @ApiStatus.Internal
+    public static final class Rewrite {
+
+        private final Column column;
+        private volatile byte @Nullable [] encoded;
+
+        private Rewrite(Column column) {
+            this.column = column;
+        }
+
+        public Column getColumn() {
+            return this.column;
+        }
+
+        /**
+         * @return the encoded column following the chunk coordinates, or null if it hasn't been written yet
+         */
+        public byte @Nullable [] getEncoded() {
+            return this.encoded;
+        }
+
+        public void setEncoded(byte[] encoded) {
+            this.encoded = encoded;
+        }
+    }
+
+    private static final class RewriteKey {
+
+        private final Object key;
+        private final ClientVersion version;
+
+        private RewriteKey(Object key, ClientVersion version) {
+            this.key = key;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof RewriteKey)) return false;
+            RewriteKey that = (RewriteKey) obj;
+            return this.version == that.version && this.key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.key, this.version);
+        }
+    }
+}
@@ -25,6 +25,8 @@
 package com.github.retrooper.packetevents.protocol.world.chunk;
 
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 
@@ -41,6 +43,10 @@ public class Column {
     private int[] biomeDataInts;
     private byte[] biomeDataBytes;
 
+    // Sections which are still shared with another column and have to be copied before modifying them
+    @Nullable
+    private boolean[] sharedChunks;
+
     public Column(int x, int z, boolean fullChunk, BaseChunk[] chunks, TileEntity[] tileEntities, int[] biomeData) {
         this.x = x;
         this.z = z;
@@ -113,6 +119,34 @@ public class Column {
         this.biomeDataBytes = biomeDataBytes != null ? Arrays.copyOf(biomeDataBytes, biomeDataBytes.length) : null;
     }
 
+    private Column(Column column) {
+        this.x = column.x;
+        this.z = column.z;
+        this.fullChunk = column.fullChunk;
+        this.chunks = Arrays.copyOf(column.chunks, column.chunks.length);
+        this.sharedChunks = new boolean[this.chunks.length];
+        Arrays.fill(this.sharedChunks, true);
+        this.tileEntities = new TileEntity[column.tileEntities.length];
+        for (int i = 0; i < this.tileEntities.length; i++) {
+            this.tileEntities[i] = column.tileEntities[i].copy();
+        }
+        this.hasHeightMaps = column.hasHeightMaps;
+        this.heightMaps = column.heightMaps != null ? column.heightMaps.copy() : null;
+        this.hasBiomeData = column.hasBiomeData;
+        this.biomeDataInts = column.biomeDataInts != null ? column.biomeDataInts.clone() : null;
+        this.biomeDataBytes = column.biomeDataBytes != null ? column.biomeDataBytes.clone() : null;
+    }
+
+    /**
+     * Creates a column which shares the sections of the specified column, each section is only copied
+     * once it is modified through the new column. Everything else of the column is copied immediately.
+     * <p>
+     * The specified column must not be modified anymore, as the changes would show up in the new column.
+     */
+    public static Column shared(Column column) {
+        return new Column(column);
+    }
+
     public int getX() {
         return x;
     }
@@ -125,10 +159,67 @@ public class Column {
         return fullChunk;
     }
 
+    /**
+     * The sections may be modified freely, which means all shared sections get copied.
+     * Use {@link #getChunk(int)} and {@link #modifyChunk(int)} to only copy the modified sections.
+     */
     public BaseChunk[] getChunks() {
+        if (this.sharedChunks != null) {
+            for (int i = 0; i < this.chunks.length; i++) {
+                unshareChunk(i);
+            }
+            this.sharedChunks = null;
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the sections without copying the shared ones, they must not be modified.
+     */
+    @ApiStatus.Internal
+    public BaseChunk[] peekChunks() {
         return chunks;
     }
 
+    public int getChunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * The returned section may still be shared with other columns, so it must not be modified.
+     * Use {@link #modifyChunk(int)} to get a section which can be modified.
+     */
+    public @Nullable BaseChunk getChunk(int index) {
+        return chunks[index];
+    }
+
+    /**
+     * Returns the section at the specified index, copying it first if it is still shared with another column.
+     */
+    public @Nullable BaseChunk modifyChunk(int index) {
+        if (this.sharedChunks != null) {
+            unshareChunk(index);
+        }
+        return chunks[index];
+    }
+
+    public void setChunk(int index, @Nullable BaseChunk chunk) {
+        chunks[index] = chunk;
+        if (this.sharedChunks != null) {
+            this.sharedChunks[index] = false;
+        }
+    }
+
+    private void unshareChunk(int index) {
+        if (this.sharedChunks[index]) {
+            this.sharedChunks[index] = false;
+            BaseChunk chunk = chunks[index];
+            if (chunk != null) {
+                chunks[index] = chunk.copy();
+            }
+        }
+    }
+
     public TileEntity[] getTileEntities() {
         return tileEntities;
     }
@@ -46,6 +46,10 @@ public class TileEntity {
         this.data = data;
     }
 
+    public TileEntity copy() {
+        return new TileEntity(this.packedByte, this.y, this.type, this.data != null ? this.data.copy() : null);
+    }
+
     public int getX() {
         if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_18)) {
             return (this.packedByte & 0xF0) >> 4;
@@ -64,6 +64,15 @@ public class Chunk_v1_7 implements BaseChunk {
         return true;
     }
 
+    @Override
+    public Chunk_v1_7 copy() {
+        return new Chunk_v1_7(this.blocks.copy(),
+                this.metadata != null ? this.metadata.copy() : null,
+                this.blocklight != null ? this.blocklight.copy() : null,
+                this.skylight != null ? this.skylight.copy() : null,
+                this.extendedBlocks != null ? this.extendedBlocks.copy() : null);
+    }
+
     public ByteArray3d getBlocks() {
         return this.blocks;
     }
@@ -80,6 +80,11 @@ public class Chunk_v1_18 implements BaseChunk {
         return this.blockCount == 0;
     }
 
+    @Override
+    public Chunk_v1_18 copy() {
+        return new Chunk_v1_18(this.blockCount, this.chunkData.copy(), this.biomeData.copy());
+    }
+
     public int getBlockCount() {
         return blockCount;
     }
@@ -26,6 +26,9 @@ import com.github.retrooper.packetevents.protocol.world.chunk.storage.LegacyFlex
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
 public class DataPalette {
 
     // this is the amount of bits required to store the biggest state id number
@@ -110,6 +113,19 @@ public class DataPalette {
         return new DataPalette(palette, storage, PaletteType.CHUNK);
     }
 
+    /**
+     * @return a copy of this palette which can be modified without affecting this one
+     */
+    public DataPalette copy() {
+        Palette palette = this.palette.copy();
+        if (palette == null) {
+            DataPalette copy = new DataPalette(this.palette, this.storage, this.paletteType);
+            copy.setAll(getAll(), false);
+            return copy;
+        }
+        return new DataPalette(palette, this.storage != null ? this.storage.copy() : null, this.paletteType);
+    }
+
     public int get(int x, int y, int z) {
         if (storage != null) {
             int id = this.storage.get(index(this.paletteType, x, y, z));
@@ -141,6 +157,142 @@ public class DataPalette {
         }
     }
 
+    /**
+     * @return the block states of all entries, indexed like the storage ({@code y << 8 | z << 4 | x} for chunks)
+     */
+    public int[] getAll() {
+        int[] states = new int[this.paletteType.getStorageSize()];
+        getAll(states);
+        return states;
+    }
+
+    /**
+     * Reads the block states of all entries into the array, indexed like the storage.
+     * This decodes the storage in one pass instead of locating every entry on its own.
+     */
+    public void getAll(int[] states) {
+        int size = this.paletteType.getStorageSize();
+        if (states.length < size) {
+            throw new IllegalArgumentException("Expected an array of at least " + size + " entries, got " + states.length);
+        }
+        if (this.storage == null) {
+            Arrays.fill(states, 0, size, this.palette.idToState(0));
+            return;
+        }
+        this.storage.getAll(states);
+        if (this.palette instanceof GlobalPalette) {
+            return;
+        }
+        int paletteSize = this.palette.size();
+        int[] paletteStates = new int[paletteSize];
+        for (int id = 0; id < paletteSize; id++) {
+            paletteStates[id] = this.palette.idToState(id);
+        }
+        for (int i = 0; i < size; i++) {
+            int id = states[i];
+            states[i] = id < paletteSize ? paletteStates[id] : 0;
+        }
+    }
+
+    /**
+     * Replaces the block states of all entries with the ones in the array, indexed like the storage.
+     * The palette and storage are rebuilt using the fewest bits per entry which can hold all distinct states,
+     * a single distinct state is stored in a {@link SingletonPalette}.
+     * <p>
+     * The block count of the chunk section isn't updated by this.
+     */
+    public void setAll(int[] states) {
+        setAll(states, true);
+    }
+
+    /**
+     * Replaces the block states of all entries with the ones in the array, indexed like the storage.
+     * The palette and storage are rebuilt using the fewest bits per entry which can hold all distinct states.
+     * <p>
+     * The block count of the chunk section isn't updated by this.
+     *
+     * @param allowSingletonPalette whether a single distinct state may be stored in a {@link SingletonPalette},
+     *                              which is only supported by 1.18 and above
+     */
+    public void setAll(int[] states, boolean allowSingletonPalette) {
+        int size = this.paletteType.getStorageSize();
+        if (states.length < size) {
+            throw new IllegalArgumentException("Expected an array of at least " + size + " entries, got " + states.length);
+        }
+        // Assign palette ids in order of appearance, using an open addressing table from state + 1 to id
+        int mask = (Integer.highestOneBit(size) << 2) - 1;
+        int shift = Integer.numberOfLeadingZeros(mask);
+        int[] keys = new int[mask + 1];
+        int[] values = new int[mask + 1];
+        int[] paletteStates = new int[size];
+        int[] ids = new int[size];
+        int paletteSize = 0;
+        for (int i = 0; i < size; i++) {
+            int state = states[i];
+            if (state < 0) {
+                throw new IllegalArgumentException("Illegal block state " + state + " at index " + i);
+            }
+            int slot = state * 0x9E3779B9 >>> shift;
+            while (true) {
+                int key = keys[slot];
+                if (key == 0) {
+                    keys[slot] = state + 1;
+                    values[slot] = paletteSize;
+                    paletteStates[paletteSize] = state;
+                    ids[i] = paletteSize++;
+                    break;
+                } else if (key == state + 1) {
+                    ids[i] = values[slot];
+                    break;
+                }
+                slot = slot + 1 & mask;
+            }
+        }
+
+        if (paletteSize == 1 && allowSingletonPalette && !(this.storage instanceof LegacyFlexibleStorage)) {
+            this.palette = new SingletonPalette(paletteStates[0]);
+            this.storage = null;
+            return;
+        }
+
+        int bitsPerEntry = sanitizeBitsPerEntry(paletteSize <= 1 ? 1 : 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+        Palette palette = createPalette(bitsPerEntry, this.paletteType);
+        if (palette instanceof GlobalPalette) {
+            ids = states;
+        } else {
+            for (int id = 0; id < paletteSize; id++) {
+                palette.stateToId(paletteStates[id]);
+            }
+        }
+        // Keep using the storage format of the version the palette was read with
+        BaseStorage storage = this.storage instanceof LegacyFlexibleStorage
+                ? new LegacyFlexibleStorage(bitsPerEntry, size)
+                : new BitStorage(bitsPerEntry, size);
+        storage.setAll(ids);
+        this.palette = palette;
+        this.storage = storage;
+    }
+
+    /**
+     * Converts the block states of all entries using the mapper. Usually only the palette has to be rewritten,
+     * only the global palette requires rewriting every entry of the storage.
+     * <p>
+     * The block count of the chunk section isn't updated by this.
+     */
+    public void remapPalette(IntUnaryOperator mapper) {
+        Palette remapped = this.palette.remap(mapper);
+        if (remapped != null) {
+            this.palette = remapped;
+            return;
+        }
+        int[] states = getAll();
+        for (int i = 0; i < states.length; i++) {
+            states[i] = mapper.applyAsInt(states[i]);
+        }
+        // The format of the palette isn't known, so keep storing the entries
+        setAll(states, false);
+    }
+
     private static Palette readPalette(
             PaletteType paletteType,
             int bitsPerEntry,
@@ -179,9 +331,12 @@ public class DataPalette {
         if (oldPalette instanceof SingletonPalette) {
             this.palette.stateToId(oldPalette.idToState(0));
         } else {
-            for (int i = 0; i < paletteType.getStorageSize(); i++) {
-                this.storage.set(i, this.palette.stateToId(oldPalette.idToState(oldData.get(i))));
+            int[] ids = new int[paletteType.getStorageSize()];
+            oldData.getAll(ids);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = this.palette.stateToId(oldPalette.idToState(ids[i]));
             }
+            this.storage.setAll(ids);
         }
     }
 
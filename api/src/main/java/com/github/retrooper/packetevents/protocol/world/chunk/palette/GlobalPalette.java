@@ -24,6 +24,10 @@
 
 package com.github.retrooper.packetevents.protocol.world.chunk.palette;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.IntUnaryOperator;
+
 /**
  * A global palette that maps 1:1.
  */
@@ -43,4 +47,15 @@ public class GlobalPalette implements Palette {
     public int idToState(int id) {
         return id;
     }
+
+    @Override
+    public Palette copy() {
+        return this;
+    }
+
+    @Override
+    public @Nullable Palette remap(IntUnaryOperator mapper) {
+        // The storage IDs are the block states themselves
+        return null;
+    }
 }
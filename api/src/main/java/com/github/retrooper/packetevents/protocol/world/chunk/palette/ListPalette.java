@@ -26,6 +26,8 @@ package com.github.retrooper.packetevents.protocol.world.chunk.palette;
 
 import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
 
+import java.util.function.IntUnaryOperator;
+
 /**
  * A palette backed by a List.
  */
@@ -42,6 +44,12 @@ public class ListPalette implements Palette {
         this.data = new int[this.maxId + 1];
     }
 
+    private ListPalette(ListPalette palette) {
+        this.maxId = palette.maxId;
+        this.data = palette.data.clone();
+        this.nextId = palette.nextId;
+    }
+
     public ListPalette(int bitsPerEntry, NetStreamInput in) {
         this(bitsPerEntry);
 
@@ -82,4 +90,18 @@ public class ListPalette implements Palette {
             return 0;
         }
     }
+
+    @Override
+    public Palette copy() {
+        return new ListPalette(this);
+    }
+
+    @Override
+    public Palette remap(IntUnaryOperator mapper) {
+        ListPalette palette = new ListPalette(this);
+        for (int i = 0; i < palette.nextId; i++) {
+            palette.data[i] = mapper.applyAsInt(palette.data[i]);
+        }
+        return palette;
+    }
 }
\ No newline at end of file
@@ -27,6 +27,7 @@ package com.github.retrooper.packetevents.protocol.world.chunk.palette;
 import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
 
 import java.util.HashMap;
+import java.util.function.IntUnaryOperator;
 
 /**
  * A palette backed by a map.
@@ -45,6 +46,13 @@ public class MapPalette implements Palette {
         this.idToState = new int[this.maxId + 1];
     }
 
+    private MapPalette(MapPalette palette) {
+        this.maxId = palette.maxId;
+        this.idToState = palette.idToState.clone();
+        this.stateToId.putAll(palette.stateToId);
+        this.nextId = palette.nextId;
+    }
+
     public MapPalette(int bitsPerEntry, NetStreamInput in) {
         this(bitsPerEntry);
 
@@ -86,4 +94,22 @@ public class MapPalette implements Palette {
             return 0;
         }
     }
+
+    @Override
+    public Palette copy() {
+        return new MapPalette(this);
+    }
+
+    @Override
+    public Palette remap(IntUnaryOperator mapper) {
+        MapPalette palette = new MapPalette(this);
+        palette.stateToId.clear();
+        for (int i = 0; i < palette.nextId; i++) {
+            int state = mapper.applyAsInt(palette.idToState[i]);
+            palette.idToState[i] = state;
+            // Multiple IDs may now map to the same state, new blocks use the first one
+            palette.stateToId.putIfAbsent(state, i);
+        }
+        return palette;
+    }
 }
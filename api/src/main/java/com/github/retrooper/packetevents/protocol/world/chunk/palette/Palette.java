@@ -24,6 +24,10 @@
 
 package com.github.retrooper.packetevents.protocol.world.chunk.palette;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.IntUnaryOperator;
+
 /**
  * A palette for mapping block states to storage IDs.
  */
@@ -52,4 +56,25 @@ public interface Palette {
      * @return The resulting block state.
      */
     int idToState(int id);
+
+    /**
+     * Creates a copy of this palette which can be modified independently.
+     * Palettes which can't be modified may return themselves.
+     *
+     * @return The copied palette, or null if the palette has to be rebuilt from the block states instead.
+     */
+    default @Nullable Palette copy() {
+        return null;
+    }
+
+    /**
+     * Creates a palette mapping the same storage IDs to the block states converted by the mapper.
+     * Palettes which don't store block states, like the global palette, return null.
+     *
+     * @param mapper Converts the old block states to the new ones.
+     * @return The remapped palette, or null if the storage has to be remapped instead.
+     */
+    default @Nullable Palette remap(IntUnaryOperator mapper) {
+        return null;
+    }
 }
@@ -22,6 +22,7 @@ import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
 import com.github.retrooper.packetevents.protocol.stream.NetStreamOutput;
 
 import java.io.IOException;
+import java.util.function.IntUnaryOperator;
 
 /**
  * A palette containing one state.
@@ -31,7 +32,11 @@ public class SingletonPalette implements Palette {
     private final int state;
 
     public SingletonPalette(NetStreamInput in) {
-        this.state = in.readVarInt();
+        this(in.readVarInt());
+    }
+
+    public SingletonPalette(int state) {
+        this.state = state;
     }
 
     @Override
@@ -54,4 +59,14 @@ public class SingletonPalette implements Palette {
         }
         return 0;
     }
+
+    @Override
+    public Palette copy() {
+        return this;
+    }
+
+    @Override
+    public Palette remap(IntUnaryOperator mapper) {
+        return new SingletonPalette(mapper.applyAsInt(this.state));
+    }
 }
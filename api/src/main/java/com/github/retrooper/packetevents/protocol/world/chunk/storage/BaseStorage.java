@@ -28,4 +28,29 @@ public abstract class BaseStorage {
     public abstract int get(int index);
 
     public abstract void set(int index, int value);
+
+    /**
+     * Reads all entries of this storage into the array, which must be able to hold {@link #getSize()} entries.
+     */
+    public void getAll(int[] values) {
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            values[i] = get(i);
+        }
+    }
+
+    /**
+     * Replaces all entries of this storage with the first {@link #getSize()} entries of the array.
+     */
+    public void setAll(int[] values) {
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            set(i, values[i]);
+        }
+    }
+
+    /**
+     * @return a copy of this storage which doesn't share its data with this storage
+     */
+    public abstract BaseStorage copy();
 }
@@ -130,6 +130,50 @@ public class BitStorage extends BaseStorage {
         this.data[cellIndex] = this.data[cellIndex] & ~(this.maxValue << bitIndex) | ((long) value & this.maxValue) << bitIndex;
     }
 
+    /**
+     * Unpacks the entries long by long, instead of locating every entry on its own like {@link #get(int)} does.
+     */
+    @Override
+    public void getAll(int[] values) {
+        if (values.length < this.size) {
+            throw new IllegalArgumentException("Expected an array of at least " + this.size + " entries, got " + values.length);
+        }
+        int index = 0;
+        for (long cell : this.data) {
+            for (int i = 0; i < this.valuesPerLong && index < this.size; i++) {
+                values[index++] = (int) (cell & this.maxValue);
+                cell >>>= this.bitsPerEntry;
+            }
+        }
+    }
+
+    /**
+     * Packs the entries long by long, instead of locating every entry on its own like {@link #set(int, int)} does.
+     */
+    @Override
+    public void setAll(int[] values) {
+        if (values.length < this.size) {
+            throw new IllegalArgumentException("Expected an array of at least " + this.size + " entries, got " + values.length);
+        }
+        int index = 0;
+        for (int cellIndex = 0; cellIndex < this.data.length; cellIndex++) {
+            long cell = 0L;
+            for (int i = 0; i < this.valuesPerLong && index < this.size; i++) {
+                int value = values[index++];
+                if (value < 0 || value > this.maxValue) {
+                    throw new IllegalStateException("Illegal value: " + value + " < 0 || " + value + " > " + this.maxValue);
+                }
+                cell |= (long) value << i * this.bitsPerEntry;
+            }
+            this.data[cellIndex] = cell;
+        }
+    }
+
+    @Override
+    public BitStorage copy() {
+        return new BitStorage(this.bitsPerEntry, this.size, this.data.clone());
+    }
+
     private int cellIndex(int index) {
         return (int) (index * this.divideMultiply + this.divideAdd >> 32 >> this.divideShift);
     }
@@ -100,6 +100,12 @@ public class LegacyFlexibleStorage extends BaseStorage {
         return size;
     }
 
+    @Override
+    public LegacyFlexibleStorage copy() {
+        // The data is copied by the constructor
+        return new LegacyFlexibleStorage(this.bitsPerEntry, this.data);
+    }
+
     public long getMaxEntryValue() {
         return maxEntryValue;
     }
@@ -0,0 +1,184 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.states;
+
+import com.github.retrooper.packetevents.protocol.world.states.type.StateType;
+import com.github.retrooper.packetevents.protocol.world.states.type.StateValue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Property transition tables for the canonical block states of one mapping index.
+ * <p>
+ * Every state of a block type gets a mixed radix key made of the ordinals of its property values,
+ * so changing a single property is an offset into that type's state table instead of a lookup
+ * through a hashed property map.
+ * <p>
+ * Types whose states don't form every combination of their property values exactly once
+ * don't get a table, changing their properties has to use the property map instead.
+ */
+final class BlockStateTransitions {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Object> VALUE_ORDER = Comparator.nullsFirst((a, b) -> {
+        if (a.getClass() == b.getClass() && a instanceof Comparable) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    });
+
+    private final Table[] tableById;
+    private final int[] keyById;
+
+    BlockStateTransitions(Map<WrappedBlockState, Integer> stateToId, IdResolver resolver) {
+        int maxId = 0;
+        Map<StateType, List<WrappedBlockState>> byType = new LinkedHashMap<>();
+        for (Integer id : stateToId.values()) {
+            WrappedBlockState state = resolver.resolve(id);
+            byType.computeIfAbsent(state.type, type -> new ArrayList<>()).add(state);
+            maxId = Math.max(maxId, id);
+        }
+
+        this.tableById = new Table[maxId + 1];
+        this.keyById = new int[maxId + 1];
+        for (List<WrappedBlockState> states : byType.values()) {
+            Table table = new Table(states);
+            if (!table.complete) {
+                continue;
+            }
+            for (int i = 0; i < states.size(); i++) {
+                int id = states.get(i).globalID;
+                this.tableById[id] = table;
+                this.keyById[id] = table.keyOf(states.get(i));
+            }
+        }
+    }
+
+    /**
+     * @return the canonical state with the given property changed, or null if the
+     * property or value doesn't exist for the block with this id or its type has no table
+     */
+    WrappedBlockState with(int globalId, StateValue property, Object value) {
+        if (globalId < 0 || globalId >= this.tableById.length) {
+            return null;
+        }
+        Table table = this.tableById[globalId];
+        if (table == null) {
+            return null;
+        }
+        int propertyIndex = table.indexOf(property);
+        if (propertyIndex == -1) {
+            return null;
+        }
+        int valueIndex = table.indexOf(propertyIndex, value);
+        if (valueIndex == -1) {
+            return null;
+        }
+        int key = this.keyById[globalId];
+        int stride = table.strides[propertyIndex];
+        int currentIndex = key / stride % table.values[propertyIndex].length;
+        return table.states[key + (valueIndex - currentIndex) * stride];
+    }
+
+    @FunctionalInterface
+    interface IdResolver {
+
+        WrappedBlockState resolve(int globalId);
+    }
+
+    private static final class Table {
+
+        private final StateValue[] properties;
+        private final Object[][] values;
+        private final int[] strides;
+        private final WrappedBlockState[] states;
+        // whether every key has exactly one state, otherwise the table can't be used
+        private final boolean complete;
+
+        private Table(List<WrappedBlockState> states) {
+            EnumSet<StateValue> properties = EnumSet.noneOf(StateValue.class);
+            for (WrappedBlockState state : states) {
+                properties.addAll(state.data.keySet());
+            }
+            this.properties = properties.toArray(new StateValue[0]);
+            this.values = new Object[this.properties.length][];
+            this.strides = new int[this.properties.length];
+
+            int size = 1;
+            for (int i = this.properties.length - 1; i >= 0; i--) {
+                List<Object> values = new ArrayList<>();
+                for (WrappedBlockState state : states) {
+                    Object value = state.data.get(this.properties[i]);
+                    if (!values.contains(value)) {
+                        values.add(value);
+                    }
+                }
+                values.sort(VALUE_ORDER);
+                this.values[i] = values.toArray();
+                this.strides[i] = size;
+                size *= values.size();
+            }
+
+            this.states = new WrappedBlockState[size];
+            boolean complete = states.size() == size;
+            for (WrappedBlockState state : states) {
+                int key = this.keyOf(state);
+                if (this.states[key] != null) {
+                    // several ids share the same property values
+                    complete = false;
+                }
+                this.states[key] = state;
+            }
+            this.complete = complete;
+        }
+
+        private int keyOf(WrappedBlockState state) {
+            int key = 0;
+            for (int i = 0; i < this.properties.length; i++) {
+                key += this.indexOf(i, state.data.get(this.properties[i])) * this.strides[i];
+            }
+            return key;
+        }
+
+        private int indexOf(StateValue property) {
+            for (int i = 0; i < this.properties.length; i++) {
+                if (this.properties[i] == property) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int indexOf(int propertyIndex, Object value) {
+            Object[] values = this.values[propertyIndex];
+            for (int i = 0; i < values.length; i++) {
+                if (Objects.equals(values[i], value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -40,6 +40,7 @@ import com.github.retrooper.packetevents.protocol.world.states.type.StateTypes;
 import com.github.retrooper.packetevents.protocol.world.states.type.StateValue;
 import com.github.retrooper.packetevents.util.BinaryNBTCompound;
 import com.github.retrooper.packetevents.util.mappings.MappingHelper;
+import com.github.retrooper.packetevents.util.mappings.VersionedIdTable;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.ByteArrayInputStream;
@@ -69,6 +70,7 @@ public class WrappedBlockState {
 
     private static final byte[] MAPPING_INDEXES;
     private static final byte LEGACY_MAPPING_INDEX = 0;
+    private static final BlockStateTransitions[] TRANSITIONS;
 
     static {
         // all versions where block state mappings were changed TODO UPDATE
@@ -90,11 +92,12 @@ public class WrappedBlockState {
             }
             MAPPING_INDEXES[version.ordinal()] = (byte) (LEGACY_MAPPING_INDEX + j);
         }
+        TRANSITIONS = new BlockStateTransitions[LEGACY_MAPPING_INDEX + mappingSteps.length + 1];
     }
 
     private static final WrappedBlockState AIR = new WrappedBlockState(StateTypes.AIR, new EnumMap<>(StateValue.class), 0, (byte) 0);
     private static final Map<Byte, Map<String, WrappedBlockState>> BY_STRING = new HashMap<>();
-    private static final Map<Byte, Map<Integer, WrappedBlockState>> BY_ID = new HashMap<>();
+    private static final VersionedIdTable<WrappedBlockState> BY_ID = new VersionedIdTable<>();
     private static final Map<Byte, Map<WrappedBlockState, String>> INTO_STRING = new HashMap<>();
     private static final Map<Byte, Map<WrappedBlockState, Integer>> INTO_ID = new HashMap<>();
     private static final Map<Byte, Map<StateType, WrappedBlockState>> DEFAULT_STATES = new HashMap<>();
@@ -166,7 +169,7 @@ public class WrappedBlockState {
         NBTCompound compound = (NBTCompound) nbt;
         String blockName = compound.getStringTagValueOrThrow("Name");
         StateType block = StateTypes.getByName(blockName);
-        WrappedBlockState state = WrappedBlockState.getDefaultState(version, block);
+        WrappedBlockState state = WrappedBlockState.getDefaultState(version, block, false);
 
         if (state != AIR) { // don't modify global air state
             NBTCompound propsTag = compound.getCompoundTagOrNull("Properties");
@@ -183,13 +186,12 @@ public class WrappedBlockState {
                     } else {
                         value = stateValue.parse((((NBTString) entry.getValue()).getValue()));
                     }
-                    // safe to modify, gets cloned (if not air)
-                    state.getInternalData().put(stateValue, value);
+                    state = state.with(stateValue, value);
                 }
             }
         }
 
-        return state;
+        return state.clone();
     }
 
     public static NBT encode(WrappedBlockState state, ClientVersion version) {
@@ -240,8 +242,7 @@ public class WrappedBlockState {
     @NotNull
     public static WrappedBlockState getByGlobalId(ClientVersion version, int globalID, boolean clone) {
         if (globalID == 0) return AIR; // Hardcode for performance
-        byte mappingsIndex = getMappingsIndex(version);
-        final WrappedBlockState state = BY_ID.get(mappingsIndex).getOrDefault(globalID, AIR);
+        final WrappedBlockState state = getById(getMappingsIndex(version), globalID);
         return clone ? state.clone() : state;
     }
 
@@ -288,8 +289,26 @@ public class WrappedBlockState {
         return MAPPING_INDEXES[version.ordinal()];
     }
 
+    private static WrappedBlockState getById(byte mappingsIndex, int globalID) {
+        WrappedBlockState state = BY_ID.get(mappingsIndex, globalID);
+        return state != null ? state : AIR;
+    }
+
+    private static BlockStateTransitions getTransitions(byte mappingsIndex) {
+        BlockStateTransitions transitions = TRANSITIONS[mappingsIndex];
+        if (transitions == null) {
+            synchronized (TRANSITIONS) {
+                transitions = TRANSITIONS[mappingsIndex];
+                if (transitions == null) {
+                    transitions = new BlockStateTransitions(INTO_ID.get(mappingsIndex), id -> getById(mappingsIndex, id));
+                    TRANSITIONS[mappingsIndex] = transitions;
+                }
+            }
+        }
+        return transitions;
+    }
+
     private static void loadLegacy(Map<BinaryNBTCompound, Map.Entry<Map<StateValue, Object>, String>> cache) {
-        Map<Integer, WrappedBlockState> stateByIdMap = new HashMap<>();
         Map<WrappedBlockState, Integer> stateToIdMap = new HashMap<>();
         Map<String, WrappedBlockState> stateByStringMap = new HashMap<>();
         Map<WrappedBlockState, String> stateToStringMap = new HashMap<>();
@@ -365,7 +384,7 @@ public class WrappedBlockState {
                     String fullString = entry.getKey() + dataEntry.getValue();
                     WrappedBlockState state = new WrappedBlockState(type, dataEntry.getKey(), combinedID, (byte) 0);
 
-                    stateByIdMap.put(combinedID, state);
+                    BY_ID.put(LEGACY_MAPPING_INDEX, combinedID, state);
                     stateToStringMap.put(state, fullString);
                     stateToIdMap.put(state, combinedID);
 
@@ -379,7 +398,6 @@ public class WrappedBlockState {
                 }
             }
 
-            BY_ID.put(LEGACY_MAPPING_INDEX, stateByIdMap);
             INTO_ID.put(LEGACY_MAPPING_INDEX, stateToIdMap);
             BY_STRING.put(LEGACY_MAPPING_INDEX, stateByStringMap);
             INTO_STRING.put(LEGACY_MAPPING_INDEX, stateToStringMap);
@@ -398,7 +416,6 @@ public class WrappedBlockState {
                 byte mappingIndex = getMappingsIndex(version);
                 SequentialNBTReader.List list = (SequentialNBTReader.List) versionEntry.getValue();
 
-                Map<Integer, WrappedBlockState> stateByIdMap = new HashMap<>();
                 Map<WrappedBlockState, Integer> stateToIdMap = new HashMap<>();
                 Map<String, WrappedBlockState> stateByStringMap = new HashMap<>();
                 Map<WrappedBlockState, String> stateToStringMap = new HashMap<>();
@@ -492,7 +509,7 @@ public class WrappedBlockState {
                         }
 
                         stateByStringMap.put(fullString, state);
-                        stateByIdMap.put(id, state);
+                        BY_ID.put(mappingIndex, id, state);
                         stateToStringMap.put(state, fullString);
                         stateToIdMap.put(state, id);
 
@@ -501,7 +518,6 @@ public class WrappedBlockState {
                     }
                 }
 
-                BY_ID.put(mappingIndex, stateByIdMap);
                 INTO_ID.put(mappingIndex, stateToIdMap);
                 BY_STRING.put(mappingIndex, stateByStringMap);
                 INTO_STRING.put(mappingIndex, stateToStringMap);
@@ -542,9 +558,11 @@ public class WrappedBlockState {
     }
 
     public void setAge(int age) {
-        checkIfCloneNeeded();
-        data.put(StateValue.AGE, age);
-        checkIsStillValid();
+        set(StateValue.AGE, age);
+    }
+
+    public WrappedBlockState withAge(int age) {
+        return with(StateValue.AGE, age);
     }
 
     public boolean isAttached() {
@@ -552,9 +570,11 @@ public class WrappedBlockState {
     }
 
     public void setAttached(boolean attached) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ATTACHED, attached);
-        checkIsStillValid();
+        set(StateValue.ATTACHED, attached);
+    }
+
+    public WrappedBlockState withAttached(boolean attached) {
+        return with(StateValue.ATTACHED, attached);
     }
 
     public Attachment getAttachment() {
@@ -562,9 +582,11 @@ public class WrappedBlockState {
     }
 
     public void setAttachment(Attachment attachment) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ATTACHMENT, attachment);
-        checkIsStillValid();
+        set(StateValue.ATTACHMENT, attachment);
+    }
+
+    public WrappedBlockState withAttachment(Attachment attachment) {
+        return with(StateValue.ATTACHMENT, attachment);
     }
 
     public Axis getAxis() {
@@ -572,9 +594,11 @@ public class WrappedBlockState {
     }
 
     public void setAxis(Axis axis) {
-        checkIfCloneNeeded();
-        data.put(StateValue.AXIS, axis);
-        checkIsStillValid();
+        set(StateValue.AXIS, axis);
+    }
+
+    public WrappedBlockState withAxis(Axis axis) {
+        return with(StateValue.AXIS, axis);
     }
 
     public boolean isBerries() {
@@ -582,9 +606,11 @@ public class WrappedBlockState {
     }
 
     public void setBerries(boolean berries) {
-        checkIfCloneNeeded();
-        data.put(StateValue.BERRIES, berries);
-        checkIsStillValid();
+        set(StateValue.BERRIES, berries);
+    }
+
+    public WrappedBlockState withBerries(boolean berries) {
+        return with(StateValue.BERRIES, berries);
     }
 
     public int getBites() {
@@ -592,9 +618,11 @@ public class WrappedBlockState {
     }
 
     public void setBites(int bites) {
-        checkIfCloneNeeded();
-        data.put(StateValue.BITES, bites);
-        checkIsStillValid();
+        set(StateValue.BITES, bites);
+    }
+
+    public WrappedBlockState withBites(int bites) {
+        return with(StateValue.BITES, bites);
     }
 
     public boolean isBottom() {
@@ -602,9 +630,11 @@ public class WrappedBlockState {
     }
 
     public void setBottom(boolean bottom) {
-        checkIfCloneNeeded();
-        data.put(StateValue.BOTTOM, bottom);
-        checkIsStillValid();
+        set(StateValue.BOTTOM, bottom);
+    }
+
+    public WrappedBlockState withBottom(boolean bottom) {
+        return with(StateValue.BOTTOM, bottom);
     }
 
     public int getCandles() {
@@ -612,9 +642,11 @@ public class WrappedBlockState {
     }
 
     public void setCandles(int candles) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CANDLES, candles);
-        checkIsStillValid();
+        set(StateValue.CANDLES, candles);
+    }
+
+    public WrappedBlockState withCandles(int candles) {
+        return with(StateValue.CANDLES, candles);
     }
 
     public int getCharges() {
@@ -622,9 +654,11 @@ public class WrappedBlockState {
     }
 
     public void setCharges(int charges) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CHARGES, charges);
-        checkIsStillValid();
+        set(StateValue.CHARGES, charges);
+    }
+
+    public WrappedBlockState withCharges(int charges) {
+        return with(StateValue.CHARGES, charges);
     }
 
     public boolean isConditional() {
@@ -632,9 +666,11 @@ public class WrappedBlockState {
     }
 
     public void setConditional(boolean conditional) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CONDITIONAL, conditional);
-        checkIsStillValid();
+        set(StateValue.CONDITIONAL, conditional);
+    }
+
+    public WrappedBlockState withConditional(boolean conditional) {
+        return with(StateValue.CONDITIONAL, conditional);
     }
 
     public int getDelay() {
@@ -642,9 +678,11 @@ public class WrappedBlockState {
     }
 
     public void setDelay(int delay) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DELAY, delay);
-        checkIsStillValid();
+        set(StateValue.DELAY, delay);
+    }
+
+    public WrappedBlockState withDelay(int delay) {
+        return with(StateValue.DELAY, delay);
     }
 
     public boolean isDisarmed() {
@@ -652,9 +690,11 @@ public class WrappedBlockState {
     }
 
     public void setDisarmed(boolean disarmed) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DISARMED, disarmed);
-        checkIsStillValid();
+        set(StateValue.DISARMED, disarmed);
+    }
+
+    public WrappedBlockState withDisarmed(boolean disarmed) {
+        return with(StateValue.DISARMED, disarmed);
     }
 
     public int getDistance() {
@@ -662,9 +702,11 @@ public class WrappedBlockState {
     }
 
     public void setDistance(int distance) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DISTANCE, distance);
-        checkIsStillValid();
+        set(StateValue.DISTANCE, distance);
+    }
+
+    public WrappedBlockState withDistance(int distance) {
+        return with(StateValue.DISTANCE, distance);
     }
 
     public boolean isDown() {
@@ -672,9 +714,11 @@ public class WrappedBlockState {
     }
 
     public void setDown(boolean down) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DOWN, down);
-        checkIsStillValid();
+        set(StateValue.DOWN, down);
+    }
+
+    public WrappedBlockState withDown(boolean down) {
+        return with(StateValue.DOWN, down);
     }
 
     public boolean isDrag() {
@@ -682,9 +726,11 @@ public class WrappedBlockState {
     }
 
     public void setDrag(boolean drag) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DRAG, drag);
-        checkIsStillValid();
+        set(StateValue.DRAG, drag);
+    }
+
+    public WrappedBlockState withDrag(boolean drag) {
+        return with(StateValue.DRAG, drag);
     }
 
     public boolean isDusted() {
@@ -692,9 +738,11 @@ public class WrappedBlockState {
     }
 
     public void setDusted(boolean dusted) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DUSTED, dusted);
-        checkIsStillValid();
+        set(StateValue.DUSTED, dusted);
+    }
+
+    public WrappedBlockState withDusted(boolean dusted) {
+        return with(StateValue.DUSTED, dusted);
     }
 
     public int getEggs() {
@@ -702,9 +750,11 @@ public class WrappedBlockState {
     }
 
     public void setEggs(int eggs) {
-        checkIfCloneNeeded();
-        data.put(StateValue.EGGS, eggs);
-        checkIsStillValid();
+        set(StateValue.EGGS, eggs);
+    }
+
+    public WrappedBlockState withEggs(int eggs) {
+        return with(StateValue.EGGS, eggs);
     }
 
     public boolean isEnabled() {
@@ -712,9 +762,11 @@ public class WrappedBlockState {
     }
 
     public void setEnabled(boolean enabled) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ENABLED, enabled);
-        checkIsStillValid();
+        set(StateValue.ENABLED, enabled);
+    }
+
+    public WrappedBlockState withEnabled(boolean enabled) {
+        return with(StateValue.ENABLED, enabled);
     }
 
     public boolean isExtended() {
@@ -722,9 +774,11 @@ public class WrappedBlockState {
     }
 
     public void setExtended(boolean extended) {
-        checkIfCloneNeeded();
-        data.put(StateValue.EXTENDED, extended);
-        checkIsStillValid();
+        set(StateValue.EXTENDED, extended);
+    }
+
+    public WrappedBlockState withExtended(boolean extended) {
+        return with(StateValue.EXTENDED, extended);
     }
 
     public boolean isEye() {
@@ -732,9 +786,11 @@ public class WrappedBlockState {
     }
 
     public void setEye(boolean eye) {
-        checkIfCloneNeeded();
-        data.put(StateValue.EYE, eye);
-        checkIsStillValid();
+        set(StateValue.EYE, eye);
+    }
+
+    public WrappedBlockState withEye(boolean eye) {
+        return with(StateValue.EYE, eye);
     }
 
     public Face getFace() {
@@ -742,9 +798,11 @@ public class WrappedBlockState {
     }
 
     public void setFace(Face face) {
-        checkIfCloneNeeded();
-        data.put(StateValue.FACE, face);
-        checkIsStillValid();
+        set(StateValue.FACE, face);
+    }
+
+    public WrappedBlockState withFace(Face face) {
+        return with(StateValue.FACE, face);
     }
 
     public BlockFace getFacing() {
@@ -752,9 +810,11 @@ public class WrappedBlockState {
     }
 
     public void setFacing(BlockFace facing) {
-        checkIfCloneNeeded();
-        data.put(StateValue.FACING, facing);
-        checkIsStillValid();
+        set(StateValue.FACING, facing);
+    }
+
+    public WrappedBlockState withFacing(BlockFace facing) {
+        return with(StateValue.FACING, facing);
     }
 
     public int getFlowerAmount() {
@@ -762,9 +822,11 @@ public class WrappedBlockState {
     }
 
     public void setFlowerAmount(int flowerAmount) {
-        checkIfCloneNeeded();
-        data.put(StateValue.FLOWER_AMOUNT, flowerAmount);
-        checkIsStillValid();
+        set(StateValue.FLOWER_AMOUNT, flowerAmount);
+    }
+
+    public WrappedBlockState withFlowerAmount(int flowerAmount) {
+        return with(StateValue.FLOWER_AMOUNT, flowerAmount);
     }
 
     public Half getHalf() {
@@ -772,9 +834,11 @@ public class WrappedBlockState {
     }
 
     public void setHalf(Half half) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HALF, half);
-        checkIsStillValid();
+        set(StateValue.HALF, half);
+    }
+
+    public WrappedBlockState withHalf(Half half) {
+        return with(StateValue.HALF, half);
     }
 
     public boolean isHanging() {
@@ -782,9 +846,11 @@ public class WrappedBlockState {
     }
 
     public void setHanging(boolean hanging) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HANGING, hanging);
-        checkIsStillValid();
+        set(StateValue.HANGING, hanging);
+    }
+
+    public WrappedBlockState withHanging(boolean hanging) {
+        return with(StateValue.HANGING, hanging);
     }
 
     public boolean isHasBook() {
@@ -792,9 +858,11 @@ public class WrappedBlockState {
     }
 
     public void setHasBook(boolean hasBook) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_BOOK, hasBook);
-        checkIsStillValid();
+        set(StateValue.HAS_BOOK, hasBook);
+    }
+
+    public WrappedBlockState withHasBook(boolean hasBook) {
+        return with(StateValue.HAS_BOOK, hasBook);
     }
 
     public boolean isHasBottle0() {
@@ -802,9 +870,11 @@ public class WrappedBlockState {
     }
 
     public void setHasBottle0(boolean hasBottle0) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_BOTTLE_0, hasBottle0);
-        checkIsStillValid();
+        set(StateValue.HAS_BOTTLE_0, hasBottle0);
+    }
+
+    public WrappedBlockState withHasBottle0(boolean hasBottle0) {
+        return with(StateValue.HAS_BOTTLE_0, hasBottle0);
     }
 
     public boolean isHasBottle1() {
@@ -812,9 +882,11 @@ public class WrappedBlockState {
     }
 
     public void setHasBottle1(boolean hasBottle1) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_BOTTLE_1, hasBottle1);
-        checkIsStillValid();
+        set(StateValue.HAS_BOTTLE_1, hasBottle1);
+    }
+
+    public WrappedBlockState withHasBottle1(boolean hasBottle1) {
+        return with(StateValue.HAS_BOTTLE_1, hasBottle1);
     }
 
     public boolean isHasBottle2() {
@@ -822,9 +894,11 @@ public class WrappedBlockState {
     }
 
     public void setHasBottle2(boolean hasBottle2) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_BOTTLE_2, hasBottle2);
-        checkIsStillValid();
+        set(StateValue.HAS_BOTTLE_2, hasBottle2);
+    }
+
+    public WrappedBlockState withHasBottle2(boolean hasBottle2) {
+        return with(StateValue.HAS_BOTTLE_2, hasBottle2);
     }
 
     public boolean isHasRecord() {
@@ -832,9 +906,11 @@ public class WrappedBlockState {
     }
 
     public void setHasRecord(boolean hasRecord) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_RECORD, hasRecord);
-        checkIsStillValid();
+        set(StateValue.HAS_RECORD, hasRecord);
+    }
+
+    public WrappedBlockState withHasRecord(boolean hasRecord) {
+        return with(StateValue.HAS_RECORD, hasRecord);
     }
 
     public int getHatch() {
@@ -842,9 +918,11 @@ public class WrappedBlockState {
     }
 
     public void setHatch(int hatch) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HATCH, hatch);
-        checkIsStillValid();
+        set(StateValue.HATCH, hatch);
+    }
+
+    public WrappedBlockState withHatch(int hatch) {
+        return with(StateValue.HATCH, hatch);
     }
 
     public Hinge getHinge() {
@@ -852,9 +930,11 @@ public class WrappedBlockState {
     }
 
     public void setHinge(Hinge hinge) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HINGE, hinge);
-        checkIsStillValid();
+        set(StateValue.HINGE, hinge);
+    }
+
+    public WrappedBlockState withHinge(Hinge hinge) {
+        return with(StateValue.HINGE, hinge);
     }
 
     public int getHoneyLevel() {
@@ -862,9 +942,11 @@ public class WrappedBlockState {
     }
 
     public void setHoneyLevel(int honeyLevel) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HONEY_LEVEL, honeyLevel);
-        checkIsStillValid();
+        set(StateValue.HONEY_LEVEL, honeyLevel);
+    }
+
+    public WrappedBlockState withHoneyLevel(int honeyLevel) {
+        return with(StateValue.HONEY_LEVEL, honeyLevel);
     }
 
     public boolean isInWall() {
@@ -872,9 +954,11 @@ public class WrappedBlockState {
     }
 
     public void setInWall(boolean inWall) {
-        checkIfCloneNeeded();
-        data.put(StateValue.IN_WALL, inWall);
-        checkIsStillValid();
+        set(StateValue.IN_WALL, inWall);
+    }
+
+    public WrappedBlockState withInWall(boolean inWall) {
+        return with(StateValue.IN_WALL, inWall);
     }
 
     public Instrument getInstrument() {
@@ -882,9 +966,11 @@ public class WrappedBlockState {
     }
 
     public void setInstrument(Instrument instrument) {
-        checkIfCloneNeeded();
-        data.put(StateValue.INSTRUMENT, instrument);
-        checkIsStillValid();
+        set(StateValue.INSTRUMENT, instrument);
+    }
+
+    public WrappedBlockState withInstrument(Instrument instrument) {
+        return with(StateValue.INSTRUMENT, instrument);
     }
 
     public boolean isInverted() {
@@ -892,9 +978,11 @@ public class WrappedBlockState {
     }
 
     public void setInverted(boolean inverted) {
-        checkIfCloneNeeded();
-        data.put(StateValue.INVERTED, inverted);
-        checkIsStillValid();
+        set(StateValue.INVERTED, inverted);
+    }
+
+    public WrappedBlockState withInverted(boolean inverted) {
+        return with(StateValue.INVERTED, inverted);
     }
 
     public int getLayers() {
@@ -902,9 +990,11 @@ public class WrappedBlockState {
     }
 
     public void setLayers(int layers) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LAYERS, layers);
-        checkIsStillValid();
+        set(StateValue.LAYERS, layers);
+    }
+
+    public WrappedBlockState withLayers(int layers) {
+        return with(StateValue.LAYERS, layers);
     }
 
     public Leaves getLeaves() {
@@ -912,9 +1002,11 @@ public class WrappedBlockState {
     }
 
     public void setLeaves(Leaves leaves) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LEAVES, leaves);
-        checkIsStillValid();
+        set(StateValue.LEAVES, leaves);
+    }
+
+    public WrappedBlockState withLeaves(Leaves leaves) {
+        return with(StateValue.LEAVES, leaves);
     }
 
     public int getLevel() {
@@ -922,9 +1014,11 @@ public class WrappedBlockState {
     }
 
     public void setLevel(int level) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LEVEL, level);
-        checkIsStillValid();
+        set(StateValue.LEVEL, level);
+    }
+
+    public WrappedBlockState withLevel(int level) {
+        return with(StateValue.LEVEL, level);
     }
 
     public boolean isLit() {
@@ -932,9 +1026,11 @@ public class WrappedBlockState {
     }
 
     public void setLit(boolean lit) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LIT, lit);
-        checkIsStillValid();
+        set(StateValue.LIT, lit);
+    }
+
+    public WrappedBlockState withLit(boolean lit) {
+        return with(StateValue.LIT, lit);
     }
 
     public boolean isTip() {
@@ -942,9 +1038,11 @@ public class WrappedBlockState {
     }
 
     public void setTip(boolean tip) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TIP, tip);
-        checkIsStillValid();
+        set(StateValue.TIP, tip);
+    }
+
+    public WrappedBlockState withTip(boolean tip) {
+        return with(StateValue.TIP, tip);
     }
 
     public boolean isLocked() {
@@ -952,9 +1050,11 @@ public class WrappedBlockState {
     }
 
     public void setLocked(boolean locked) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LOCKED, locked);
-        checkIsStillValid();
+        set(StateValue.LOCKED, locked);
+    }
+
+    public WrappedBlockState withLocked(boolean locked) {
+        return with(StateValue.LOCKED, locked);
     }
 
     public Mode getMode() {
@@ -962,9 +1062,11 @@ public class WrappedBlockState {
     }
 
     public void setMode(Mode mode) {
-        checkIfCloneNeeded();
-        data.put(StateValue.MODE, mode);
-        checkIsStillValid();
+        set(StateValue.MODE, mode);
+    }
+
+    public WrappedBlockState withMode(Mode mode) {
+        return with(StateValue.MODE, mode);
     }
 
     public int getMoisture() {
@@ -972,9 +1074,11 @@ public class WrappedBlockState {
     }
 
     public void setMoisture(int moisture) {
-        checkIfCloneNeeded();
-        data.put(StateValue.MOISTURE, moisture);
-        checkIsStillValid();
+        set(StateValue.MOISTURE, moisture);
+    }
+
+    public WrappedBlockState withMoisture(int moisture) {
+        return with(StateValue.MOISTURE, moisture);
     }
 
     public North getNorth() {
@@ -982,9 +1086,11 @@ public class WrappedBlockState {
     }
 
     public void setNorth(North north) {
-        checkIfCloneNeeded();
-        data.put(StateValue.NORTH, north);
-        checkIsStillValid();
+        set(StateValue.NORTH, north);
+    }
+
+    public WrappedBlockState withNorth(North north) {
+        return with(StateValue.NORTH, north);
     }
 
     public int getNote() {
@@ -992,9 +1098,11 @@ public class WrappedBlockState {
     }
 
     public void setNote(int note) {
-        checkIfCloneNeeded();
-        data.put(StateValue.NOTE, note);
-        checkIsStillValid();
+        set(StateValue.NOTE, note);
+    }
+
+    public WrappedBlockState withNote(int note) {
+        return with(StateValue.NOTE, note);
     }
 
     public boolean isOccupied() {
@@ -1002,9 +1110,11 @@ public class WrappedBlockState {
     }
 
     public void setOccupied(boolean occupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.OCCUPIED, occupied);
-        checkIsStillValid();
+        set(StateValue.OCCUPIED, occupied);
+    }
+
+    public WrappedBlockState withOccupied(boolean occupied) {
+        return with(StateValue.OCCUPIED, occupied);
     }
 
     public boolean isShrieking() {
@@ -1012,9 +1122,11 @@ public class WrappedBlockState {
     }
 
     public void setShrieking(boolean shrieking) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SHRIEKING, shrieking);
-        checkIsStillValid();
+        set(StateValue.SHRIEKING, shrieking);
+    }
+
+    public WrappedBlockState withShrieking(boolean shrieking) {
+        return with(StateValue.SHRIEKING, shrieking);
     }
 
     public boolean isCanSummon() {
@@ -1022,9 +1134,11 @@ public class WrappedBlockState {
     }
 
     public void setCanSummon(boolean canSummon) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CAN_SUMMON, canSummon);
-        checkIsStillValid();
+        set(StateValue.CAN_SUMMON, canSummon);
+    }
+
+    public WrappedBlockState withCanSummon(boolean canSummon) {
+        return with(StateValue.CAN_SUMMON, canSummon);
     }
 
     public boolean isOpen() {
@@ -1032,9 +1146,11 @@ public class WrappedBlockState {
     }
 
     public void setOpen(boolean open) {
-        checkIfCloneNeeded();
-        data.put(StateValue.OPEN, open);
-        checkIsStillValid();
+        set(StateValue.OPEN, open);
+    }
+
+    public WrappedBlockState withOpen(boolean open) {
+        return with(StateValue.OPEN, open);
     }
 
     public Orientation getOrientation() {
@@ -1042,9 +1158,11 @@ public class WrappedBlockState {
     }
 
     public void setOrientation(Orientation orientation) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ORIENTATION, orientation);
-        checkIsStillValid();
+        set(StateValue.ORIENTATION, orientation);
+    }
+
+    public WrappedBlockState withOrientation(Orientation orientation) {
+        return with(StateValue.ORIENTATION, orientation);
     }
 
     public Part getPart() {
@@ -1052,9 +1170,11 @@ public class WrappedBlockState {
     }
 
     public void setPart(Part part) {
-        checkIfCloneNeeded();
-        data.put(StateValue.PART, part);
-        checkIsStillValid();
+        set(StateValue.PART, part);
+    }
+
+    public WrappedBlockState withPart(Part part) {
+        return with(StateValue.PART, part);
     }
 
     public boolean isPersistent() {
@@ -1062,9 +1182,11 @@ public class WrappedBlockState {
     }
 
     public void setPersistent(boolean persistent) {
-        checkIfCloneNeeded();
-        data.put(StateValue.PERSISTENT, persistent);
-        checkIsStillValid();
+        set(StateValue.PERSISTENT, persistent);
+    }
+
+    public WrappedBlockState withPersistent(boolean persistent) {
+        return with(StateValue.PERSISTENT, persistent);
     }
 
     public int getPickles() {
@@ -1072,9 +1194,11 @@ public class WrappedBlockState {
     }
 
     public void setPickles(int pickles) {
-        checkIfCloneNeeded();
-        data.put(StateValue.PICKLES, pickles);
-        checkIsStillValid();
+        set(StateValue.PICKLES, pickles);
+    }
+
+    public WrappedBlockState withPickles(int pickles) {
+        return with(StateValue.PICKLES, pickles);
     }
 
     public int getPower() {
@@ -1082,9 +1206,11 @@ public class WrappedBlockState {
     }
 
     public void setPower(int power) {
-        checkIfCloneNeeded();
-        data.put(StateValue.POWER, power);
-        checkIsStillValid();
+        set(StateValue.POWER, power);
+    }
+
+    public WrappedBlockState withPower(int power) {
+        return with(StateValue.POWER, power);
     }
 
     public boolean isPowered() {
@@ -1092,9 +1218,11 @@ public class WrappedBlockState {
     }
 
     public void setPowered(boolean powered) {
-        checkIfCloneNeeded();
-        data.put(StateValue.POWERED, powered);
-        checkIsStillValid();
+        set(StateValue.POWERED, powered);
+    }
+
+    public WrappedBlockState withPowered(boolean powered) {
+        return with(StateValue.POWERED, powered);
     }
 
     public int getRotation() {
@@ -1102,9 +1230,11 @@ public class WrappedBlockState {
     }
 
     public void setRotation(int rotation) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ROTATION, rotation);
-        checkIsStillValid();
+        set(StateValue.ROTATION, rotation);
+    }
+
+    public WrappedBlockState withRotation(int rotation) {
+        return with(StateValue.ROTATION, rotation);
     }
 
     public SculkSensorPhase getSculkSensorPhase() {
@@ -1112,9 +1242,11 @@ public class WrappedBlockState {
     }
 
     public void setSculkSensorPhase(SculkSensorPhase sculkSensorPhase) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SCULK_SENSOR_PHASE, sculkSensorPhase);
-        checkIsStillValid();
+        set(StateValue.SCULK_SENSOR_PHASE, sculkSensorPhase);
+    }
+
+    public WrappedBlockState withSculkSensorPhase(SculkSensorPhase sculkSensorPhase) {
+        return with(StateValue.SCULK_SENSOR_PHASE, sculkSensorPhase);
     }
 
     public Shape getShape() {
@@ -1122,9 +1254,11 @@ public class WrappedBlockState {
     }
 
     public void setShape(Shape shape) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SHAPE, shape);
-        checkIsStillValid();
+        set(StateValue.SHAPE, shape);
+    }
+
+    public WrappedBlockState withShape(Shape shape) {
+        return with(StateValue.SHAPE, shape);
     }
 
     public boolean isShort() {
@@ -1132,9 +1266,11 @@ public class WrappedBlockState {
     }
 
     public void setShort(boolean short_) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SHORT, short_);
-        checkIsStillValid();
+        set(StateValue.SHORT, short_);
+    }
+
+    public WrappedBlockState withShort(boolean short_) {
+        return with(StateValue.SHORT, short_);
     }
 
     public boolean isSignalFire() {
@@ -1142,9 +1278,11 @@ public class WrappedBlockState {
     }
 
     public void setSignalFire(boolean signalFire) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SIGNAL_FIRE, signalFire);
-        checkIsStillValid();
+        set(StateValue.SIGNAL_FIRE, signalFire);
+    }
+
+    public WrappedBlockState withSignalFire(boolean signalFire) {
+        return with(StateValue.SIGNAL_FIRE, signalFire);
     }
 
     public boolean isSlotZeroOccupied() {
@@ -1152,9 +1290,11 @@ public class WrappedBlockState {
     }
 
     public void setSlotZeroOccupied(boolean slotZeroOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_0_OCCUPIED, slotZeroOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_0_OCCUPIED, slotZeroOccupied);
+    }
+
+    public WrappedBlockState withSlotZeroOccupied(boolean slotZeroOccupied) {
+        return with(StateValue.SLOT_0_OCCUPIED, slotZeroOccupied);
     }
 
     public boolean isSlotOneOccupied() {
@@ -1162,9 +1302,11 @@ public class WrappedBlockState {
     }
 
     public void setSlotOneOccupied(boolean slotOneOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_1_OCCUPIED, slotOneOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_1_OCCUPIED, slotOneOccupied);
+    }
+
+    public WrappedBlockState withSlotOneOccupied(boolean slotOneOccupied) {
+        return with(StateValue.SLOT_1_OCCUPIED, slotOneOccupied);
     }
 
     public boolean isSlotTwoOccupied() {
@@ -1172,9 +1314,11 @@ public class WrappedBlockState {
     }
 
     public void setSlotTwoOccupied(boolean slotTwoOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_2_OCCUPIED, slotTwoOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_2_OCCUPIED, slotTwoOccupied);
+    }
+
+    public WrappedBlockState withSlotTwoOccupied(boolean slotTwoOccupied) {
+        return with(StateValue.SLOT_2_OCCUPIED, slotTwoOccupied);
     }
 
     public boolean isSlotThreeOccupied() {
@@ -1182,9 +1326,11 @@ public class WrappedBlockState {
     }
 
     public void setSlotThreeOccupied(boolean slotThreeOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_3_OCCUPIED, slotThreeOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_3_OCCUPIED, slotThreeOccupied);
+    }
+
+    public WrappedBlockState withSlotThreeOccupied(boolean slotThreeOccupied) {
+        return with(StateValue.SLOT_3_OCCUPIED, slotThreeOccupied);
     }
 
     public boolean isSlotFourOccupied() {
@@ -1192,9 +1338,11 @@ public class WrappedBlockState {
     }
 
     public void setSlotFourOccupied(boolean slotFourOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_4_OCCUPIED, slotFourOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_4_OCCUPIED, slotFourOccupied);
+    }
+
+    public WrappedBlockState withSlotFourOccupied(boolean slotFourOccupied) {
+        return with(StateValue.SLOT_4_OCCUPIED, slotFourOccupied);
     }
 
     public boolean isSlotFiveOccupied() {
@@ -1202,9 +1350,11 @@ public class WrappedBlockState {
     }
 
     public void setSlotFiveOccupied(boolean slotFiveOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_5_OCCUPIED, slotFiveOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_5_OCCUPIED, slotFiveOccupied);
+    }
+
+    public WrappedBlockState withSlotFiveOccupied(boolean slotFiveOccupied) {
+        return with(StateValue.SLOT_5_OCCUPIED, slotFiveOccupied);
     }
 
     public boolean isSnowy() {
@@ -1212,9 +1362,11 @@ public class WrappedBlockState {
     }
 
     public void setSnowy(boolean snowy) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SNOWY, snowy);
-        checkIsStillValid();
+        set(StateValue.SNOWY, snowy);
+    }
+
+    public WrappedBlockState withSnowy(boolean snowy) {
+        return with(StateValue.SNOWY, snowy);
     }
 
     public int getStage() {
@@ -1222,9 +1374,11 @@ public class WrappedBlockState {
     }
 
     public void setStage(int stage) {
-        checkIfCloneNeeded();
-        data.put(StateValue.STAGE, stage);
-        checkIsStillValid();
+        set(StateValue.STAGE, stage);
+    }
+
+    public WrappedBlockState withStage(int stage) {
+        return with(StateValue.STAGE, stage);
     }
 
     public South getSouth() {
@@ -1232,9 +1386,11 @@ public class WrappedBlockState {
     }
 
     public void setSouth(South south) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SOUTH, south);
-        checkIsStillValid();
+        set(StateValue.SOUTH, south);
+    }
+
+    public WrappedBlockState withSouth(South south) {
+        return with(StateValue.SOUTH, south);
     }
 
     public Thickness getThickness() {
@@ -1242,9 +1398,11 @@ public class WrappedBlockState {
     }
 
     public void setThickness(Thickness thickness) {
-        checkIfCloneNeeded();
-        data.put(StateValue.THICKNESS, thickness);
-        checkIsStillValid();
+        set(StateValue.THICKNESS, thickness);
+    }
+
+    public WrappedBlockState withThickness(Thickness thickness) {
+        return with(StateValue.THICKNESS, thickness);
     }
 
     public Tilt getTilt() {
@@ -1252,9 +1410,11 @@ public class WrappedBlockState {
     }
 
     public void setTilt(Tilt tilt) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TILT, tilt);
-        checkIsStillValid();
+        set(StateValue.TILT, tilt);
+    }
+
+    public WrappedBlockState withTilt(Tilt tilt) {
+        return with(StateValue.TILT, tilt);
     }
 
     public boolean isTriggered() {
@@ -1262,9 +1422,11 @@ public class WrappedBlockState {
     }
 
     public void setTriggered(boolean triggered) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TRIGGERED, triggered);
-        checkIsStillValid();
+        set(StateValue.TRIGGERED, triggered);
+    }
+
+    public WrappedBlockState withTriggered(boolean triggered) {
+        return with(StateValue.TRIGGERED, triggered);
     }
 
     public Type getTypeData() {
@@ -1272,9 +1434,11 @@ public class WrappedBlockState {
     }
 
     public void setTypeData(Type type) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TYPE, type);
-        checkIsStillValid();
+        set(StateValue.TYPE, type);
+    }
+
+    public WrappedBlockState withTypeData(Type type) {
+        return with(StateValue.TYPE, type);
     }
 
     public boolean isUnstable() {
@@ -1282,9 +1446,11 @@ public class WrappedBlockState {
     }
 
     public void setUnstable(boolean unstable) {
-        checkIfCloneNeeded();
-        data.put(StateValue.UNSTABLE, unstable);
-        checkIsStillValid();
+        set(StateValue.UNSTABLE, unstable);
+    }
+
+    public WrappedBlockState withUnstable(boolean unstable) {
+        return with(StateValue.UNSTABLE, unstable);
     }
 
     public boolean isUp() {
@@ -1292,9 +1458,11 @@ public class WrappedBlockState {
     }
 
     public void setUp(boolean up) {
-        checkIfCloneNeeded();
-        data.put(StateValue.UP, up);
-        checkIsStillValid();
+        set(StateValue.UP, up);
+    }
+
+    public WrappedBlockState withUp(boolean up) {
+        return with(StateValue.UP, up);
     }
 
     public VerticalDirection getVerticalDirection() {
@@ -1302,9 +1470,11 @@ public class WrappedBlockState {
     }
 
     public void setVerticalDirection(VerticalDirection verticalDirection) {
-        checkIfCloneNeeded();
-        data.put(StateValue.VERTICAL_DIRECTION, verticalDirection);
-        checkIsStillValid();
+        set(StateValue.VERTICAL_DIRECTION, verticalDirection);
+    }
+
+    public WrappedBlockState withVerticalDirection(VerticalDirection verticalDirection) {
+        return with(StateValue.VERTICAL_DIRECTION, verticalDirection);
     }
 
     public boolean isWaterlogged() {
@@ -1312,9 +1482,11 @@ public class WrappedBlockState {
     }
 
     public void setWaterlogged(boolean waterlogged) {
-        checkIfCloneNeeded();
-        data.put(StateValue.WATERLOGGED, waterlogged);
-        checkIsStillValid();
+        set(StateValue.WATERLOGGED, waterlogged);
+    }
+
+    public WrappedBlockState withWaterlogged(boolean waterlogged) {
+        return with(StateValue.WATERLOGGED, waterlogged);
     }
 
     public East getEast() {
@@ -1322,9 +1494,11 @@ public class WrappedBlockState {
     }
 
     public void setEast(East west) {
-        checkIfCloneNeeded();
-        data.put(StateValue.EAST, west);
-        checkIsStillValid();
+        set(StateValue.EAST, west);
+    }
+
+    public WrappedBlockState withEast(East west) {
+        return with(StateValue.EAST, west);
     }
 
     public West getWest() {
@@ -1332,9 +1506,11 @@ public class WrappedBlockState {
     }
 
     public void setWest(West west) {
-        checkIfCloneNeeded();
-        data.put(StateValue.WEST, west);
-        checkIsStillValid();
+        set(StateValue.WEST, west);
+    }
+
+    public WrappedBlockState withWest(West west) {
+        return with(StateValue.WEST, west);
     }
 
     public Bloom getBloom() {
@@ -1342,9 +1518,11 @@ public class WrappedBlockState {
     }
 
     public void setBloom(Bloom bloom) {
-        checkIfCloneNeeded();
-        data.put(StateValue.BLOOM, bloom);
-        checkIsStillValid();
+        set(StateValue.BLOOM, bloom);
+    }
+
+    public WrappedBlockState withBloom(Bloom bloom) {
+        return with(StateValue.BLOOM, bloom);
     }
 
     public boolean isCracked() {
@@ -1352,9 +1530,11 @@ public class WrappedBlockState {
     }
 
     public void setCracked(boolean cracked) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CRACKED, cracked);
-        checkIsStillValid();
+        set(StateValue.CRACKED, cracked);
+    }
+
+    public WrappedBlockState withCracked(boolean cracked) {
+        return with(StateValue.CRACKED, cracked);
     }
 
     public boolean isCrafting() {
@@ -1362,9 +1542,11 @@ public class WrappedBlockState {
     }
 
     public void setCrafting(boolean crafting) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CRAFTING, crafting);
-        checkIsStillValid();
+        set(StateValue.CRAFTING, crafting);
+    }
+
+    public WrappedBlockState withCrafting(boolean crafting) {
+        return with(StateValue.CRAFTING, crafting);
     }
 
     public TrialSpawnerState getTrialSpawnerState() {
@@ -1372,9 +1554,11 @@ public class WrappedBlockState {
     }
 
     public void setTrialSpawnerState(TrialSpawnerState trialSpawnerState) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TRIAL_SPAWNER_STATE, trialSpawnerState);
-        checkIsStillValid();
+        set(StateValue.TRIAL_SPAWNER_STATE, trialSpawnerState);
+    }
+
+    public WrappedBlockState withTrialSpawnerState(TrialSpawnerState trialSpawnerState) {
+        return with(StateValue.TRIAL_SPAWNER_STATE, trialSpawnerState);
     }
 
     public CreakingHeartState getCreaking() {
@@ -1382,13 +1566,70 @@ public class WrappedBlockState {
     }
 
     public void setCreaking(CreakingHeartState creakingHeartState) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CREAKING, creakingHeartState);
-        checkIsStillValid();
+        set(StateValue.CREAKING, creakingHeartState);
+    }
+
+    public WrappedBlockState withCreaking(CreakingHeartState creakingHeartState) {
+        return with(StateValue.CREAKING, creakingHeartState);
     }
 
     // End all block data types
 
+    /**
+     * Returns the shared state of this block with a single property changed, without
+     * touching this instance. The returned state is the same instance that
+     * {@link #getByGlobalId(ClientVersion, int, boolean)} returns without cloning,
+     * so it must not be modified through the setters; clone it first if needed.
+     * <p>
+     * Changes are resolved through transition tables which are built the first time
+     * a state of a game version is changed, allowing block rewriting without allocations.
+     *
+     * @param value    the property to change
+     * @param newValue the new value of the property
+     * @return the shared state with the property changed
+     * @throws IllegalArgumentException if the block doesn't have the property or value in this game version
+     */
+    public WrappedBlockState with(StateValue value, Object newValue) {
+        int id = this.hasSharedData() ? this.globalID : this.getGlobalIdNoCache();
+        WrappedBlockState state = id == -1 ? null : getTransitions(this.mappingsIndex).with(id, value, newValue);
+        if (state == null) {
+            // not every block type has a transition table, look the changed state up by its properties instead
+            Map<StateValue, Object> data = new HashMap<>(this.data);
+            data.put(value, newValue);
+            int changedId = new WrappedBlockState(this.type, data, -1, this.mappingsIndex).getGlobalIdNoCache();
+            state = changedId == -1 ? null : BY_ID.get(this.mappingsIndex, changedId);
+        }
+        if (state == null) {
+            throw new IllegalArgumentException("Block " + this.type.getName() + " has no state with "
+                    + value.getName() + "=" + newValue + " for this game version");
+        }
+        return state;
+    }
+
+    private void set(StateValue value, Object newValue) {
+        if (this.hasSharedData()) {
+            // data is still the shared map of the state with our id, so the transition tables can be used
+            WrappedBlockState state = getTransitions(this.mappingsIndex).with(this.globalID, value, newValue);
+            if (state != null) {
+                this.type = state.type;
+                this.data = state.data;
+                this.globalID = state.globalID;
+                return;
+            }
+        }
+        this.checkIfCloneNeeded();
+        this.data.put(value, newValue);
+        this.checkIsStillValid();
+    }
+
+    private boolean hasSharedData() {
+        if (this.hasClonedData) {
+            return false;
+        }
+        WrappedBlockState state = BY_ID.get(this.mappingsIndex, this.globalID);
+        return state != null && state.data == this.data;
+    }
+
     /**
      * We can't modify all blocks of a type when modifying a single block.
      * Cloning on every wrapped block state is too expensive.
@@ -1410,7 +1651,7 @@ public class WrappedBlockState {
         int oldGlobalID = globalID;
         globalID = getGlobalIdNoCache();
         if (globalID == -1) { // -1 maps to no block as negative ID are impossible
-            WrappedBlockState blockState = BY_ID.get(mappingsIndex).getOrDefault(oldGlobalID, AIR).clone();
+            WrappedBlockState blockState = getById(mappingsIndex, oldGlobalID).clone();
             this.type = blockState.type;
             this.globalID = blockState.globalID;
             this.data = new HashMap<>(blockState.data);
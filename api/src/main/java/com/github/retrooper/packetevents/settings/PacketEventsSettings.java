@@ -40,6 +40,10 @@ public class PacketEventsSettings {
     private boolean fullStackTraceEnabled = false;
     private boolean kickOnPacketExceptionEnabled = true;
     private boolean kickIfTerminated = true;
+    private boolean eventRecycling = false;
+    private boolean copyOnWrite = false;
+    private int asyncListenerThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int asyncQueueCapacity = 4096;
     private Function<String, InputStream> resourceProvider = path -> PacketEventsSettings.class
             .getClassLoader()
             .getResourceAsStream(path);
@@ -152,6 +156,65 @@ public class PacketEventsSettings {
         return this;
     }
 
+    /**
+     * This decides if PacketEvents should reuse packet events for other packets instead of creating new ones.
+     * Listeners must not keep events after they have been called when enabled, they have to be cloned instead.
+     *
+     * @param eventRecycling Value
+     * @return Settings instance.
+     */
+    @ApiStatus.Internal
+    public PacketEventsSettings eventRecycling(boolean eventRecycling) {
+        this.eventRecycling = eventRecycling;
+        return this;
+    }
+
+    /**
+     * This decides if the proxy handlers call listeners on the original packet buffer instead of a copy of it.
+     * The buffer is only copied once a wrapper has to be re-encoded, untouched packets are passed through as they are.
+     * Listeners must not modify the buffer of the event directly when enabled, only through wrappers.
+     *
+     * @param copyOnWrite Value
+     * @return Settings instance.
+     */
+    @ApiStatus.Internal
+    public PacketEventsSettings copyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+        return this;
+    }
+
+    /**
+     * This decides how many threads call the asynchronous listeners.
+     * The threads are only started once the first asynchronous listener is registered.
+     *
+     * @param asyncListenerThreads Value, has to be positive
+     * @return Settings instance.
+     */
+    @ApiStatus.Internal
+    public PacketEventsSettings asyncListenerThreads(int asyncListenerThreads) {
+        if (asyncListenerThreads <= 0) {
+            throw new IllegalArgumentException("asyncListenerThreads must be positive, got " + asyncListenerThreads);
+        }
+        this.asyncListenerThreads = asyncListenerThreads;
+        return this;
+    }
+
+    /**
+     * This decides how many events may be waiting for the asynchronous listeners per user.
+     * Once a user's queue is full, further events for that user are dropped instead of blocking the netty thread.
+     *
+     * @param asyncQueueCapacity Value, has to be positive
+     * @return Settings instance.
+     */
+    @ApiStatus.Internal
+    public PacketEventsSettings asyncQueueCapacity(int asyncQueueCapacity) {
+        if (asyncQueueCapacity <= 0) {
+            throw new IllegalArgumentException("asyncQueueCapacity must be positive, got " + asyncQueueCapacity);
+        }
+        this.asyncQueueCapacity = asyncQueueCapacity;
+        return this;
+    }
+
     /**
      * Some projects may want to implement a CDN with resources like asset mappings
      * By default, all resources are retrieved from the ClassLoader
@@ -241,6 +304,42 @@ public class PacketEventsSettings {
         return kickIfTerminated;
     }
 
+    /**
+     * Should packetevents reuse packet events for other packets?
+     *
+     * @return Getter for {@link #eventRecycling}
+     */
+    public boolean isEventRecyclingEnabled() {
+        return eventRecycling;
+    }
+
+    /**
+     * Should the proxy handlers only copy packet buffers when re-encoding them?
+     *
+     * @return Getter for {@link #copyOnWrite}
+     */
+    public boolean isCopyOnWriteEnabled() {
+        return copyOnWrite;
+    }
+
+    /**
+     * How many threads call the asynchronous listeners?
+     *
+     * @return Getter for {@link #asyncListenerThreads}
+     */
+    public int getAsyncListenerThreads() {
+        return asyncListenerThreads;
+    }
+
+    /**
+     * How many events may wait for the asynchronous listeners per user?
+     *
+     * @return Getter for {@link #asyncQueueCapacity}
+     */
+    public int getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
     /**
      * As described above, this method retrieves the function that acquires the InputStream
      * of a desired resource by its path.
@@ -18,15 +18,48 @@
 
 package com.github.retrooper.packetevents.util;
 
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketEventPool;
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.event.simple.*;
 import com.github.retrooper.packetevents.exception.PacketProcessException;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.player.User;
 
 public class EventCreationUtil {
     public static PacketReceiveEvent createReceiveEvent(Object channel, User user, Object player, Object buffer,
                                                         boolean autoProtocolTranslation) throws PacketProcessException {
+        if (!PacketEvents.getAPI().getSettings().isEventRecyclingEnabled()) {
+            return newReceiveEvent(channel, user, player, buffer, autoProtocolTranslation);
+        }
+        PacketEventPool pool = PacketEventPool.get();
+        ConnectionState state = user.getDecoderState();
+        ProtocolPacketEvent event = pool.acquire(PacketSide.CLIENT, state, channel, user, player, buffer, autoProtocolTranslation);
+        if (event != null) {
+            return (PacketReceiveEvent) event;
+        }
+        return pool.adopt(newReceiveEvent(channel, user, player, buffer, autoProtocolTranslation), PacketSide.CLIENT, state);
+    }
+
+    public static PacketSendEvent createSendEvent(Object channel, User user, Object player, Object buffer,
+                                                  boolean autoProtocolTranslation) throws PacketProcessException {
+        if (!PacketEvents.getAPI().getSettings().isEventRecyclingEnabled()) {
+            return newSendEvent(channel, user, player, buffer, autoProtocolTranslation);
+        }
+        PacketEventPool pool = PacketEventPool.get();
+        ConnectionState state = user.getEncoderState();
+        ProtocolPacketEvent event = pool.acquire(PacketSide.SERVER, state, channel, user, player, buffer, autoProtocolTranslation);
+        if (event != null) {
+            return (PacketSendEvent) event;
+        }
+        return pool.adopt(newSendEvent(channel, user, player, buffer, autoProtocolTranslation), PacketSide.SERVER, state);
+    }
+
+    private static PacketReceiveEvent newReceiveEvent(Object channel, User user, Object player, Object buffer,
+                                                      boolean autoProtocolTranslation) throws PacketProcessException {
         switch (user.getDecoderState()) {
             case HANDSHAKING:
                 return new PacketHandshakeReceiveEvent(channel, user, player, buffer, autoProtocolTranslation);
@@ -42,8 +75,8 @@ public class EventCreationUtil {
         throw new RuntimeException("Unknown connection state " + user.getDecoderState() + "!");
     }
 
-    public static PacketSendEvent createSendEvent(Object channel, User user, Object player, Object buffer,
-                                                  boolean autoProtocolTranslation) throws PacketProcessException{
+    private static PacketSendEvent newSendEvent(Object channel, User user, Object player, Object buffer,
+                                                boolean autoProtocolTranslation) throws PacketProcessException {
         switch (user.getEncoderState()) {
             case HANDSHAKING:
                 return new PacketHandshakeSendEvent(channel, user, player, buffer, autoProtocolTranslation);
@@ -23,10 +23,14 @@ import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.event.UserDisconnectEvent;
+import com.github.retrooper.packetevents.jfr.PacketFlightRecorder;
 import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
+import com.github.retrooper.packetevents.metrics.PacketMetrics;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
@@ -65,9 +69,7 @@ public final class PacketEventsImplHelper {
             //Did they ever use a wrapper?
             if (packetSendEvent.getLastUsedWrapper() != null) {
                 //Rewrite the buffer
-                ByteBufHelper.clear(buffer);
-                packetSendEvent.getLastUsedWrapper().writeVarInt(packetSendEvent.getPacketId());
-                packetSendEvent.getLastUsedWrapper().write();
+                reEncode(packetSendEvent, buffer);
             } else {
                 //If no wrappers were used, just pass on the original buffer.
                 //Correct the reader index, basically what the next handler is expecting.
@@ -105,9 +107,7 @@ public final class PacketEventsImplHelper {
             //Did they ever use a wrapper?
             if (packetReceiveEvent.getLastUsedWrapper() != null) {
                 //Rewrite the buffer
-                ByteBufHelper.clear(buffer);
-                packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
-                packetReceiveEvent.getLastUsedWrapper().write();
+                reEncode(packetReceiveEvent, buffer);
             } else {
                 //If no wrappers were used, just pass on the original buffer.
                 //Correct the reader index, basically what the next handler is expecting.
@@ -125,6 +125,33 @@ public final class PacketEventsImplHelper {
         return packetReceiveEvent;
     }
 
+    /**
+     * Writes the last used wrapper of the event into the buffer, replacing the packet it contained.
+     * If the buffer isn't the one of the event, like a copy-on-write target, the event and its wrapper are moved to it.
+     */
+    @ApiStatus.Internal
+    public static void reEncode(ProtocolPacketEvent event, Object buffer) {
+        PacketMetrics metrics = PacketEvents.getAPI().getMetrics();
+        boolean measure = metrics.isEnabled() && event.getPacketType() != null;
+        long start = measure ? System.nanoTime() : 0L;
+        PacketFlightRecorder recorder = PacketFlightRecorder.get();
+        Object flightEvent = recorder.beginReEncode();
+        PacketWrapper<?> wrapper = event.getLastUsedWrapper();
+        if (event.getByteBuf() != buffer) {
+            wrapper.setBuffer(buffer);
+            event.setByteBuf(buffer);
+        }
+        ByteBufHelper.clear(buffer);
+        wrapper.writeVarInt(event.getPacketId());
+        wrapper.write();
+        if (flightEvent != null) {
+            recorder.commitReEncode(flightEvent, event.getPacketType(), event.getUser(), ByteBufHelper.readableBytes(buffer));
+        }
+        if (measure) {
+            metrics.recordEncode(event.getPacketType(), ByteBufHelper.readableBytes(buffer), System.nanoTime() - start);
+        }
+    }
+
     public static void handleDisconnection(Object channel, @Nullable UUID uuid) {
         synchronized (channel) {
             User user = PacketEvents.getAPI().getProtocolManager().getUser(channel);
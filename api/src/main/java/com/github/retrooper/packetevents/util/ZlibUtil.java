@@ -0,0 +1,67 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses and decompresses using one pooled {@link Deflater} and {@link Inflater} per thread,
+ * instead of creating new ones (and their native zlib state) for every packet.
+ */
+public final class ZlibUtil {
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private ZlibUtil() {
+    }
+
+    /**
+     * Compresses the first bytes of the input into the output.
+     *
+     * @return the amount of bytes written to the output
+     */
+    public static int deflate(byte[] input, int length, byte[] output) {
+        Deflater deflater = DEFLATER.get();
+        try {
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+            return deflater.deflate(output);
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * Decompresses the first bytes of the input into the output.
+     *
+     * @return the amount of bytes written to the output
+     */
+    public static int inflate(byte[] input, int length, byte[] output) throws DataFormatException {
+        Inflater inflater = INFLATER.get();
+        try {
+            inflater.setInput(input, 0, length);
+            return inflater.inflate(output);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
@@ -105,12 +105,10 @@ public class MappingHelper {
         return diffs;
     }
 
-    public static  <T extends MappedEntity> void registerMapping(TypesBuilder builder, Map<String, T> typeMap, Map<Byte, Map<Integer, T>> typeIdMap, T type) {
+    public static <T extends MappedEntity> void registerMapping(TypesBuilder builder, Map<String, T> typeMap, VersionedIdTable<T> typeIdTable, T type) {
         typeMap.put(type.getName().toString(), type);
         for (ClientVersion version : builder.getVersions()) {
-            int index = builder.getDataIndex(version);
-            Map<Integer, T> idMap = typeIdMap.computeIfAbsent((byte) index, k -> new HashMap<>());
-            idMap.put(type.getId(version), type);
+            typeIdTable.put(builder.getDataIndex(version), type.getId(version), type);
         }
     }
 
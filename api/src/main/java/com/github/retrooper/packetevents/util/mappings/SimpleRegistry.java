@@ -21,6 +21,7 @@ package com.github.retrooper.packetevents.util.mappings;
 import com.github.retrooper.packetevents.protocol.mapper.MappedEntity;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.resources.ResourceLocation;
+import com.github.retrooper.packetevents.util.IntObjectMap;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
@@ -33,7 +34,7 @@ public final class SimpleRegistry<T extends MappedEntity> implements IRegistry<T
 
     private final ResourceLocation registryKey;
     private final Map<String, T> typeMap = new HashMap<>();
-    private final Map<Integer, T> typeIdMap = new HashMap<>();
+    private final IntObjectMap<T> typeIdMap = new IntObjectMap<>();
     private final Map<String, Integer> reverseTypeIdMap = new HashMap<>();
 
     public SimpleRegistry(String registryKey) {
@@ -0,0 +1,99 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util.mappings;
+
+import com.github.retrooper.packetevents.util.IntObjectMap;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Id lookup table for every version index of a {@link TypesBuilder}, replacing
+ * {@code Map<Byte, Map<Integer, T>>} without boxing either key.
+ * <p>
+ * Ids of one version are almost always dense, so they are stored in a plain array indexed by id.
+ * Negative ids and ids above {@link #MAX_DENSE_ID} are stored in an {@link IntObjectMap} instead.
+ *
+ * @param <T> value type
+ */
+@ApiStatus.Internal
+public final class VersionedIdTable<T> {
+
+    private static final int MAX_DENSE_ID = 1 << 16;
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[][] tables = new Object[0][];
+    private IntObjectMap<T>[] sparseTables = newSparseTables(0);
+
+    @SuppressWarnings("unchecked")
+    private static <T> IntObjectMap<T>[] newSparseTables(int length) {
+        return (IntObjectMap<T>[]) new IntObjectMap<?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable T get(int versionIndex, int id) {
+        Object[][] tables = this.tables;
+        if (versionIndex < 0 || versionIndex >= tables.length) {
+            return null;
+        }
+        Object[] table = tables[versionIndex];
+        if (id >= 0 && id < table.length) {
+            return (T) table[id];
+        }
+        if (id >= 0 && id < MAX_DENSE_ID) {
+            return null;
+        }
+        IntObjectMap<T> sparseTable = this.sparseTables[versionIndex];
+        return sparseTable == null ? null : sparseTable.get(id);
+    }
+
+    public void put(int versionIndex, int id, T value) {
+        if (versionIndex >= this.tables.length) {
+            int oldLength = this.tables.length;
+            Object[][] tables = new Object[versionIndex + 1][];
+            System.arraycopy(this.tables, 0, tables, 0, oldLength);
+            for (int i = oldLength; i < tables.length; i++) {
+                tables[i] = EMPTY;
+            }
+            IntObjectMap<T>[] sparseTables = newSparseTables(tables.length);
+            System.arraycopy(this.sparseTables, 0, sparseTables, 0, oldLength);
+            this.tables = tables;
+            this.sparseTables = sparseTables;
+        }
+
+        if (id < 0 || id >= MAX_DENSE_ID) {
+            IntObjectMap<T> sparseTable = this.sparseTables[versionIndex];
+            if (sparseTable == null) {
+                sparseTable = new IntObjectMap<>();
+                this.sparseTables[versionIndex] = sparseTable;
+            }
+            sparseTable.put(id, value);
+            return;
+        }
+
+        Object[] table = this.tables[versionIndex];
+        if (id >= table.length) {
+            int length = Math.min(MAX_DENSE_ID, Math.max(id + 1, table.length + (table.length >> 1)));
+            Object[] grown = new Object[length];
+            System.arraycopy(table, 0, grown, 0, table.length);
+            table = grown;
+            this.tables[versionIndex] = table;
+        }
+        table[id] = value;
+    }
+}
@@ -36,7 +36,7 @@ public final class VersionedRegistry<T extends MappedEntity> implements IRegistr
     private final TypesBuilder typesBuilder;
 
     private final Map<String, T> typeMap = new HashMap<>();
-    private final Map<Byte, Map<Integer, T>> typeIdMap = new HashMap<>();
+    private final VersionedIdTable<T> typeIdTable = new VersionedIdTable<>();
 
     public VersionedRegistry(String registry, String mappingsPath) {
         this(new ResourceLocation(registry), mappingsPath);
@@ -51,7 +51,7 @@ public final class VersionedRegistry<T extends MappedEntity> implements IRegistr
     @ApiStatus.Internal
     public <Z extends T> Z define(String name, Function<TypesBuilderData, Z> builder) {
         Z instance = builder.apply(this.typesBuilder.define(name));
-        MappingHelper.registerMapping(this.typesBuilder, this.typeMap, this.typeIdMap, instance);
+        MappingHelper.registerMapping(this.typesBuilder, this.typeMap, this.typeIdTable, instance);
         return instance;
     }
 
@@ -73,9 +73,7 @@ public final class VersionedRegistry<T extends MappedEntity> implements IRegistr
 
     @Override
     public @Nullable T getById(ClientVersion version, int id) {
-        int index = this.typesBuilder.getDataIndex(version);
-        Map<Integer, T> idMap = this.typeIdMap.get((byte) index);
-        return idMap.get(id);
+        return this.typeIdTable.get(this.typesBuilder.getDataIndex(version), id);
     }
 
     @Override
@@ -0,0 +1,128 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util.reflection;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * A field resolved once into {@link MethodHandle method handles}, so repeated reads and writes
+ * skip the access checks and boxing dispatch of {@link Field#get(Object)} and {@link Field#set(Object, Object)}.
+ * <p>
+ * Accessors are cheapest when kept in a (static) field and reused, instead of being looked up for every access.
+ * Static fields are supported as well, the instance passed to them is ignored.
+ */
+public final class FieldAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final @Nullable MethodHandle setter;
+
+    private FieldAccessor(Field field) {
+        this.field = field;
+        if (!field.isAccessible()) {
+            field.setAccessible(true);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        try {
+            MethodHandle getter = lookup.unreflectGetter(field);
+            if (isStatic) {
+                getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            }
+            this.getter = getter.asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("PacketEvents failed to access the " + field.getName()
+                    + " field in the " + field.getDeclaringClass().getName() + " class!", e);
+        }
+        MethodHandle setter;
+        try {
+            setter = lookup.unreflectSetter(field);
+            if (isStatic) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            setter = setter.asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            // static final fields can't be written through a method handle, fall back to the field itself
+            setter = null;
+        }
+        this.setter = setter;
+    }
+
+    public static FieldAccessor of(Field field) {
+        return new FieldAccessor(field);
+    }
+
+    /**
+     * Resolves the field with the given type and index, in declaration order, the same way {@link ReflectionObject} does.
+     * Accessors returned by this method are cached and shared.
+     *
+     * @return the accessor, or null if either class is missing or the class doesn't declare that many fields of the type
+     */
+    public static @Nullable FieldAccessor of(@Nullable Class<?> clazz, @Nullable Class<?> type, int index) {
+        if (clazz == null || type == null) {
+            return null;
+        }
+        FieldAccessor[] accessors = ReflectionObject.getAccessors(clazz, type);
+        return index < accessors.length ? accessors[index] : null;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * The getter of this accessor, taking the instance and returning the value as an {@link Object}.
+     * A handle kept in a static final field is a constant to the JIT, so invoking it gets inlined like a plain field read.
+     */
+    public MethodHandle getGetter() {
+        return getter;
+    }
+
+    public Object get(Object instance) {
+        try {
+            return getter.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    public void set(Object instance, Object value) {
+        try {
+            if (setter != null) {
+                setter.invokeExact(instance, value);
+            } else {
+                field.set(instance, value);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
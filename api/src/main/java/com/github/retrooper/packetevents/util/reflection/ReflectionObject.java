@@ -26,8 +26,10 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class ReflectionObject implements ReflectionObjectReader, ReflectionObjectWriter {
-    private static final Map<Class<?>, Map<Class<?>, Field[]>> FIELD_CACHE = new ConcurrentHashMap<>();
-    private static final Field[] EMPTY_FIELD_ARRAY = new Field[0];
+    private static final Map<Class<?>, Map<Class<?>, FieldAccessor[]>> FIELD_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Field[]> DECLARED_FIELD_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Field, FieldAccessor> DECLARED_ACCESSOR_CACHE = new ConcurrentHashMap<>();
+    private static final FieldAccessor[] EMPTY_ACCESSOR_ARRAY = new FieldAccessor[0];
     protected final Object object;
     private final Class<?> clazz;
 
@@ -128,19 +130,17 @@ public class ReflectionObject implements ReflectionObjectReader, ReflectionObjec
 
     @Override
     public Object readAnyObject(int index) {
+        FieldAccessor accessor;
         try {
-            Field f = clazz.getDeclaredFields()[index];
-            if (!f.isAccessible()) {
-                f.setAccessible(true);
-            }
-            try {
-                return f.get(object);
-            } catch (IllegalAccessException | NullPointerException | ArrayIndexOutOfBoundsException e) {
-                e.printStackTrace();
-            }
+            accessor = getDeclaredAccessor(clazz, index);
         } catch (ArrayIndexOutOfBoundsException e) {
             throw new IllegalStateException("PacketEvents failed to find any field indexed " + index + " in the " + clazz.getSimpleName() + " class!");
         }
+        try {
+            return accessor.get(object);
+        } catch (NullPointerException | ClassCastException e) {
+            e.printStackTrace();
+        }
         return null;
     }
 
@@ -162,9 +162,9 @@ public class ReflectionObject implements ReflectionObjectReader, ReflectionObjec
     @SuppressWarnings("unchecked")
     public <T> T read(int index, Class<? extends T> type) {
         try {
-            Field field = getField(type, index);
-            return (T) field.get(object);
-        } catch (IllegalAccessException | NullPointerException | ArrayIndexOutOfBoundsException e) {
+            FieldAccessor accessor = getAccessor(type, index);
+            return (T) accessor.get(object);
+        } catch (NullPointerException | ClassCastException e) {
             throw new IllegalStateException("PacketEvents failed to find a " + type.getSimpleName() + " indexed " + index + " by its type in the " + clazz.getName() + " class!");
         }
     }
@@ -258,8 +258,7 @@ public class ReflectionObject implements ReflectionObjectReader, ReflectionObjec
     @Override
     public void writeAnyObject(int index, Object value) {
         try {
-            Field f = clazz.getDeclaredFields()[index];
-            f.set(object, value);
+            getDeclaredAccessor(clazz, index).set(object, value);
         } catch (Exception e) {
             throw new IllegalStateException("PacketEvents failed to find any field indexed " + index + " in the " + clazz.getSimpleName() + " class!");
         }
@@ -275,13 +274,10 @@ public class ReflectionObject implements ReflectionObjectReader, ReflectionObjec
     }
 
     public void write(Class<?> type, int index, Object value) throws IllegalStateException {
-        Field field = getField(type, index);
-        if (field == null) {
-            throw new IllegalStateException("PacketEvents failed to find a " + type.getSimpleName() + " indexed " + index + " by its type in the " + clazz.getName() + " class!");
-        }
+        FieldAccessor accessor = getAccessor(type, index);
         try {
-            field.set(object, value);
-        } catch (IllegalAccessException | NullPointerException e) {
+            accessor.set(object, value);
+        } catch (NullPointerException | ClassCastException e) {
             e.printStackTrace();
         }
     }
@@ -294,26 +290,32 @@ public class ReflectionObject implements ReflectionObjectReader, ReflectionObjec
         write(List.class, index, list);
     }
 
-    private Field getField(Class<?> type, int index) {
-        Map<Class<?>, Field[]> cached = FIELD_CACHE.computeIfAbsent(clazz, k -> new ConcurrentHashMap<>());
-        Field[] fields = cached.computeIfAbsent(type, typeClass -> getFields(typeClass, clazz.getDeclaredFields()));
-        if (fields.length >= index + 1) {
-            return fields[index];
+    private FieldAccessor getAccessor(Class<?> type, int index) {
+        FieldAccessor[] accessors = getAccessors(clazz, type);
+        if (accessors.length >= index + 1) {
+            return accessors[index];
         } else {
             throw new IllegalStateException("PacketEvents failed to find a " + type.getSimpleName() + " indexed " + index + " by its type in the " + clazz.getName() + " class!");
         }
     }
 
-    private Field[] getFields(Class<?> type, Field[] fields) {
-        List<Field> ret = new ArrayList<>();
+    static FieldAccessor[] getAccessors(Class<?> clazz, Class<?> type) {
+        Map<Class<?>, FieldAccessor[]> cached = FIELD_CACHE.computeIfAbsent(clazz, k -> new ConcurrentHashMap<>());
+        return cached.computeIfAbsent(type, typeClass -> getAccessors(typeClass, clazz.getDeclaredFields()));
+    }
+
+    private static FieldAccessor getDeclaredAccessor(Class<?> clazz, int index) {
+        Field field = DECLARED_FIELD_CACHE.computeIfAbsent(clazz, Class::getDeclaredFields)[index];
+        return DECLARED_ACCESSOR_CACHE.computeIfAbsent(field, FieldAccessor::of);
+    }
+
+    private static FieldAccessor[] getAccessors(Class<?> type, Field[] fields) {
+        List<FieldAccessor> ret = new ArrayList<>();
         for (Field field : fields) {
             if (field.getType().equals(type)) {
-                if (!field.isAccessible()) {
-                    field.setAccessible(true);
-                }
-                ret.add(field);
+                ret.add(FieldAccessor.of(field));
             }
         }
-        return ret.toArray(EMPTY_FIELD_ARRAY);
+        return ret.toArray(EMPTY_ACCESSOR_ARRAY);
     }
 }
@@ -48,7 +48,10 @@ import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.manager.server.VersionComparison;
+import com.github.retrooper.packetevents.jfr.PacketFlightRecorder;
+import com.github.retrooper.packetevents.metrics.PacketMetrics;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.chat.ChatType;
@@ -62,6 +65,7 @@ import com.github.retrooper.packetevents.protocol.chat.RemoteChatSession;
 import com.github.retrooper.packetevents.protocol.chat.SignedCommandArgument;
 import com.github.retrooper.packetevents.protocol.chat.filter.FilterMask;
 import com.github.retrooper.packetevents.protocol.chat.filter.FilterMaskType;
+import com.github.retrooper.packetevents.protocol.component.ComponentPatchCache;
 import com.github.retrooper.packetevents.protocol.component.ComponentType;
 import com.github.retrooper.packetevents.protocol.component.ComponentTypes;
 import com.github.retrooper.packetevents.protocol.component.PatchableComponentMap;
@@ -69,11 +73,13 @@ import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityDataType;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityMetadataProvider;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityMetadataStore;
 import com.github.retrooper.packetevents.protocol.entity.villager.VillagerData;
 import com.github.retrooper.packetevents.protocol.item.ItemStack;
 import com.github.retrooper.packetevents.protocol.item.type.ItemType;
 import com.github.retrooper.packetevents.protocol.item.type.ItemTypes;
 import com.github.retrooper.packetevents.protocol.mapper.MappedEntity;
+import com.github.retrooper.packetevents.protocol.nbt.LazyNBT;
 import com.github.retrooper.packetevents.protocol.nbt.NBT;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
 import com.github.retrooper.packetevents.protocol.nbt.NBTLimiter;
@@ -143,6 +149,17 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     private static final int MODERN_MESSAGE_LENGTH = 262144;
     private static final int LEGACY_MESSAGE_LENGTH = 32767;
 
+    // Part of the original buffer which hasn't been modified since reading it, see #readSection
+    @Nullable
+    private Object sectionSource;
+    private int sectionStart;
+    private int sectionEnd;
+    // Whether the section was skipped and still has to be read
+    private boolean sectionSkipped;
+    // The event whose buffer the section points into, it detaches us before its buffer goes away
+    @Nullable
+    private ProtocolPacketEvent sectionEvent;
+
     public PacketWrapper(ClientVersion clientVersion, ServerVersion serverVersion, int packetID) {
         if (packetID == -1) {
             throw new IllegalArgumentException("Packet does not exist on this protocol version!");
@@ -211,6 +228,10 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         return wrapper;
     }
 
+    public static int getVarIntSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
     public static int getChunkX(long chunkKey) {
         return (int) (chunkKey & 0xFFFFFFFFL);
     }
@@ -274,11 +295,189 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         if (last != null) {
             copy((T) last);
         } else {
-            read();
+            PacketMetrics metrics = PacketEvents.getAPI().getMetrics();
+            PacketFlightRecorder recorder = PacketFlightRecorder.get();
+            Object flightEvent = recorder.beginDecode();
+            int bytes = flightEvent != null ? ByteBufHelper.readableBytes(this.buffer) : 0;
+            if (metrics.isEnabled() && event.getPacketType() != null) {
+                long start = System.nanoTime();
+                read();
+                metrics.recordDecode(event.getPacketType(), System.nanoTime() - start);
+            } else {
+                read();
+            }
+            if (flightEvent != null) {
+                recorder.commitDecode(flightEvent, event.getPacketType(), event.getUser(), bytes);
+            }
+        }
+        this.attachSection(event);
+        event.setLastUsedWrapper(this);
+    }
+
+    /**
+     * Same as {@link #readEvent(ProtocolPacketEvent)}, but only reads what {@link #readLazily()} reads.
+     */
+    public final void readEventLazily(ProtocolPacketEvent event) {
+        PacketWrapper<?> last = event.getLastUsedWrapper();
+        if (last != null) {
+            copy((T) last);
+        } else {
+            readLazily();
         }
+        this.attachSection(event);
         event.setLastUsedWrapper(this);
     }
 
+    /**
+     * Reads only the cheap fields of this packet and skips the rest of it using {@link #skipLazySection()}.
+     * The skipped part is decoded once any of its fields are accessed, or written back verbatim when
+     * the packet is re-encoded without ever being decoded.
+     * <p>
+     * Wrappers which don't support lazy reading read the whole packet.
+     */
+    public void readLazily() {
+        read();
+    }
+
+    /**
+     * Reads a section of the packet using the specified reader and remembers its position in the buffer.
+     * As long as {@link #modifySection(Runnable)} isn't called, the section is written back
+     * by {@link #writeUnmodifiedSection(int, Runnable)} by copying its bytes instead of encoding it again.
+     */
+    protected final void readSection(Runnable reader) {
+        this.sectionStart = ByteBufHelper.readerIndex(buffer);
+        reader.run();
+        this.sectionEnd = ByteBufHelper.readerIndex(buffer);
+        this.sectionSource = buffer;
+        this.sectionSkipped = false;
+    }
+
+    /**
+     * Skips all remaining bytes of the buffer as the section, it is read once {@link #readLazySection(Runnable)}
+     * or {@link #modifySection(Runnable)} is called.
+     */
+    protected final void skipLazySection() {
+        this.sectionSource = buffer;
+        this.sectionStart = ByteBufHelper.readerIndex(buffer);
+        this.sectionEnd = ByteBufHelper.writerIndex(buffer);
+        this.sectionSkipped = true;
+        ByteBufHelper.readerIndex(buffer, this.sectionEnd);
+    }
+
+    /**
+     * @return whether the section can be written back without encoding it again
+     */
+    protected final boolean hasUnmodifiedSection() {
+        return this.sectionSource != null;
+    }
+
+    /**
+     * Reads the skipped section using the specified reader, if it hasn't been read yet.
+     */
+    protected final void readLazySection(Runnable reader) {
+        if (!this.sectionSkipped) {
+            return;
+        }
+        this.sectionSkipped = false;
+        Object source = this.sectionSource;
+        Object previousBuffer = this.buffer;
+        int readerIndex = ByteBufHelper.readerIndex(source);
+        this.buffer = source;
+        ByteBufHelper.readerIndex(source, this.sectionStart);
+        try {
+            reader.run();
+        } finally {
+            ByteBufHelper.readerIndex(source, readerIndex);
+            this.buffer = previousBuffer;
+        }
+    }
+
+    /**
+     * Reads the skipped section if needed and marks it as modified, so it will be encoded again.
+     * Has to be called before changing any of the fields of the section, or before handing out mutable parts of it.
+     */
+    protected final void modifySection(Runnable reader) {
+        readLazySection(reader);
+        this.sectionSource = null;
+    }
+
+    /**
+     * Takes over the section of the specified wrapper, used when copying.
+     */
+    protected final void copySection(PacketWrapper<?> wrapper) {
+        this.sectionSource = wrapper.sectionSource;
+        this.sectionStart = wrapper.sectionStart;
+        this.sectionEnd = wrapper.sectionEnd;
+        this.sectionSkipped = wrapper.sectionSkipped;
+        if (wrapper.sectionEvent != null && this.sectionEvent == null) {
+            this.sectionEvent = wrapper.sectionEvent;
+            this.sectionEvent.addSectionWrapper(this);
+        }
+    }
+
+    private void attachSection(ProtocolPacketEvent event) {
+        if (this.sectionSource != null && this.sectionEvent == null) {
+            this.sectionEvent = event;
+            event.addSectionWrapper(this);
+        }
+    }
+
+    /**
+     * Stops pointing into the buffer of the event this wrapper was read from, as the buffer is
+     * released or reused once the event has been handled. A section which hasn't been read yet
+     * is copied, a section which has been read is encoded again when writing this wrapper.
+     */
+    @ApiStatus.Internal
+    public final void detachSection() {
+        this.sectionEvent = null;
+        Object source = this.sectionSource;
+        if (source == null) {
+            return;
+        }
+        if (this.sectionSkipped) {
+            byte[] bytes = new byte[this.sectionEnd - this.sectionStart];
+            ByteBufHelper.getBytes(source, this.sectionStart, bytes);
+            this.sectionSource = UnpooledByteBufAllocationHelper.wrappedBuffer(bytes);
+            this.sectionStart = 0;
+            this.sectionEnd = bytes.length;
+        } else {
+            this.sectionSource = null;
+        }
+    }
+
+    /**
+     * Writes the fields in front of the section using the prefix writer,
+     * followed by the unmodified section itself without encoding it again.
+     *
+     * @param prefixLength amount of bytes the prefix writer is going to write
+     * @param prefixWriter writes the fields which were read before the section
+     */
+    protected final void writeUnmodifiedSection(int prefixLength, Runnable prefixWriter) {
+        Object source = this.sectionSource;
+        if (source == null) {
+            throw new IllegalStateException("There is no unmodified section to write");
+        }
+        // When re-encoding into the original buffer, the section usually still is at its original position
+        if (source == this.buffer && ByteBufHelper.writerIndex(this.buffer) + prefixLength == this.sectionStart) {
+            prefixWriter.run();
+            if (ByteBufHelper.writerIndex(this.buffer) != this.sectionStart) {
+                throw new IllegalStateException("Expected a prefix of " + prefixLength + " bytes, but "
+                        + (ByteBufHelper.writerIndex(this.buffer) - this.sectionStart + prefixLength) + " bytes were written");
+            }
+            ByteBufHelper.writerIndex(this.buffer, this.sectionEnd);
+        } else {
+            byte[] bytes = new byte[this.sectionEnd - this.sectionStart];
+            ByteBufHelper.getBytes(source, this.sectionStart, bytes);
+            prefixWriter.run();
+            ByteBufHelper.writeBytes(this.buffer, bytes);
+            if (source == this.buffer) {
+                // the section has been moved by a prefix of a different length, keep pointing at it
+                this.sectionEnd = ByteBufHelper.writerIndex(this.buffer);
+                this.sectionStart = this.sectionEnd - bytes.length;
+            }
+        }
+    }
+
     public ClientVersion getClientVersion() {
         return clientVersion;
     }
@@ -387,18 +586,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public int readVarInt() {
-        int value = 0;
-        int length = 0;
-        byte currentByte;
-        do {
-            currentByte = readByte();
-            value |= (currentByte & 0x7F) << (length * 7);
-            length++;
-            if (length > 5) {
-                throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
-            }
-        } while ((currentByte & 0x80) == 0x80);
-        return value;
+        return ByteBufHelper.readVarInt(buffer);
     }
 
     public void writeVarInt(int value) {
@@ -473,9 +661,17 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         int presentCount = this.readVarInt();
         int absentCount = this.readVarInt();
         if (presentCount == 0 && absentCount == 0) {
-            return ItemStack.builder().type(itemType).amount(count).build();
+            return ItemStack.of(itemType, count, null);
         }
 
+        // identical patches are usually sent over and over again, try to reuse the ones decoded before
+        Map<ComponentType<?>, Optional<?>> interned = ComponentPatchCache.read(
+                this.buffer, this.serverVersion, itemType, presentCount, absentCount);
+        if (interned != null) {
+            return ItemStack.of(itemType, count, PatchableComponentMap.shared(itemType.getComponents(), interned));
+        }
+
+        int start = ByteBufHelper.readerIndex(this.buffer);
         PatchableComponentMap components = new PatchableComponentMap(
                 itemType.getComponents(), new HashMap<>(4));
         for (int i = 0; i < presentCount; i++) {
@@ -485,8 +681,13 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         for (int i = 0; i < absentCount; i++) {
             components.unset(this.readMappedEntity(ComponentTypes.getRegistry()));
         }
+        if (ComponentPatchCache.store(this.buffer, start, this.serverVersion, itemType,
+                presentCount, absentCount, components.peekPatches())) {
+            // the patches are shared with the cache now, so they must be copied before being modified
+            components = PatchableComponentMap.shared(itemType.getComponents(), components.peekPatches());
+        }
 
-        return ItemStack.builder().type(itemType).amount(count).components(components).build();
+        return ItemStack.of(itemType, count, components);
     }
 
     public ItemStack readPresentItemStack() {
@@ -540,7 +741,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         }
 
         // write component patch counts
-        Map<ComponentType<?>, Optional<?>> allPatches = itemStack.getComponents().getPatches();
+        Map<ComponentType<?>, Optional<?>> allPatches = itemStack.getComponents().peekPatches();
         int presentCount = 0, absentCount = 0;
         for (Map.Entry<ComponentType<?>, Optional<?>> patch : allPatches.entrySet()) {
             if (patch.getValue().isPresent()) {
@@ -625,6 +826,24 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         return NBTCodec.readNBTFromBuffer(buffer, serverVersion, NBTLimiter.noop());
     }
 
+    /**
+     * Moves past the next NBT tag without parsing it, the size limits are still checked.
+     */
+    public void skipNBT() {
+        NBTCodec.skipNBTFromBuffer(buffer, serverVersion, NBTLimiter.forBuffer(buffer));
+    }
+
+    /**
+     * Reads the next NBT tag without parsing it, see {@link LazyNBT}.
+     */
+    public LazyNBT readLazyNBT() {
+        return NBTCodec.readLazyNBTFromBuffer(buffer, serverVersion, NBTLimiter.forBuffer(buffer));
+    }
+
+    public void writeLazyNBT(LazyNBT nbt) {
+        NBTCodec.writeLazyNBTToBuffer(buffer, serverVersion, nbt);
+    }
+
     public void writeNBT(NBTCompound nbt) {
         this.writeNBTRaw(nbt);
     }
@@ -645,8 +864,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         } else if (j < 0) {
             throw new RuntimeException("The received encoded string buffer length is less than zero! Weird string!");
         } else {
-            String s = ByteBufHelper.toString(buffer, ByteBufHelper.readerIndex(buffer), j, StandardCharsets.UTF_8);
-            ByteBufHelper.readerIndex(buffer, ByteBufHelper.readerIndex(buffer) + j);
+            String s = ByteBufHelper.readString(buffer, j, StandardCharsets.UTF_8);
             if (s.length() > maxLen) {
                 throw new RuntimeException("The received string length is longer than maximum allowed (" + j + " > " + maxLen + ")");
             } else {
@@ -786,13 +1004,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public long readVarLong() {
-        long value = 0;
-        int size = 0;
-        int b;
-        while (((b = readByte()) & 0x80) == 0x80) {
-            value |= (long) (b & 0x7F) << (size++ * 7);
-        }
-        return value | ((long) (b & 0x7F) << (size * 7));
+        return ByteBufHelper.readVarLong(buffer);
     }
 
     public void writeVarLong(long l) {
@@ -874,10 +1086,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
 
     public long[] readLongArray(int size) {
         long[] array = new long[size];
-
-        for (int i = 0; i < array.length; i++) {
-            array[i] = readLong();
-        }
+        ByteBufHelper.readLongs(buffer, array);
         return array;
     }
 
@@ -912,10 +1121,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
             throw new IllegalStateException("LongArray with size " + size + " is bigger than allowed " + readableBytes);
         }
         long[] array = new long[size];
-
-        for (int i = 0; i < array.length; i++) {
-            array[i] = readLong();
-        }
+        ByteBufHelper.readLongs(buffer, array);
         return array;
     }
 
@@ -1015,6 +1221,14 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         writeEntityMetadata(metadata.entityData(serverVersion.toClientVersion()));
     }
 
+    public EntityMetadataStore readEntityMetadataStore() {
+        return EntityMetadataStore.read(this);
+    }
+
+    public void writeEntityMetadata(EntityMetadataStore metadata) {
+        EntityMetadataStore.write(this, metadata);
+    }
+
     @Deprecated
     public Dimension readDimension() {
         if (this.serverVersion.isNewerThanOrEquals(ServerVersion.V_1_20_5)) {
@@ -21,6 +21,7 @@ package com.github.retrooper.packetevents.wrapper.play.server;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.nbt.LazyNBT;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.world.TileEntityType;
@@ -33,7 +34,7 @@ public class WrapperPlayServerBlockEntityData extends PacketWrapper<WrapperPlayS
 
     private Vector3i position;
     private BlockEntityType type;
-    private NBTCompound nbt;
+    private LazyNBT nbt;
 
     public WrapperPlayServerBlockEntityData(PacketSendEvent event) {
         super(event);
@@ -53,7 +54,7 @@ public class WrapperPlayServerBlockEntityData extends PacketWrapper<WrapperPlayS
         super(PacketType.Play.Server.BLOCK_ENTITY_DATA);
         this.position = position;
         this.type = type;
-        this.nbt = nbt;
+        this.nbt = LazyNBT.of(nbt);
     }
 
     @Override
@@ -62,7 +63,8 @@ public class WrapperPlayServerBlockEntityData extends PacketWrapper<WrapperPlayS
         int typeId = this.serverVersion.isNewerThanOrEquals(ServerVersion.V_1_18)
                 ? this.readVarInt() : this.readUnsignedByte();
         this.type = BlockEntityTypes.getById(this.serverVersion.toClientVersion(), typeId);
-        this.nbt = this.readNBT();
+        // only parsed when accessed, otherwise written back as is
+        this.nbt = this.readLazyNBT();
     }
 
     @Override
@@ -74,7 +76,7 @@ public class WrapperPlayServerBlockEntityData extends PacketWrapper<WrapperPlayS
         } else {
             this.writeByte(typeId);
         }
-        this.writeNBT(this.nbt);
+        this.writeLazyNBT(this.nbt);
     }
 
     @Override
@@ -121,11 +123,11 @@ public class WrapperPlayServerBlockEntityData extends PacketWrapper<WrapperPlayS
     }
 
     public NBTCompound getNBT() {
-        return nbt;
+        return (NBTCompound) nbt.getNBT();
     }
 
     public void setNBT(NBTCompound nbt) {
-        this.nbt = nbt;
+        this.nbt = LazyNBT.of(nbt);
     }
 
 }
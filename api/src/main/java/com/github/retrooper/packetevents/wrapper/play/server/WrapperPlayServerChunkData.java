@@ -20,12 +20,15 @@ package com.github.retrooper.packetevents.wrapper.play.server;
 
 import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.stream.NetBufferInput;
 import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
 import com.github.retrooper.packetevents.protocol.stream.NetStreamOutput;
 import com.github.retrooper.packetevents.protocol.world.chunk.BaseChunk;
 import com.github.retrooper.packetevents.protocol.world.chunk.ChunkBitMask;
+import com.github.retrooper.packetevents.protocol.world.chunk.ChunkColumnCache;
 import com.github.retrooper.packetevents.protocol.world.chunk.Column;
 import com.github.retrooper.packetevents.protocol.world.chunk.LightData;
 import com.github.retrooper.packetevents.protocol.world.chunk.NetworkChunkData;
@@ -41,15 +44,15 @@ import com.github.retrooper.packetevents.protocol.world.chunk.reader.impl.ChunkR
 import com.github.retrooper.packetevents.protocol.world.chunk.reader.impl.ChunkReader_v1_8;
 import com.github.retrooper.packetevents.protocol.world.chunk.reader.impl.ChunkReader_v1_9;
 import com.github.retrooper.packetevents.protocol.world.dimension.DimensionTypes;
+import com.github.retrooper.packetevents.util.ZlibUtil;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.function.Consumer;
 import java.util.zip.DataFormatException;
-import java.util.zip.Deflater;
-import java.util.zip.Inflater;
 
 public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerChunkData> {
     private static ChunkReader_v1_7 chunkReader_v1_7 = new ChunkReader_v1_7();
@@ -62,11 +65,45 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
     // 1.18 only (lighting) - for writing data
     private LightData lightData;
     private boolean ignoreOldData;
+    // Only used until the column has been read
+    private int chunkX;
+    private int chunkZ;
+    // Only set when reading with a cache
+    @Nullable
+    private ChunkColumnCache cache;
+    // The cached column, as long as the column is still unmodified
+    @Nullable
+    private ChunkColumnCache.Entry cacheEntry;
+    // The cached rewrite, as long as the column hasn't been modified after rewriting it
+    @Nullable
+    private ChunkColumnCache.Rewrite cachedRewrite;
 
     public WrapperPlayServerChunkData(PacketSendEvent event) {
         super(event);
     }
 
+    /**
+     * Reads the column using the specified cache, so identical chunks sent to many players are only decoded once.
+     * Use {@link #rewriteColumn(Object, Consumer)} to also only rewrite and encode them once per client version.
+     */
+    public WrapperPlayServerChunkData(PacketSendEvent event, ChunkColumnCache cache) {
+        super(event, false);
+        this.cache = cache;
+        readEvent(event);
+    }
+
+    /**
+     * If lazy, only the chunk coordinates are read immediately. The rest of the packet is read
+     * once it's accessed, or written back without ever being read if it isn't accessed.
+     * Accessing it has to happen while the event is being processed.
+     */
+    public WrapperPlayServerChunkData(PacketSendEvent event, boolean lazy) {
+        super(event, !lazy);
+        if (lazy) {
+            readEventLazily(event);
+        }
+    }
+
     public WrapperPlayServerChunkData(Column column) {
         this(column, null, false);
     }
@@ -84,9 +121,52 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
 
     @Override
     public void read() {
-        int chunkX = readInt();
-        int chunkZ = readInt();
+        this.chunkX = readInt();
+        this.chunkZ = readInt();
+        readSection(this::readColumn);
+    }
+
+    @Override
+    public void readLazily() {
+        this.chunkX = readInt();
+        this.chunkZ = readInt();
+        skipLazySection();
+    }
+
+    private void readSkipped() {
+        readLazySection(this::readColumn);
+    }
+
+    private void modifySkipped() {
+        modifySection(this::readColumn);
+    }
+
+    private void readColumn() {
+        ChunkColumnCache cache = this.cache;
+        if (cache == null || this.user == null) {
+            decodeColumn();
+            return;
+        }
+        // The column always spans the rest of the packet
+        int start = ByteBufHelper.readerIndex(buffer);
+        int length = ByteBufHelper.readableBytes(buffer);
+        ChunkColumnCache.Key key = cache.createKey(this.user.getDimensionType(), this.user.getTotalWorldHeight(),
+                this.chunkX, this.chunkZ, buffer, start, length);
+        ChunkColumnCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            ByteBufHelper.readerIndex(buffer, start + length);
+        } else {
+            decodeColumn();
+            entry = cache.put(key, this.column, this.lightData, this.ignoreOldData);
+        }
+        this.column = Column.shared(entry.getColumn());
+        this.lightData = entry.getLightData() != null ? entry.getLightData().clone() : null;
+        this.ignoreOldData = entry.isIgnoreOldData();
+        this.cacheEntry = entry;
+        this.cachedRewrite = null;
+    }
 
+    private void decodeColumn() {
         // All chunks are full chunks in 1.17 and above to avoid issues with arbitrary world height
         boolean checkFullChunk = serverVersion.isOlderThan(ServerVersion.V_1_17);
         // Don't read a boolean if there isn't a boolean to be read
@@ -145,8 +225,20 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
             }
         }
 
-        byte[] data = readByteArray();
-        data = deflate(data, chunkMask, fullChunk);
+        byte[] data;
+        NetStreamInput dataIn;
+        if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_18)) {
+            // Decode the sections straight from the packet buffer instead of copying them out first
+            int length = readVarInt();
+            int readerIndex = ByteBufHelper.readerIndex(buffer);
+            dataIn = new NetBufferInput(ByteBufHelper.nioBuffer(buffer, readerIndex, length));
+            ByteBufHelper.readerIndex(buffer, readerIndex + length);
+            data = null;
+        } else {
+            data = deflate(readByteArray(), chunkMask, fullChunk);
+            // 1.7/1.8 don't use this NetStreamInput
+            dataIn = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9) ? new NetBufferInput(data) : null;
+        }
 
         boolean hasBlocklight = (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_16) || serverVersion.isOlderThan(ServerVersion.V_1_14))
                 && !serverVersion.isOlderThanOrEquals(ServerVersion.V_1_8_8);
@@ -155,8 +247,6 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
                 || this.user != null && this.user.getDimensionType().equals(DimensionTypes.OVERWORLD)
                 && this.serverVersion.isOlderThan(ServerVersion.V_1_14);
 
-        // 1.7/1.8 don't use this NetStreamInput
-        NetStreamInput dataIn = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9) ? new NetStreamInput(new ByteArrayInputStream(data)) : null;
         BaseChunk[] chunks = getChunkReader().read(this.user.getDimensionType(), chunkMask, secondaryChunkMask, fullChunk, hasBlocklight, checkForSky, chunkSize, data, dataIn);
 
         if (hasBiomeData && serverVersion.isOlderThan(ServerVersion.V_1_15)) {
@@ -241,15 +331,10 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
 
         byte[] data = new byte[len];
         // Inflate chunk data.
-        Inflater inflater = new Inflater();
-        inflater.setInput(toDeflate, 0, toDeflate.length);
-
         try {
-            inflater.inflate(data);
+            ZlibUtil.inflate(toDeflate, toDeflate.length, data);
         } catch (DataFormatException e) {
             e.printStackTrace();
-        } finally {
-            inflater.end();
         }
 
         return data;
@@ -257,9 +342,34 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
 
     @Override
     public void write() {
+        if (hasUnmodifiedSection()) {
+            writeUnmodifiedSection(8, () -> {
+                writeInt(this.chunkX);
+                writeInt(this.chunkZ);
+            });
+            return;
+        }
         writeInt(column.getX());
         writeInt(column.getZ());
 
+        ChunkColumnCache.Rewrite rewrite = this.cachedRewrite;
+        if (rewrite == null) {
+            writeColumn();
+            return;
+        }
+        byte[] encoded = rewrite.getEncoded();
+        if (encoded != null) {
+            ByteBufHelper.writeBytes(buffer, encoded);
+            return;
+        }
+        int start = ByteBufHelper.writerIndex(buffer);
+        writeColumn();
+        encoded = new byte[ByteBufHelper.writerIndex(buffer) - start];
+        ByteBufHelper.getBytes(buffer, start, encoded);
+        rewrite.setEncoded(encoded);
+    }
+
+    private void writeColumn() {
         boolean v1_18 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_18);
         boolean v1_17 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_17);
         boolean v1_9 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9);
@@ -285,7 +395,7 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
         NetStreamOutput dataOut = new NetStreamOutput(dataBytes);
 
         BitSet chunkMask = new BitSet();
-        BaseChunk[] chunks = column.getChunks();
+        BaseChunk[] chunks = column.peekChunks();
 
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9)) {
             for (int index = 0; index < chunks.length; index++) {
@@ -304,17 +414,8 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
             return;
         } else {
             NetworkChunkData data = ChunkReader_v1_7.chunksToData((Chunk_v1_7[]) chunks, column.getBiomeDataBytes());
-            Deflater deflater = new Deflater(-1);
-
             byte deflated[] = new byte[data.getData().length];
-            int len = deflated.length;
-            try {
-                deflater.setInput(data.getData(), 0, data.getData().length);
-                deflater.finish();
-                len = deflater.deflate(deflated);
-            } finally {
-                deflater.end();
-            }
+            int len = ZlibUtil.deflate(data.getData(), data.getData().length, deflated);
             writeShort(data.getMask());
             writeShort(data.getExtendedChunkMask());
             writeInt(len);
@@ -404,36 +505,106 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
 
     @Override
     public void copy(WrapperPlayServerChunkData wrapper) {
+        copySection(wrapper);
+        this.chunkX = wrapper.chunkX;
+        this.chunkZ = wrapper.chunkZ;
         this.column = wrapper.column;
         this.lightData = wrapper.lightData != null
                 ? wrapper.lightData.clone() : null;
         this.ignoreOldData = wrapper.ignoreOldData;
+        if (this.cache == null) {
+            this.cache = wrapper.cache;
+        }
+        // The cached column and rewrite only belong to this wrapper if it uses the same cache
+        if (this.cache == wrapper.cache) {
+            this.cacheEntry = wrapper.cacheEntry;
+            this.cachedRewrite = wrapper.cachedRewrite;
+        } else {
+            this.cacheEntry = null;
+            this.cachedRewrite = null;
+        }
     }
 
+    public int getChunkX() {
+        return column != null ? column.getX() : chunkX;
+    }
+
+    public int getChunkZ() {
+        return column != null ? column.getZ() : chunkZ;
+    }
+
+    /**
+     * The column is mutable, so accessing it causes the packet to be encoded again when re-encoding.
+     * If only the coordinates are needed, use {@link #getChunkX()} and {@link #getChunkZ()} instead.
+     */
     public Column getColumn() {
+        modifyUncached();
         return column;
     }
 
     public void setColumn(Column column) {
+        modifyUncached();
         this.column = column;
     }
 
+    /**
+     * Rewrites the column using the specified rewriter. If the column was read using a {@link ChunkColumnCache},
+     * the rewritten column is cached under the key and the client version of the receiver, other packets
+     * with the same column then reuse the rewritten and encoded column instead of rewriting it again.
+     * <p>
+     * The rewrite must only depend on the column and the client version, as it isn't called again
+     * for other players. Only the first rewrite of a packet is cached, later ones are always called.
+     *
+     * @param key      identifies the rewrite, e.g. the instance of the rewriting listener
+     * @param rewriter modifies the column, preferably using {@link Column#modifyChunk(int)}
+     *                 to only copy the modified sections
+     */
+    public void rewriteColumn(Object key, Consumer<Column> rewriter) {
+        modifySkipped();
+        ChunkColumnCache.Entry entry = this.cacheEntry;
+        if (entry == null) {
+            modifyUncached();
+            rewriter.accept(column);
+            return;
+        }
+        this.cacheEntry = null;
+        ChunkColumnCache.Rewrite rewrite = entry.getRewrite(key, clientVersion);
+        if (rewrite == null) {
+            rewriter.accept(column);
+            rewrite = entry.putRewrite(key, clientVersion, column);
+        }
+        // The cached rewrite must not be modified, so only hand out a shared copy of it
+        this.column = Column.shared(rewrite.getColumn());
+        this.cachedRewrite = rewrite;
+    }
+
     public LightData getLightData() {
+        modifyUncached();
         return lightData;
     }
 
     public void setLightData(LightData lightData) {
+        modifyUncached();
         this.lightData = lightData;
     }
 
     public boolean isIgnoreOldData() {
+        readSkipped();
         return ignoreOldData;
     }
 
     public void setIgnoreOldData(boolean ignoreOldData) {
+        modifyUncached();
         this.ignoreOldData = ignoreOldData;
     }
 
+    // Any modification outside of #rewriteColumn makes the cached column and rewrite unusable
+    private void modifyUncached() {
+        modifySkipped();
+        this.cacheEntry = null;
+        this.cachedRewrite = null;
+    }
+
     private ChunkReader getChunkReader() {
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_18)) {
             return chunkReader_v1_18;
@@ -26,14 +26,13 @@ import com.github.retrooper.packetevents.protocol.world.chunk.impl.v1_7.Chunk_v1
 import com.github.retrooper.packetevents.protocol.world.chunk.impl.v1_8.Chunk_v1_8;
 import com.github.retrooper.packetevents.protocol.world.chunk.reader.impl.ChunkReader_v1_7;
 import com.github.retrooper.packetevents.protocol.world.chunk.reader.impl.ChunkReader_v1_8;
+import com.github.retrooper.packetevents.util.ZlibUtil;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.zip.DataFormatException;
-import java.util.zip.Deflater;
-import java.util.zip.Inflater;
 
 // Credit to MCProtocolLib for this wrapper
 public class WrapperPlayServerChunkDataBulk extends PacketWrapper<WrapperPlayServerChunkDataBulk> {
@@ -92,15 +91,11 @@ public class WrapperPlayServerChunkDataBulk extends PacketWrapper<WrapperPlaySer
         byte[] deflatedBytes = readBytes(deflatedLength);
         // Inflate chunk data.
         byte[] inflated = new byte[196864 * columns];
-        Inflater inflater = new Inflater();
-        inflater.setInput(deflatedBytes, 0, deflatedLength);
         try {
-            inflater.inflate(inflated);
+            ZlibUtil.inflate(deflatedBytes, deflatedLength, inflated);
         } catch (DataFormatException e) {
             new IOException("Bad compressed data format").printStackTrace();
             return;
-        } finally {
-            inflater.end();
         }
 
         this.x = new int[columns];
@@ -218,16 +213,8 @@ public class WrapperPlayServerChunkDataBulk extends PacketWrapper<WrapperPlaySer
         }
 
         // Deflate chunk data.
-        Deflater deflater = new Deflater(-1);
         byte[] deflatedData = new byte[pos];
-        int deflatedLength = pos;
-        try {
-            deflater.setInput(bytes, 0, pos);
-            deflater.finish();
-            deflatedLength = deflater.deflate(deflatedData);
-        } finally {
-            deflater.end();
-        }
+        int deflatedLength = ZlibUtil.deflate(bytes, pos, deflatedData);
 
         // Write data to the network.
         writeShort(this.chunks.length);
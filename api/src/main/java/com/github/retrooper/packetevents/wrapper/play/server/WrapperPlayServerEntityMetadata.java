@@ -23,6 +23,7 @@ import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityMetadataProvider;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityMetadataStore;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 
@@ -30,7 +31,9 @@ import java.util.List;
 
 public class WrapperPlayServerEntityMetadata extends PacketWrapper<WrapperPlayServerEntityMetadata> {
     private int entityID;
+    // Only one of both is set, the metadata is converted to whichever representation is accessed
     private List<EntityData> entityMetadata;
+    private EntityMetadataStore metadataStore;
 
     public WrapperPlayServerEntityMetadata(PacketSendEvent event) {
         super(event);
@@ -42,6 +45,12 @@ public class WrapperPlayServerEntityMetadata extends PacketWrapper<WrapperPlaySe
         this.entityMetadata = entityMetadata;
     }
 
+    public WrapperPlayServerEntityMetadata(int entityID, EntityMetadataStore metadataStore) {
+        super(PacketType.Play.Server.ENTITY_METADATA);
+        this.entityID = entityID;
+        this.metadataStore = metadataStore;
+    }
+
     public WrapperPlayServerEntityMetadata(int entityID, EntityMetadataProvider metadata) {
         this(entityID, metadata.entityData(PacketEvents.getAPI().getServerManager().getVersion().toClientVersion()));
     }
@@ -49,23 +58,43 @@ public class WrapperPlayServerEntityMetadata extends PacketWrapper<WrapperPlaySe
     @Override
     public void read() {
         entityID = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8) ? readVarInt() : readInt();
-        entityMetadata = readEntityMetadata();
+        readSection(this::readMetadata);
+    }
+
+    private void readMetadata() {
+        metadataStore = readEntityMetadataStore();
+        entityMetadata = null;
     }
 
     @Override
     public void write() {
+        if (hasUnmodifiedSection()) {
+            int entityIdLength = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8) ? getVarIntSize(entityID) : 4;
+            writeUnmodifiedSection(entityIdLength, this::writeEntityId);
+            return;
+        }
+        writeEntityId();
+        if (metadataStore != null) {
+            writeEntityMetadata(metadataStore);
+        } else {
+            writeEntityMetadata(entityMetadata);
+        }
+    }
+
+    private void writeEntityId() {
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8)) {
             writeVarInt(entityID);
         } else {
             writeInt(entityID);
         }
-        writeEntityMetadata(entityMetadata);
     }
 
     @Override
     public void copy(WrapperPlayServerEntityMetadata wrapper) {
+        copySection(wrapper);
         entityID = wrapper.entityID;
         entityMetadata = wrapper.entityMetadata;
+        metadataStore = wrapper.metadataStore;
     }
 
     public int getEntityId() {
@@ -76,15 +105,48 @@ public class WrapperPlayServerEntityMetadata extends PacketWrapper<WrapperPlaySe
         this.entityID = entityID;
     }
 
+    /**
+     * Gets the metadata as a list. Stores previously returned by {@link #getMetadataStore()} are no longer
+     * written once this is called, modifying them throws an {@link IllegalStateException}.
+     */
     public List<EntityData> getEntityMetadata() {
+        modifySection(this::readMetadata);
+        if (metadataStore != null) {
+            entityMetadata = metadataStore.toList();
+            metadataStore.detach();
+            metadataStore = null;
+        }
         return entityMetadata;
     }
 
     public void setEntityMetadata(List<EntityData> entityMetadata) {
+        modifySection(this::readMetadata);
         this.entityMetadata = entityMetadata;
+        this.metadataStore = null;
     }
 
     public void setEntityMetadata(EntityMetadataProvider metadata) {
+        modifySection(this::readMetadata);
         this.entityMetadata = metadata.entityData(serverVersion.toClientVersion());
+        this.metadataStore = null;
+    }
+
+    /**
+     * Gets the metadata as a store, which can be edited in place without boxing primitive values.
+     * Lists previously returned by {@link #getEntityMetadata()} are no longer written once this is called.
+     */
+    public EntityMetadataStore getMetadataStore() {
+        modifySection(this::readMetadata);
+        if (metadataStore == null) {
+            metadataStore = EntityMetadataStore.of(entityMetadata);
+            entityMetadata = null;
+        }
+        return metadataStore;
+    }
+
+    public void setMetadataStore(EntityMetadataStore metadataStore) {
+        modifySection(this::readMetadata);
+        this.metadataStore = metadataStore;
+        this.entityMetadata = null;
     }
 }
@@ -71,6 +71,18 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
         super(event);
     }
 
+    /**
+     * If lazy, only the entity id is read immediately. The rest of the packet is read
+     * once it's accessed, or written back without ever being read if it isn't accessed.
+     * Accessing it has to happen while the event is being processed.
+     */
+    public WrapperPlayServerJoinGame(PacketSendEvent event, boolean lazy) {
+        super(event, !lazy);
+        if (lazy) {
+            readEventLazily(event);
+        }
+    }
+
     @Deprecated
     public WrapperPlayServerJoinGame(
             int entityID, boolean hardcore, GameMode gameMode,
@@ -272,6 +284,24 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     @Override
     public void read() {
         entityID = readInt();
+        readSection(this::readSkippable);
+    }
+
+    @Override
+    public void readLazily() {
+        entityID = readInt();
+        skipLazySection();
+    }
+
+    private void readSkipped() {
+        readLazySection(this::readSkippable);
+    }
+
+    private void modifySkipped() {
+        modifySection(this::readSkippable);
+    }
+
+    private void readSkippable() {
         boolean v1_20_2 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_20_2);
         boolean v1_19 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_19);
         boolean v1_18 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_18);
@@ -361,6 +391,10 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
 
     @Override
     public void write() {
+        if (hasUnmodifiedSection()) {
+            writeUnmodifiedSection(4, () -> writeInt(entityID));
+            return;
+        }
         writeInt(entityID);
         boolean v1_20_2 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_20_2);
         boolean v1_19 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_19);
@@ -466,6 +500,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
 
     @Override
     public void copy(WrapperPlayServerJoinGame wrapper) {
+        copySection(wrapper);
         entityID = wrapper.entityID;
         hardcore = wrapper.hardcore;
         gameMode = wrapper.gameMode;
@@ -499,190 +534,236 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public boolean isHardcore() {
+        readSkipped();
         return hardcore;
     }
 
     public void setHardcore(boolean hardcore) {
+        modifySkipped();
         this.hardcore = hardcore;
     }
 
     public GameMode getGameMode() {
+        readSkipped();
         return gameMode;
     }
 
     public void setGameMode(GameMode gameMode) {
+        modifySkipped();
         this.gameMode = gameMode;
     }
 
     @Nullable
     public GameMode getPreviousGameMode() {
+        readSkipped();
         return previousGameMode;
     }
 
     public void setPreviousGameMode(@Nullable GameMode previousGameMode) {
+        modifySkipped();
         this.previousGameMode = previousGameMode;
     }
 
     public List<String> getWorldNames() {
+        modifySkipped();
         return worldNames;
     }
 
     public void setWorldNames(List<String> worldNames) {
+        modifySkipped();
         this.worldNames = worldNames;
     }
 
     public NBTCompound getDimensionCodec() {
+        modifySkipped();
         return dimensionCodec;
     }
 
     public void setDimensionCodec(NBTCompound dimensionCodec) {
+        modifySkipped();
         this.dimensionCodec = dimensionCodec;
     }
 
     public DimensionTypeRef getDimensionTypeRef() {
+        readSkipped();
         return this.dimensionTypeRef;
     }
 
     public void setDimensionTypeRef(DimensionTypeRef dimensionTypeRef) {
+        modifySkipped();
         this.dimensionTypeRef = dimensionTypeRef;
     }
 
     public DimensionType getDimensionType() {
+        readSkipped();
         IRegistry<DimensionType> registry = this.getRegistryHolder().getRegistryOr(DimensionTypes.getRegistry());
         return this.dimensionTypeRef.resolve(registry, this.serverVersion.toClientVersion());
     }
 
     public void setDimensionType(DimensionType dimensionType) {
+        modifySkipped();
         this.dimensionTypeRef = dimensionType.asRef(this.serverVersion.toClientVersion());
     }
 
     @Deprecated
     public Dimension getDimension() {
+        readSkipped();
         return Dimension.fromDimensionTypeRef(this.dimensionTypeRef);
     }
 
     @Deprecated
     public void setDimension(Dimension dimension) {
+        modifySkipped();
         this.dimensionTypeRef = dimension.asDimensionTypeRef();
     }
 
     public Difficulty getDifficulty() {
+        readSkipped();
         return difficulty;
     }
 
     public void setDifficulty(Difficulty difficulty) {
+        modifySkipped();
         this.difficulty = difficulty;
     }
 
     public String getWorldName() {
+        readSkipped();
         return worldName;
     }
 
     public void setWorldName(String worldName) {
+        modifySkipped();
         this.worldName = worldName;
     }
 
     public long getHashedSeed() {
+        readSkipped();
         return hashedSeed;
     }
 
     public void setHashedSeed(long hashedSeed) {
+        modifySkipped();
         this.hashedSeed = hashedSeed;
     }
 
     public int getMaxPlayers() {
+        readSkipped();
         return maxPlayers;
     }
 
     public void setMaxPlayers(int maxPlayers) {
+        modifySkipped();
         this.maxPlayers = maxPlayers;
     }
 
     public int getViewDistance() {
+        readSkipped();
         return viewDistance;
     }
 
     public void setViewDistance(int viewDistance) {
+        modifySkipped();
         this.viewDistance = viewDistance;
     }
 
     public int getSimulationDistance() {
+        readSkipped();
         return simulationDistance;
     }
 
     public void setSimulationDistance(int simulationDistance) {
+        modifySkipped();
         this.simulationDistance = simulationDistance;
     }
 
     public boolean isReducedDebugInfo() {
+        readSkipped();
         return reducedDebugInfo;
     }
 
     public void setReducedDebugInfo(boolean reducedDebugInfo) {
+        modifySkipped();
         this.reducedDebugInfo = reducedDebugInfo;
     }
 
     public boolean isRespawnScreenEnabled() {
+        readSkipped();
         return enableRespawnScreen;
     }
 
     public void setRespawnScreenEnabled(boolean enableRespawnScreen) {
+        modifySkipped();
         this.enableRespawnScreen = enableRespawnScreen;
     }
 
     public boolean isLimitedCrafting() {
+        readSkipped();
         return this.limitedCrafting;
     }
 
     public void setLimitedCrafting(boolean limitedCrafting) {
+        modifySkipped();
         this.limitedCrafting = limitedCrafting;
     }
 
     public boolean isDebug() {
+        readSkipped();
         return isDebug;
     }
 
     public void setDebug(boolean isDebug) {
+        modifySkipped();
         this.isDebug = isDebug;
     }
 
     public boolean isFlat() {
+        readSkipped();
         return isFlat;
     }
 
     public void setFlat(boolean isFlat) {
+        modifySkipped();
         this.isFlat = isFlat;
     }
 
     public @Nullable WorldBlockPosition getLastDeathPosition() {
+        readSkipped();
         return lastDeathPosition;
     }
 
     public void setLastDeathPosition(@Nullable WorldBlockPosition lastDeathPosition) {
+        modifySkipped();
         this.lastDeathPosition = lastDeathPosition;
     }
 
     public Optional<Integer> getPortalCooldown() {
+        readSkipped();
         return Optional.ofNullable(portalCooldown);
     }
 
     public void setPortalCooldown(int portalCooldown) {
+        modifySkipped();
         this.portalCooldown = portalCooldown;
     }
 
     public int getSeaLevel() {
+        readSkipped();
         return this.seaLevel;
     }
 
     public void setSeaLevel(int seaLevel) {
+        modifySkipped();
         this.seaLevel = seaLevel;
     }
 
     public boolean isEnforcesSecureChat() {
+        readSkipped();
         return this.enforcesSecureChat;
     }
 
     public void setEnforcesSecureChat(boolean enforcesSecureChat) {
+        modifySkipped();
         this.enforcesSecureChat = enforcesSecureChat;
     }
 }
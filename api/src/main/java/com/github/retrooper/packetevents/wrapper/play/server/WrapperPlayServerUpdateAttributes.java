@@ -75,6 +75,18 @@ public class WrapperPlayServerUpdateAttributes extends PacketWrapper<WrapperPlay
         super(event);
     }
 
+    /**
+     * If lazy, only the entity id is read immediately. The properties are read once they're
+     * accessed, or written back without ever being read if they aren't accessed.
+     * Accessing them has to happen while the event is being processed.
+     */
+    public WrapperPlayServerUpdateAttributes(PacketSendEvent event, boolean lazy) {
+        super(event, !lazy);
+        if (lazy) {
+            readEventLazily(event);
+        }
+    }
+
     public WrapperPlayServerUpdateAttributes(int entityID, List<Property> properties) {
         super(PacketType.Play.Server.UPDATE_ATTRIBUTES);
         this.entityID = entityID;
@@ -83,12 +95,29 @@ public class WrapperPlayServerUpdateAttributes extends PacketWrapper<WrapperPlay
 
     @Override
     public void read() {
+        readEntityId();
+        readSection(this::readProperties);
+    }
+
+    @Override
+    public void readLazily() {
+        readEntityId();
+        skipLazySection();
+    }
+
+    private void readEntityId() {
         if (serverVersion == ServerVersion.V_1_7_10) {
             entityID = readInt();
         } else {
             entityID = readVarInt();
         }
+    }
+
+    private void modifySkipped() {
+        modifySection(this::readProperties);
+    }
 
+    private void readProperties() {
         int propertyCount;
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_17)) {
             propertyCount = readVarInt();
@@ -141,11 +170,12 @@ public class WrapperPlayServerUpdateAttributes extends PacketWrapper<WrapperPlay
 
     @Override
     public void write() {
-        if (serverVersion == ServerVersion.V_1_7_10) {
-            writeInt(entityID);
-        } else {
-            writeVarInt(entityID);
+        if (hasUnmodifiedSection()) {
+            int entityIdLength = serverVersion == ServerVersion.V_1_7_10 ? 4 : getVarIntSize(entityID);
+            writeUnmodifiedSection(entityIdLength, this::writeEntityId);
+            return;
         }
+        writeEntityId();
 
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_17)) {
             writeVarInt(properties.size());
@@ -179,8 +209,17 @@ public class WrapperPlayServerUpdateAttributes extends PacketWrapper<WrapperPlay
         }
     }
 
+    private void writeEntityId() {
+        if (serverVersion == ServerVersion.V_1_7_10) {
+            writeInt(entityID);
+        } else {
+            writeVarInt(entityID);
+        }
+    }
+
     @Override
     public void copy(WrapperPlayServerUpdateAttributes wrapper) {
+        copySection(wrapper);
         entityID = wrapper.entityID;
         properties = wrapper.properties;
     }
@@ -194,10 +233,12 @@ public class WrapperPlayServerUpdateAttributes extends PacketWrapper<WrapperPlay
     }
 
     public List<Property> getProperties() {
+        modifySkipped();
         return properties;
     }
 
     public void setProperties(List<Property> properties) {
+        modifySkipped();
         this.properties = properties;
     }
 
@@ -0,0 +1,194 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.EventManager;
+import com.github.retrooper.packetevents.event.PacketEvent;
+import com.github.retrooper.packetevents.event.PacketListenerAbstract;
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.UserDisconnectEvent;
+import com.github.retrooper.packetevents.event.UserEvent;
+import com.github.retrooper.packetevents.exception.PacketProcessException;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.settings.PacketEventsSettings;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncListenerTest extends BaseDummyAPITest {
+
+    private static final int USERS = 8;
+    private static final int EVENTS = 500;
+
+    @Test
+    @DisplayName("Deliver events to async listeners in order per user")
+    public void testOrderPerUser() throws InterruptedException {
+        EventManager eventManager = PacketEvents.getAPI().getEventManager();
+        long dropped = eventManager.getAsyncDispatcher().getDroppedEvents();
+        Map<User, List<Integer>> received = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(USERS * EVENTS);
+        Thread caller = Thread.currentThread();
+        Thread[] listenerThread = new Thread[1];
+        eventManager.registerListener(new PacketListenerCommon() {
+            @Override
+            public boolean isAsync() {
+                return true;
+            }
+
+            @Override
+            public void onPacketEventExternal(PacketEvent event) {
+                SequencedEvent sequenced = (SequencedEvent) event;
+                listenerThread[0] = Thread.currentThread();
+                received.computeIfAbsent(sequenced.getUser(), user -> new ArrayList<>()).add(sequenced.sequence);
+                latch.countDown();
+            }
+        });
+
+        User[] users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = new User(null, ConnectionState.PLAY, null, new UserProfile(null, "user" + i));
+        }
+        for (int sequence = 0; sequence < EVENTS; sequence++) {
+            for (User user : users) {
+                eventManager.callEvent(new SequencedEvent(user, sequence));
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertNotEquals(caller, listenerThread[0]);
+        for (User user : users) {
+            List<Integer> sequences = received.get(user);
+            assertEquals(EVENTS, sequences.size());
+            for (int i = 0; i < EVENTS; i++) {
+                assertEquals(i, sequences.get(i));
+            }
+        }
+        assertEquals(dropped, eventManager.getAsyncDispatcher().getDroppedEvents());
+        eventManager.unregisterAllListeners();
+    }
+
+    @Test
+    @DisplayName("Drop packets for full queues but never disconnections, and release the packet copies")
+    public void testDropsAndCopies() throws Exception {
+        EventManager eventManager = PacketEvents.getAPI().getEventManager();
+        PacketEventsSettings settings = PacketEvents.getAPI().getSettings();
+        int capacity = settings.getAsyncQueueCapacity();
+        settings.asyncQueueCapacity(2);
+        try {
+            long dropped = eventManager.getAsyncDispatcher().getDroppedEvents();
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch disconnected = new CountDownLatch(1);
+            List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+            List<ByteBuf> copies = Collections.synchronizedList(new ArrayList<>());
+            eventManager.registerListener(new PacketListenerAbstract() {
+                @Override
+                public boolean isAsync() {
+                    return true;
+                }
+
+                @Override
+                public void onPacketReceive(PacketReceiveEvent event) {
+                    ByteBuf buffer = (ByteBuf) event.getByteBuf();
+                    copies.add(buffer);
+                    received.add((int) buffer.getByte(buffer.readerIndex()));
+                    started.countDown();
+                    try {
+                        // keep the first packet in the queue while the next ones arrive
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+
+                @Override
+                public void onUserDisconnect(UserDisconnectEvent event) {
+                    disconnected.countDown();
+                }
+            });
+
+            User user = new User(null, ConnectionState.PLAY, null, new UserProfile(null, "user"));
+            ByteBuf first = Unpooled.buffer().writeByte(0);
+            eventManager.callEvent(receive(user, first));
+            // the original buffer is modified and released once the packet has been handled
+            first.setByte(0, 100);
+            first.release();
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i <= 5; i++) {
+                ByteBuf buffer = Unpooled.buffer().writeByte(i);
+                eventManager.callEvent(receive(user, buffer));
+                buffer.release();
+            }
+            eventManager.callEvent(new UserDisconnectEvent(user));
+            release.countDown();
+
+            assertTrue(disconnected.await(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1), received);
+            assertEquals(dropped + 4, eventManager.getAsyncDispatcher().getDroppedEvents());
+            for (ByteBuf copy : copies) {
+                assertEquals(0, copy.refCnt());
+            }
+        } finally {
+            settings.asyncQueueCapacity(capacity);
+            eventManager.unregisterAllListeners();
+        }
+    }
+
+    private static PacketReceiveEvent receive(User user, ByteBuf buffer) throws PacketProcessException {
+        return new PacketReceiveEvent(0, PacketType.Play.Client.CHAT_MESSAGE, ServerVersion.getLatest(),
+                null, user, null, buffer) {
+        };
+    }
+
+    private static final class SequencedEvent extends PacketEvent implements UserEvent {
+
+        private final User user;
+        private final int sequence;
+
+        private SequencedEvent(User user, int sequence) {
+            this.user = user;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public User getUser() {
+            return this.user;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.protocol.nbt.NBT;
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTInt;
+import com.github.retrooper.packetevents.protocol.nbt.NBTIntArray;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLimiter;
+import com.github.retrooper.packetevents.protocol.nbt.NBTList;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLong;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLongArray;
+import com.github.retrooper.packetevents.protocol.nbt.NBTString;
+import com.github.retrooper.packetevents.protocol.nbt.NBTType;
+import com.github.retrooper.packetevents.protocol.nbt.serializer.ByteBufNBTSerializer;
+import com.github.retrooper.packetevents.protocol.nbt.serializer.DefaultNBTSerializer;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ByteBufNBTSerializerTest extends BaseDummyAPITest {
+
+    private static NBTCompound createCompound() {
+        NBTCompound compound = new NBTCompound();
+        // interned names
+        compound.setTag("id", new NBTString("minecraft:stone"));
+        compound.setTag("Count", new NBTInt(64));
+        // names which aren't ascii, including supplementary characters (surrogate pairs) and the null character
+        compound.setTag("caf\u00E9", new NBTString("\u00FCber"));
+        compound.setTag("emoji \uD83D\uDE00", new NBTString("\uD83D\uDE00 \uD83C\uDF0D and \u0000"));
+        compound.setTag("\u0000", new NBTLong(Long.MIN_VALUE));
+        // names longer than the name cache limit, ascii and not
+        compound.setTag("a_name_which_is_longer_than_thirty_two_characters", new NBTIntArray(new int[]{1, -1, 3}));
+        compound.setTag("\u4E2D\u6587\u540D\u5B57\u4E2D\u6587\u540D\u5B57\u4E2D\u6587\u540D\u5B57\uD83D\uDE00",
+                new NBTLongArray(new long[]{Long.MAX_VALUE, 0}));
+
+        NBTList<NBTCompound> list = new NBTList<>(NBTType.COMPOUND);
+        for (int i = 0; i < 3; i++) {
+            NBTCompound element = new NBTCompound();
+            element.setTag("id", new NBTInt(i));
+            element.setTag("emoji \uD83D\uDE00", new NBTString("#" + i));
+            list.addTag(element);
+        }
+        compound.setTag("elements", list);
+        return compound;
+    }
+
+    private static byte[] writeDefault(NBT nbt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DefaultNBTSerializer.INSTANCE.serializeTag(new DataOutputStream(bytes), nbt, true);
+        return bytes.toByteArray();
+    }
+
+    private static NBT readDefault(byte[] bytes) throws IOException {
+        return DefaultNBTSerializer.INSTANCE.deserializeTag(NBTLimiter.noop(),
+                new DataInputStream(new ByteArrayInputStream(bytes)), true);
+    }
+
+    @Test
+    @DisplayName("Test reading NBT written by the default serializer")
+    public void testReadDefault() throws IOException {
+        NBTCompound compound = createCompound();
+        byte[] bytes = writeDefault(compound);
+        // read twice, so the second read goes through the name cache
+        for (int i = 0; i < 2; i++) {
+            ByteBuf buffer = Unpooled.wrappedBuffer(bytes);
+            assertEquals(compound, ByteBufNBTSerializer.INSTANCE.deserializeTag(NBTLimiter.noop(), buffer, true));
+            assertEquals(0, buffer.readableBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Test writing the same NBT as the default serializer")
+    public void testWriteDefault() throws IOException {
+        NBTCompound compound = createCompound();
+        ByteBuf buffer = Unpooled.buffer();
+        ByteBufNBTSerializer.INSTANCE.serializeTag(buffer, compound, true);
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+
+        assertArrayEquals(writeDefault(compound), bytes);
+        assertEquals(compound, readDefault(bytes));
+    }
+}
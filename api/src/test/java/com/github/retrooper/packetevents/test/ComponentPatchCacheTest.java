@@ -0,0 +1,62 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.component.ComponentPatchCache;
+import com.github.retrooper.packetevents.protocol.component.ComponentType;
+import com.github.retrooper.packetevents.protocol.component.ComponentTypes;
+import com.github.retrooper.packetevents.protocol.item.type.ItemTypes;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ComponentPatchCacheTest extends BaseDummyAPITest {
+
+    @Test
+    @DisplayName("Test reading back a small interned patch followed by other data")
+    public void testSmallPatch() {
+        ServerVersion version = ServerVersion.getLatest();
+        Map<ComponentType<?>, Optional<?>> patches = Collections.singletonMap(
+                ComponentTypes.MAX_STACK_SIZE, Optional.of(16));
+
+        // patch bytes (component id and value) followed by unrelated bytes of the next field
+        ByteBuf stored = Unpooled.wrappedBuffer(new byte[]{1, 16, 42, 42, 42});
+        stored.readerIndex(2);
+        assertTrue(ComponentPatchCache.store(stored, 0, version, ItemTypes.GILDED_BLACKSTONE, 1, 0, patches));
+
+        ByteBuf read = Unpooled.wrappedBuffer(new byte[]{1, 16, 7, 8, 9, 10});
+        assertEquals(patches, ComponentPatchCache.read(read, version, ItemTypes.GILDED_BLACKSTONE, 1, 0));
+        assertEquals(2, read.readerIndex());
+
+        ByteBuf other = Unpooled.wrappedBuffer(new byte[]{1, 17, 42, 42, 42});
+        assertNull(ComponentPatchCache.read(other, version, ItemTypes.GILDED_BLACKSTONE, 1, 0));
+        assertEquals(0, other.readerIndex());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import io.github.retrooper.packetevents.impl.netty.channel.CompressionRelocationHandler;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.MessageToByteEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CompressionRelocationTest extends BaseDummyAPITest {
+
+    private static final String ENCODER_NAME = "pe-encoder";
+    private static final String GUARD_NAME = "pe-encoder-compression";
+    private static final byte COMPRESSED_MARKER = 0x7F;
+
+    @Test
+    @DisplayName("Relocate handlers before the first compressed packet")
+    public void testRelocateOnCompression() {
+        List<Byte> seen = new ArrayList<>();
+        int[] relocations = new int[1];
+        EmbeddedChannel channel = new EmbeddedChannel();
+        User user = new User(channel, ConnectionState.LOGIN, null, new UserProfile(null, null));
+        channel.pipeline()
+                .addLast(ENCODER_NAME, new RecordingEncoder(seen))
+                .addLast("encoder", new StringEncoder())
+                .addLast(GUARD_NAME, new CompressionRelocationHandler(user, ENCODER_NAME, () -> {
+                    relocations[0]++;
+                    channel.pipeline().remove(ENCODER_NAME);
+                    channel.pipeline().addBefore("encoder", ENCODER_NAME, new RecordingEncoder(seen));
+                }));
+
+        channel.writeOutbound("set compression");
+        // vanilla adds the compressor right in front of its encoder, behind ours
+        channel.pipeline().addBefore("encoder", "compress", new MarkingCompressor());
+        channel.writeOutbound("login success");
+
+        assertEquals(1, relocations[0]);
+        assertEquals(2, seen.size());
+        assertEquals((byte) 's', seen.get(0));
+        assertEquals((byte) 'l', seen.get(1));
+        assertNull(channel.pipeline().get(GUARD_NAME));
+
+        ((ByteBuf) channel.readOutbound()).release();
+        ByteBuf compressed = channel.readOutbound();
+        assertEquals(COMPRESSED_MARKER, compressed.getByte(0));
+        compressed.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    @DisplayName("Remove the guard when compression is never enabled")
+    public void testRemoveWithoutCompression() {
+        int[] relocations = new int[1];
+        EmbeddedChannel channel = new EmbeddedChannel();
+        User user = new User(channel, ConnectionState.LOGIN, null, new UserProfile(null, null));
+        channel.pipeline()
+                .addLast(ENCODER_NAME, new RecordingEncoder(new ArrayList<>()))
+                .addLast("encoder", new StringEncoder())
+                .addLast(GUARD_NAME, new CompressionRelocationHandler(user, ENCODER_NAME, () -> relocations[0]++));
+
+        channel.writeOutbound("login success");
+        assertNotNull(channel.pipeline().get(GUARD_NAME));
+
+        user.setEncoderState(ConnectionState.PLAY);
+        channel.writeOutbound("join game");
+
+        assertEquals(0, relocations[0]);
+        assertNull(channel.pipeline().get(GUARD_NAME));
+        channel.finishAndReleaseAll();
+    }
+
+    private static final class StringEncoder extends MessageToByteEncoder<String> {
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, String msg, ByteBuf out) {
+            out.writeBytes(msg.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class MarkingCompressor extends MessageToByteEncoder<ByteBuf> {
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) {
+            out.writeByte(COMPRESSED_MARKER).writeBytes(msg);
+        }
+    }
+
+    private static final class RecordingEncoder extends ChannelOutboundHandlerAdapter {
+
+        private final List<Byte> seen;
+
+        private RecordingEncoder(List<Byte> seen) {
+            this.seen = seen;
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            this.seen.add(((ByteBuf) msg).getByte(0));
+            ctx.write(msg, promise);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.exception.PacketProcessException;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.attribute.Attributes;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerUpdateAttributes;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerUpdateAttributes.Property;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LazySectionTest extends BaseDummyAPITest {
+
+    @Test
+    @DisplayName("Test reading a skipped section after re-encoding it behind a longer prefix")
+    public void testPrefixLengthChange() throws Exception {
+        WrapperPlayServerUpdateAttributes original = new WrapperPlayServerUpdateAttributes(1, Arrays.asList(
+                new Property(Attributes.GENERIC_MAX_HEALTH, 20, Collections.emptyList()),
+                new Property(Attributes.GENERIC_MOVEMENT_SPEED, 0.1, Collections.emptyList())));
+        ByteBuf buffer = Unpooled.buffer();
+        original.setBuffer(buffer);
+        original.write();
+
+        User user = new User(null, ConnectionState.PLAY, ClientVersion.getLatest(), new UserProfile(null, "user"));
+        PacketSendEvent event = send(user, buffer);
+        WrapperPlayServerUpdateAttributes lazy = new WrapperPlayServerUpdateAttributes(event, true);
+        // 300 takes two bytes as a var int instead of one, so the section moves
+        lazy.setEntityId(300);
+        PacketEventsImplHelper.reEncode(event, buffer);
+
+        // the section is copied out of the re-encoded buffer once the event is done
+        event.detachWrappers();
+        assertProperties(lazy.getProperties());
+
+        // the re-encoded packet has to be intact as well
+        buffer.readerIndex(0);
+        assertEquals(PacketType.Play.Server.UPDATE_ATTRIBUTES.getId(user.getClientVersion()), readVarInt(buffer));
+        WrapperPlayServerUpdateAttributes reread = new WrapperPlayServerUpdateAttributes(send(user, buffer));
+        assertEquals(300, reread.getEntityId());
+        assertProperties(reread.getProperties());
+        buffer.release();
+    }
+
+    private static void assertProperties(List<Property> properties) {
+        assertEquals(2, properties.size());
+        assertEquals(Attributes.GENERIC_MAX_HEALTH, properties.get(0).getAttribute());
+        assertEquals(20, properties.get(0).getValue());
+        assertEquals(Attributes.GENERIC_MOVEMENT_SPEED, properties.get(1).getAttribute());
+        assertEquals(0.1, properties.get(1).getValue());
+    }
+
+    private static int readVarInt(ByteBuf buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static PacketSendEvent send(User user, ByteBuf buffer) throws PacketProcessException {
+        return new PacketSendEvent(PacketType.Play.Server.UPDATE_ATTRIBUTES.getId(user.getClientVersion()),
+                PacketType.Play.Server.UPDATE_ATTRIBUTES, ServerVersion.getLatest(), null, user, null, buffer) {
+        };
+    }
+}
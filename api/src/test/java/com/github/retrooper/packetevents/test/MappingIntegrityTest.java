@@ -17,6 +17,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class MappingIntegrityTest extends BaseDummyAPITest {
 
@@ -90,4 +92,23 @@ public class MappingIntegrityTest extends BaseDummyAPITest {
         state.setAxis(Axis.Z);
         assertEquals(159, state.getGlobalId());
     }
+
+    @Test
+    @DisplayName("Test block state transitions")
+    public void testBlockStateTransitions() {
+        WrappedBlockState crafterState = WrappedBlockState.getDefaultState(ClientVersion.V_1_20_5, StateTypes.CRAFTER, false)
+                .withOrientation(Orientation.DOWN_NORTH);
+        assertEquals(26617, crafterState.getGlobalId());
+        assertSame(WrappedBlockState.getByGlobalId(ClientVersion.V_1_20_5, 26617, false), crafterState);
+
+        WrappedBlockState redstoneState = WrappedBlockState.getDefaultState(ClientVersion.V_1_20_5, StateTypes.REDSTONE_WIRE, false)
+                .withEast(East.UP).withNorth(North.UP).withWest(West.SIDE).withSouth(South.UP).withPower(5);
+        assertEquals(3024, redstoneState.getGlobalId());
+        assertEquals(5, redstoneState.getPower());
+
+        WrappedBlockState heavyCoreState = WrappedBlockState.getDefaultState(ClientVersion.V_1_20_5, StateTypes.HEAVY_CORE, false);
+        assertEquals(26682, heavyCoreState.withWaterlogged(true).getGlobalId());
+        assertEquals(26683, heavyCoreState.withWaterlogged(true).withWaterlogged(false).getGlobalId());
+        assertThrows(IllegalArgumentException.class, () -> heavyCoreState.withPower(5));
+    }
 }
@@ -20,9 +20,9 @@ package io.github.retrooper.packetevents.handlers;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
-import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
 import io.github.retrooper.packetevents.injector.CustomPipelineUtil;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
@@ -68,12 +68,12 @@ public class PacketEventsEncoder extends ChannelOutboundHandlerAdapter {
         PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> buffer.readerIndex(readerIndex));
         if (!packetSendEvent.isCancelled()) {
             if (packetSendEvent.getLastUsedWrapper() != null) {
-                ByteBufHelper.clear(packetSendEvent.getByteBuf());
-                packetSendEvent.getLastUsedWrapper().writeVarInt(packetSendEvent.getPacketId());
-                packetSendEvent.getLastUsedWrapper().write();
+                PacketEventsImplHelper.reEncode(packetSendEvent, buffer);
             } else {
                 buffer.readerIndex(firstReaderIndex);
             }
+            // the buffer may be released as soon as it has been passed on
+            packetSendEvent.detachWrappers();
             if (doCompression) {
                 this.recompress(ctx, buffer, promise);
             } else {
@@ -87,6 +87,7 @@ public class PacketEventsEncoder extends ChannelOutboundHandlerAdapter {
                 task.run();
             }
         }
+        packetSendEvent.recycle();
     }
 
     @Override
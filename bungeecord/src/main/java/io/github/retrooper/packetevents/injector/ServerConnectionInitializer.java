@@ -21,6 +21,7 @@ package io.github.retrooper.packetevents.injector;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.UserConnectEvent;
 import com.github.retrooper.packetevents.event.UserDisconnectEvent;
+import com.github.retrooper.packetevents.jfr.PacketFlightRecorder;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
@@ -39,6 +40,7 @@ public class ServerConnectionInitializer {
 
     // This is ONLY called whenever the connection starts.
     public static void initChannel(Channel channel, ConnectionState state) {
+        Object flightEvent = PacketFlightRecorder.get().beginUserInject();
         User user = new User(channel, state, null, new UserProfile(null, null));
         UserConnectEvent connectEvent = new UserConnectEvent(user);
         PacketEvents.getAPI().getEventManager().callEvent(connectEvent);
@@ -56,6 +58,9 @@ public class ServerConnectionInitializer {
 
         //two methods is important.
         PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
+        if (flightEvent != null) {
+            PacketFlightRecorder.get().commitUserInject(flightEvent, user);
+        }
     }
 
     public static void destroyChannel(Channel channel) {
@@ -18,6 +18,7 @@
 
 package io.github.retrooper.packetevents.handler;
 
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
@@ -51,8 +52,11 @@ public class PacketEncoder extends ChannelOutboundHandlerAdapter {
             return;
         }
 
-        PacketEventsImplHelper.handlePacket(ctx.channel(),
+        ProtocolPacketEvent event = PacketEventsImplHelper.handlePacket(ctx.channel(),
                 this.user, this.player, in, false, this.side);
+        if (event != null) {
+            event.recycle();
+        }
         if (in.isReadable()) {
             ctx.write(in, promise);
         }
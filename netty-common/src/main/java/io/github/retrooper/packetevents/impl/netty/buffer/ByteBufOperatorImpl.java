@@ -20,10 +20,15 @@ package io.github.retrooper.packetevents.impl.netty.buffer;
 
 import com.github.retrooper.packetevents.netty.buffer.ByteBufOperator;
 import io.netty.buffer.ByteBuf;
+import io.netty.util.ByteProcessor;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public class ByteBufOperatorImpl implements ByteBufOperator {
+    // Stops at the first byte without the continuation bit
+    private static final ByteProcessor VAR_INT_END = value -> value < 0;
+
     @Override
     public int capacity(Object buffer) {
         return ((ByteBuf)buffer).capacity();
@@ -243,4 +248,76 @@ public class ByteBufOperatorImpl implements ByteBufOperator {
     public Object resetWriterIndex(Object buffer) {
         return ((ByteBuf)buffer).resetWriterIndex();
     }
+
+    @Override
+    public int readVarInt(Object buffer) {
+        ByteBuf buf = (ByteBuf) buffer;
+        int readerIndex = buf.readerIndex();
+        int readable = buf.readableBytes();
+        // Most VarInts (packet ids, lengths, registry ids) fit into a single byte
+        if (readable > 0) {
+            byte first = buf.getByte(readerIndex);
+            if (first >= 0) {
+                buf.readerIndex(readerIndex + 1);
+                return first;
+            }
+        }
+        int end = buf.forEachByte(readerIndex, Math.min(5, readable), VAR_INT_END);
+        if (end == -1) {
+            if (readable < 5) {
+                throw new IndexOutOfBoundsException("VarInt is incomplete, only " + readable + " bytes are readable");
+            }
+            throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
+        }
+        int value = 0;
+        for (int i = readerIndex, shift = 0; i <= end; i++, shift += 7) {
+            value |= (buf.getByte(i) & 0x7F) << shift;
+        }
+        buf.readerIndex(end + 1);
+        return value;
+    }
+
+    @Override
+    public void readLongs(Object buffer, long[] destination) {
+        ByteBuf buf = (ByteBuf) buffer;
+        int readerIndex = buf.readerIndex();
+        if ((long) destination.length << 3 > buf.readableBytes()) {
+            throw new IndexOutOfBoundsException("Tried to read " + destination.length + " longs, but only "
+                    + buf.readableBytes() + " bytes are readable");
+        }
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = buf.getLong(readerIndex + (i << 3));
+        }
+        buf.readerIndex(readerIndex + (destination.length << 3));
+    }
+
+    @Override
+    public long readVarLong(Object buffer) {
+        ByteBuf buf = (ByteBuf) buffer;
+        int readerIndex = buf.readerIndex();
+        int readable = buf.readableBytes();
+        int end = buf.forEachByte(readerIndex, Math.min(10, readable), VAR_INT_END);
+        if (end == -1) {
+            if (readable < 10) {
+                throw new IndexOutOfBoundsException("VarLong is incomplete, only " + readable + " bytes are readable");
+            }
+            throw new RuntimeException("VarLong is too large. Must be smaller than 10 bytes.");
+        }
+        long value = 0;
+        for (int i = readerIndex, shift = 0; i <= end; i++, shift += 7) {
+            value |= (long) (buf.getByte(i) & 0x7F) << shift;
+        }
+        buf.readerIndex(end + 1);
+        return value;
+    }
+
+    @Override
+    public String readString(Object buffer, int length, Charset charset) {
+        return ((ByteBuf)buffer).readCharSequence(length, charset).toString();
+    }
+
+    @Override
+    public ByteBuffer nioBuffer(Object buffer, int index, int length) {
+        return ((ByteBuf)buffer).nioBuffer(index, length);
+    }
 }
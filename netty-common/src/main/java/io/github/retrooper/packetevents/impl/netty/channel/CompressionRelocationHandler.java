@@ -0,0 +1,77 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.channel;
+
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.player.User;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+import java.util.List;
+
+/**
+ * Sits in front of the vanilla encoder and relocates the packetevents handlers as soon as
+ * the "compress" handler shows up behind our encoder, before the first compressed packet reaches it.
+ * Without this, the first compressed packet would have to be decompressed and compressed again
+ * just so it can be processed.
+ * <p>
+ * The handler removes itself once the handlers are in the right place, or once the login
+ * has finished without compression being enabled.
+ */
+public class CompressionRelocationHandler extends ChannelOutboundHandlerAdapter {
+
+    public static final String COMPRESSOR_NAME = "compress";
+
+    private final User user;
+    private final String encoderName;
+    private final Runnable relocator;
+
+    public CompressionRelocationHandler(User user, String encoderName, Runnable relocator) {
+        this.user = user;
+        this.encoderName = encoderName;
+        this.relocator = relocator;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        List<String> names = ctx.pipeline().names();
+        int compressIndex = names.indexOf(COMPRESSOR_NAME);
+        boolean done;
+        if (compressIndex != -1) {
+            int encoderIndex = names.indexOf(this.encoderName);
+            if (encoderIndex != -1 && compressIndex > encoderIndex) {
+                this.relocator.run();
+            }
+            done = true;
+        } else {
+            // compression is only ever enabled during login
+            done = this.isLoginFinished();
+        }
+        ctx.write(msg, promise);
+        if (done) {
+            ctx.pipeline().remove(this);
+        }
+    }
+
+    private boolean isLoginFinished() {
+        ConnectionState state = this.user.getEncoderState();
+        return state == ConnectionState.CONFIGURATION || state == ConnectionState.PLAY;
+    }
+}
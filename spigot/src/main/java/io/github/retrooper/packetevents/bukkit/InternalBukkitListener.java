@@ -22,12 +22,18 @@ import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.FakeChannelUtil;
 import io.github.retrooper.packetevents.injector.SpigotChannelInjector;
+import io.github.retrooper.packetevents.util.EntityIdIndex;
 import io.github.retrooper.packetevents.util.folia.FoliaScheduler;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.plugin.Plugin;
 
 public class InternalBukkitListener implements Listener {
@@ -41,6 +47,7 @@ public class InternalBukkitListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onJoin(PlayerJoinEvent e) {
         Player player = e.getPlayer();
+        EntityIdIndex.of(player.getWorld()).put(player);
         SpigotChannelInjector injector = (SpigotChannelInjector) PacketEvents.getAPI().getInjector();
 
         User user = PacketEvents.getAPI().getPlayerManager().getUser(player);
@@ -60,4 +67,28 @@ public class InternalBukkitListener implements Listener {
         // Set bukkit player object in the injectors
         injector.updatePlayer(user, player);
     }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent e) {
+        Player player = e.getPlayer();
+        EntityIdIndex.of(player.getWorld()).remove(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent e) {
+        Player player = e.getPlayer();
+        EntityIdIndex.of(e.getFrom()).remove(player);
+        EntityIdIndex.of(player.getWorld()).put(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntitySpawn(EntitySpawnEvent e) {
+        Entity entity = e.getEntity();
+        EntityIdIndex.of(entity.getWorld()).put(entity);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        EntityIdIndex.unload(e.getWorld());
+    }
 }
@@ -31,6 +31,7 @@ import com.github.retrooper.packetevents.protocol.world.states.WrappedBlockState
 import com.github.retrooper.packetevents.settings.PacketEventsSettings;
 import com.github.retrooper.packetevents.util.LogManager;
 import io.github.retrooper.packetevents.bukkit.InternalBukkitListener;
+import io.github.retrooper.packetevents.bukkit.PaperEntityRemoveListener;
 import io.github.retrooper.packetevents.injector.SpigotChannelInjector;
 import io.github.retrooper.packetevents.injector.connection.ServerConnectionInitializer;
 import io.github.retrooper.packetevents.manager.InternalBukkitPacketListener;
@@ -145,6 +146,9 @@ public class SpigotPacketEventsBuilder {
                     //Just to have an idea of which versions of packetevents people use
                     metrics.addCustomChart(new SimplePie("packetevents_version", () -> getVersion().toStringWithoutSnapshot()));
                     Bukkit.getPluginManager().registerEvents(new InternalBukkitListener(plugin), plugin);
+                    if (PaperEntityRemoveListener.isSupported()) {
+                        Bukkit.getPluginManager().registerEvents(new PaperEntityRemoveListener(), plugin);
+                    }
 
                     if (lateBind) {
                         //If late-bind is enabled, we still need to inject (after all plugins enabled).
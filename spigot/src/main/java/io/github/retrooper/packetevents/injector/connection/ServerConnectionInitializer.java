@@ -20,12 +20,14 @@ package io.github.retrooper.packetevents.injector.connection;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.UserConnectEvent;
+import com.github.retrooper.packetevents.jfr.PacketFlightRecorder;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
 import com.github.retrooper.packetevents.util.FakeChannelUtil;
 import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
+import io.github.retrooper.packetevents.impl.netty.channel.CompressionRelocationHandler;
 import io.github.retrooper.packetevents.injector.handlers.PacketEventsDecoder;
 import io.github.retrooper.packetevents.injector.handlers.PacketEventsEncoder;
 import io.netty.channel.Channel;
@@ -42,6 +44,7 @@ public class ServerConnectionInitializer {
         if (FakeChannelUtil.isFakeChannel(channel)) {
             return;
         }
+        Object flightEvent = PacketFlightRecorder.get().beginUserInject();
         User user = new User(channel, connectionState, null, new UserProfile(null, null));
 
         if (connectionState == ConnectionState.PLAY) {
@@ -74,6 +77,9 @@ public class ServerConnectionInitializer {
 
             channel.closeFuture().addListener((ChannelFutureListener) future -> PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID()));
             PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
+            if (flightEvent != null) {
+                PacketFlightRecorder.get().commitUserInject(flightEvent, user);
+            }
         }
     }
 
@@ -90,13 +96,18 @@ public class ServerConnectionInitializer {
         } else {
             PacketEvents.getAPI().getLogger().warning("Could not find encoder handler in channel pipeline!");
         }
+
+        if (channel.pipeline().get(PacketEvents.ENCODER_NAME + "-compression") != null) {
+            channel.pipeline().remove(PacketEvents.ENCODER_NAME + "-compression");
+        }
     }
 
     public static void relocateHandlers(Channel ctx, PacketEventsDecoder decoder, User user) {
         // Decoder == null means we haven't made handlers for the user yet
         try {
             ChannelHandler encoder;
-            if (decoder != null) {
+            boolean initial = decoder == null;
+            if (!initial) {
                 // This patches a bug where PE 2.0 handlers keep jumping behind one another causing a stackoverflow
                 if (decoder.hasBeenRelocated) return;
                 // Make sure we only relocate because of compression once
@@ -117,6 +128,13 @@ public class ServerConnectionInitializer {
             ctx.pipeline().addBefore(decoderName, PacketEvents.DECODER_NAME, decoder);
             String encoderName = ctx.pipeline().names().contains("outbound_config") ? "outbound_config" : "encoder";
             ctx.pipeline().addBefore(encoderName, PacketEvents.ENCODER_NAME, encoder);
+            if (initial && PacketEventsEncoder.COMPRESSION_ENABLED_EVENT == null) {
+                // Paper tells us when compression gets enabled, on spigot we watch outgoing packets instead
+                // so we can relocate before the first compressed packet reaches our encoder
+                ctx.pipeline().addAfter(encoderName, PacketEvents.ENCODER_NAME + "-compression",
+                        new CompressionRelocationHandler(user, PacketEvents.ENCODER_NAME, () -> relocateHandlers(ctx,
+                                (PacketEventsDecoder) ctx.pipeline().get(PacketEvents.DECODER_NAME), user)));
+            }
         } catch (NoSuchElementException ex) {
             String handlers = ChannelHelper.pipelineHandlerNamesAsString(ctx);
             throw new IllegalStateException("PacketEvents failed to add a decoder to the netty pipeline. Pipeline handlers: " + handlers, ex);
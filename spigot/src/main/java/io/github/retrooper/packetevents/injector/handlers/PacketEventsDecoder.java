@@ -19,6 +19,7 @@
 package io.github.retrooper.packetevents.injector.handlers;
 
 import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.exception.PacketProcessException;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
@@ -54,7 +55,10 @@ public class PacketEventsDecoder extends MessageToMessageDecoder<ByteBuf> {
     }
 
     public void read(ChannelHandlerContext ctx, ByteBuf input, List<Object> out) throws Exception {
-        PacketEventsImplHelper.handleServerBoundPacket(ctx.channel(), user, player, input, true);
+        PacketReceiveEvent packetReceiveEvent = PacketEventsImplHelper.handleServerBoundPacket(ctx.channel(), user, player, input, true);
+        if (packetReceiveEvent != null) {
+            packetReceiveEvent.recycle();
+        }
         out.add(ByteBufHelper.retain(input));
     }
 
@@ -44,7 +44,6 @@ import io.netty.handler.codec.MessageToMessageEncoder;
 import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
-import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
@@ -84,16 +83,20 @@ public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
         list.add(byteBuf.retain());
     }
 
-    private @Nullable PacketSendEvent handleClientBoundPacket(Channel channel, User user, Object player, ByteBuf buffer, ChannelPromise promise) throws Exception {
+    private void handleClientBoundPacket(Channel channel, User user, Object player, ByteBuf buffer, ChannelPromise promise) throws Exception {
         PacketSendEvent packetSendEvent = PacketEventsImplHelper.handleClientBoundPacket(channel, user, player, buffer, true);
-        if (packetSendEvent != null && packetSendEvent.hasTasksAfterSend()) {
-            promise.addListener((p) -> {
-                for (Runnable task : packetSendEvent.getTasksAfterSend()) {
-                    task.run();
-                }
-            });
+        if (packetSendEvent != null) {
+            if (packetSendEvent.hasTasksAfterSend()) {
+                // the event may already have been recycled once the packet has been sent
+                List<Runnable> tasksAfterSend = packetSendEvent.getTasksAfterSend();
+                promise.addListener((p) -> {
+                    for (Runnable task : tasksAfterSend) {
+                        task.run();
+                    }
+                });
+            }
+            packetSendEvent.recycle();
         }
-        return packetSendEvent;
     }
 
     @Override
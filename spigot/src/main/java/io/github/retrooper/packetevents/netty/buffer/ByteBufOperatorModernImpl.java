@@ -21,6 +21,7 @@ package io.github.retrooper.packetevents.netty.buffer;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufOperator;
 import io.netty.buffer.ByteBuf;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 public class ByteBufOperatorModernImpl implements ByteBufOperator {
@@ -245,4 +246,73 @@ public class ByteBufOperatorModernImpl implements ByteBufOperator {
     public Object resetWriterIndex(Object buffer) {
         return ((ByteBuf)buffer).resetWriterIndex();
     }
+
+    // Uses absolute getters instead of ByteBuf#forEachByte, as the processor API differs on netty 4.0 (legacy servers)
+    @Override
+    public int readVarInt(Object buffer) {
+        ByteBuf buf = (ByteBuf) buffer;
+        int readerIndex = buf.readerIndex();
+        int readable = buf.readableBytes();
+        int value = 0;
+        for (int i = 0; i < 5; i++) {
+            if (i == readable) {
+                throw new IndexOutOfBoundsException("VarInt is incomplete, only " + readable + " bytes are readable");
+            }
+            byte currentByte = buf.getByte(readerIndex + i);
+            value |= (currentByte & 0x7F) << (i * 7);
+            if ((currentByte & 0x80) != 0x80) {
+                buf.readerIndex(readerIndex + i + 1);
+                return value;
+            }
+        }
+        throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
+    }
+
+    @Override
+    public void readLongs(Object buffer, long[] destination) {
+        ByteBuf buf = (ByteBuf) buffer;
+        int readerIndex = buf.readerIndex();
+        if ((long) destination.length << 3 > buf.readableBytes()) {
+            throw new IndexOutOfBoundsException("Tried to read " + destination.length + " longs, but only "
+                    + buf.readableBytes() + " bytes are readable");
+        }
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = buf.getLong(readerIndex + (i << 3));
+        }
+        buf.readerIndex(readerIndex + (destination.length << 3));
+    }
+
+    @Override
+    public long readVarLong(Object buffer) {
+        ByteBuf buf = (ByteBuf) buffer;
+        int readerIndex = buf.readerIndex();
+        int readable = buf.readableBytes();
+        long value = 0;
+        for (int i = 0; i < 10; i++) {
+            if (i == readable) {
+                throw new IndexOutOfBoundsException("VarLong is incomplete, only " + readable + " bytes are readable");
+            }
+            byte currentByte = buf.getByte(readerIndex + i);
+            value |= (long) (currentByte & 0x7F) << (i * 7);
+            if ((currentByte & 0x80) != 0x80) {
+                buf.readerIndex(readerIndex + i + 1);
+                return value;
+            }
+        }
+        throw new RuntimeException("VarLong is too large. Must be smaller than 10 bytes.");
+    }
+
+    @Override
+    public String readString(Object buffer, int length, Charset charset) {
+        ByteBuf buf = (ByteBuf) buffer;
+        int readerIndex = buf.readerIndex();
+        String s = buf.toString(readerIndex, length, charset);
+        buf.readerIndex(readerIndex + length);
+        return s;
+    }
+
+    @Override
+    public ByteBuffer nioBuffer(Object buffer, int index, int length) {
+        return ((ByteBuf)buffer).nioBuffer(index, length);
+    }
 }
@@ -0,0 +1,166 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.util;
+
+import com.github.retrooper.packetevents.util.IntObjectMap;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Index of the Bukkit entities of one world by their entity id.
+ * <p>
+ * Entries are added when entities spawn, players join or an entity is resolved through reflection,
+ * and removed when players leave or change worlds, or when entities are removed from their world on Paper.
+ * Entries only hold weak references and invalid entities are never returned, stale entries left
+ * behind are swept whenever the index has doubled in size since the last sweep.
+ * <p>
+ * Lookups are lock-free as long as the index isn't being written to, so they are safe to use from netty threads.
+ */
+@ApiStatus.Internal
+public final class EntityIdIndex {
+    private static final Map<UUID, EntityIdIndex> WORLD_INDICES = new ConcurrentHashMap<>();
+    private static final int MIN_SWEEP_THRESHOLD = 256;
+
+    private final StampedLock lock = new StampedLock();
+    private final IntObjectMap<EntityReference> entities = new IntObjectMap<>(MIN_SWEEP_THRESHOLD);
+    // only accessed while holding the write lock
+    private int sweepThreshold = MIN_SWEEP_THRESHOLD;
+
+    private EntityIdIndex() {
+    }
+
+    public static EntityIdIndex of(World world) {
+        return WORLD_INDICES.computeIfAbsent(world.getUID(), uid -> new EntityIdIndex());
+    }
+
+    /**
+     * Looks the entity up in every world index, entity ids are unique across worlds.
+     */
+    public static @Nullable Entity find(int entityId) {
+        for (EntityIdIndex index : WORLD_INDICES.values()) {
+            Entity entity = index.get(entityId);
+            if (entity != null) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    public static void unload(World world) {
+        WORLD_INDICES.remove(world.getUID());
+    }
+
+    public @Nullable Entity get(int entityId) {
+        EntityReference reference = null;
+        long stamp = this.lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                reference = this.entities.get(entityId);
+            } catch (ArrayIndexOutOfBoundsException ignored) {
+                // the table was resized while we were reading it
+            }
+            if (!this.lock.validate(stamp)) {
+                stamp = 0L;
+            }
+        }
+        if (stamp == 0L) {
+            stamp = this.lock.readLock();
+            try {
+                reference = this.entities.get(entityId);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        if (reference == null) {
+            return null;
+        }
+        Entity entity = reference.get();
+        if (entity == null || !entity.isValid()) {
+            this.remove(entityId, entity);
+            return null;
+        }
+        return entity;
+    }
+
+    public void put(Entity entity) {
+        EntityReference reference = new EntityReference(entity);
+        long stamp = this.lock.writeLock();
+        try {
+            this.entities.put(reference.entityId, reference);
+            if (this.entities.size() >= this.sweepThreshold) {
+                this.sweep();
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(Entity entity) {
+        this.remove(entity.getEntityId(), entity);
+    }
+
+    // only removes the entry if it still points to the expected entity, or the entity was collected
+    private void remove(int entityId, @Nullable Entity expected) {
+        long stamp = this.lock.writeLock();
+        try {
+            EntityReference reference = this.entities.get(entityId);
+            if (reference != null) {
+                Entity current = reference.get();
+                if (current == null || current == expected) {
+                    this.entities.remove(entityId);
+                }
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    // removes the entries of collected or invalid entities, must hold the write lock
+    private void sweep() {
+        int[] stale = new int[this.entities.size()];
+        int[] count = new int[1];
+        this.entities.forEachValue(reference -> {
+            Entity entity = reference.get();
+            if (entity == null || !entity.isValid()) {
+                stale[count[0]++] = reference.entityId;
+            }
+        });
+        for (int i = 0; i < count[0]; i++) {
+            this.entities.remove(stale[i]);
+        }
+        this.sweepThreshold = Math.max(MIN_SWEEP_THRESHOLD, this.entities.size() * 2);
+    }
+
+    private static final class EntityReference extends WeakReference<Entity> {
+        private final int entityId;
+
+        private EntityReference(Entity entity) {
+            super(entity);
+            this.entityId = entity.getEntityId();
+        }
+    }
+}
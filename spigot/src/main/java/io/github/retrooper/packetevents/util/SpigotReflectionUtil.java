@@ -27,6 +27,7 @@ import com.github.retrooper.packetevents.protocol.particle.type.ParticleType;
 import com.github.retrooper.packetevents.protocol.particle.type.ParticleTypes;
 import com.github.retrooper.packetevents.protocol.player.TextureProperty;
 import com.github.retrooper.packetevents.resources.ResourceLocation;
+import com.github.retrooper.packetevents.util.reflection.FieldAccessor;
 import com.github.retrooper.packetevents.util.reflection.Reflection;
 import com.github.retrooper.packetevents.util.reflection.ReflectionObject;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
@@ -54,6 +55,9 @@ import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -113,6 +117,10 @@ public final class SpigotReflectionUtil {
     public static Field ENTITY_PLAYER_PING_FIELD, ENTITY_BOUNDING_BOX_FIELD, BYTE_BUF_IN_PACKET_DATA_SERIALIZER, DIMENSION_CODEC_FIELD,
             DYNAMIC_OPS_NBT_INSTANCE_FIELD, CHUNK_PROVIDER_SERVER_FIELD, CRAFT_PARTICLE_PARTICLES_FIELD, NMS_MK_KEY_FIELD, LEGACY_NMS_PARTICLE_KEY_FIELD, LEGACY_NMS_KEY_TO_NMS_PARTICLE;
 
+    //Compiled accessors for fields read on hot paths
+    private static FieldAccessor ENTITY_PLAYER_CONNECTION_ACCESSOR, PLAYER_CONNECTION_NETWORK_MANAGER_ACCESSOR,
+            NETWORK_MANAGER_CHANNEL_ACCESSOR, LEVEL_ENTITY_STORAGE_ACCESSOR, ENTITY_SECTION_MANAGER_ENTITY_GETTER_ACCESSOR;
+
     //Methods
     public static Method IS_DEBUGGING, GET_CRAFT_PLAYER_HANDLE_METHOD, GET_CRAFT_ENTITY_HANDLE_METHOD, GET_CRAFT_WORLD_HANDLE_METHOD,
             GET_MOB_EFFECT_LIST_ID_METHOD, GET_MOB_EFFECT_LIST_BY_ID_METHOD, GET_ITEM_ID_METHOD, GET_ITEM_BY_ID_METHOD,
@@ -142,7 +150,10 @@ public final class SpigotReflectionUtil {
 
     private static boolean IS_OBFUSCATED;
 
-    //Cache entities right after we request/find them for faster search.
+    /**
+     * @deprecated Entities are now indexed per world by {@link EntityIdIndex}, this map is no longer populated.
+     */
+    @Deprecated
     public static Map<Integer, Entity> ENTITY_ID_CACHE = new MapMaker().weakValues().makeMap();
 
     private static void initConstructors() {
@@ -303,6 +314,21 @@ public final class SpigotReflectionUtil {
             //It's not inside the Level class (NMS World) class, which is how it was on < 1.21 Paper
             PAPER_ENTITY_LOOKUP_LEGACY = Reflection.getField(LEVEL_CLASS, PAPER_ENTITY_LOOKUP_CLASS, 0) == null;
         }
+
+        ENTITY_PLAYER_CONNECTION_ACCESSOR = FieldAccessor.of(ENTITY_PLAYER_CLASS, PLAYER_CONNECTION_CLASS, 0);
+        PLAYER_CONNECTION_NETWORK_MANAGER_ACCESSOR = FieldAccessor.of(SERVER_COMMON_PACKETLISTENER_IMPL_CLASS != null ?
+                SERVER_COMMON_PACKETLISTENER_IMPL_CLASS : PLAYER_CONNECTION_CLASS, NETWORK_MANAGER_CLASS, 0);
+        NETWORK_MANAGER_CHANNEL_ACCESSOR = FieldAccessor.of(NETWORK_MANAGER_CLASS, CHANNEL_CLASS, 0);
+        if (V_1_17_OR_HIGHER) {
+            if (PAPER_ENTITY_LOOKUP_EXISTS) {
+                LEVEL_ENTITY_STORAGE_ACCESSOR = FieldAccessor.of(PAPER_ENTITY_LOOKUP_LEGACY ? SERVER_LEVEL_CLASS : LEVEL_CLASS,
+                        PAPER_ENTITY_LOOKUP_CLASS, 0);
+            } else {
+                LEVEL_ENTITY_STORAGE_ACCESSOR = FieldAccessor.of(SERVER_LEVEL_CLASS, PERSISTENT_ENTITY_SECTION_MANAGER_CLASS, 0);
+                ENTITY_SECTION_MANAGER_ENTITY_GETTER_ACCESSOR = FieldAccessor.of(PERSISTENT_ENTITY_SECTION_MANAGER_CLASS,
+                        LEVEL_ENTITY_GETTER_CLASS, 0);
+            }
+        }
     }
 
     private static void initClasses() {
@@ -527,6 +553,9 @@ public final class SpigotReflectionUtil {
 
     public static Object getEntityPlayer(Player player) {
         Object craftPlayer = getCraftPlayer(player);
+        if (Handles.CRAFT_PLAYER_HANDLE != null) {
+            return readField(Handles.CRAFT_PLAYER_HANDLE, craftPlayer);
+        }
         try {
             return GET_CRAFT_PLAYER_HANDLE_METHOD.invoke(craftPlayer);
         } catch (IllegalAccessException | InvocationTargetException e) {
@@ -540,6 +569,9 @@ public final class SpigotReflectionUtil {
         if (entityPlayer == null) {
             return null;
         }
+        if (Handles.ENTITY_PLAYER_CONNECTION != null) {
+            return readField(Handles.ENTITY_PLAYER_CONNECTION, entityPlayer);
+        }
         ReflectionObject wrappedEntityPlayer = new ReflectionObject(entityPlayer, ENTITY_PLAYER_CLASS);
         return wrappedEntityPlayer.readObject(0, SpigotReflectionUtil.PLAYER_CONNECTION_CLASS);
     }
@@ -590,6 +622,10 @@ public final class SpigotReflectionUtil {
         if (playerConnection == null) {
             return null;
         }
+        if (Handles.PLAYER_CONNECTION_NETWORK_MANAGER != null
+                && PLAYER_CONNECTION_NETWORK_MANAGER_ACCESSOR.getField().getDeclaringClass().isInstance(playerConnection)) {
+            return readField(Handles.PLAYER_CONNECTION_NETWORK_MANAGER, playerConnection);
+        }
         Class<?> playerConnectionClass = SERVER_COMMON_PACKETLISTENER_IMPL_CLASS != null ?
                 SERVER_COMMON_PACKETLISTENER_IMPL_CLASS : PLAYER_CONNECTION_CLASS;
         ReflectionObject wrapper = new ReflectionObject(playerConnection, playerConnectionClass);
@@ -614,6 +650,9 @@ public final class SpigotReflectionUtil {
         if (networkManager == null) {
             return null;
         }
+        if (Handles.NETWORK_MANAGER_CHANNEL != null) {
+            return readField(Handles.NETWORK_MANAGER_CHANNEL, networkManager);
+        }
         ReflectionObject wrapper = new ReflectionObject(networkManager, NETWORK_MANAGER_CLASS);
         return wrapper.readObject(0, CHANNEL_CLASS);
     }
@@ -623,6 +662,16 @@ public final class SpigotReflectionUtil {
         if (V_1_17_OR_HIGHER) {
             return -1;
         }
+        if (Handles.ENTITY_PLAYER_PING != null) {
+            Object entityPlayer = getEntityPlayer(player);
+            try {
+                return (int) Handles.ENTITY_PLAYER_PING.invokeExact(entityPlayer);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
         if (ENTITY_PLAYER_PING_FIELD != null) {
             Object entityPlayer = getEntityPlayer(player);
             try {
@@ -924,6 +973,9 @@ public final class SpigotReflectionUtil {
     }
 
     public static ItemStack toBukkitItemStack(Object nmsItemStack) {
+        if (Handles.CRAFT_ITEM_STACK_AS_BUKKIT_COPY != null) {
+            return (ItemStack) readField(Handles.CRAFT_ITEM_STACK_AS_BUKKIT_COPY, nmsItemStack);
+        }
         try {
             return (ItemStack) CRAFT_ITEM_STACK_AS_BUKKIT_COPY.invoke(null, nmsItemStack);
         } catch (IllegalAccessException | InvocationTargetException e) {
@@ -933,6 +985,9 @@ public final class SpigotReflectionUtil {
     }
 
     public static Object toNMSItemStack(ItemStack itemStack) {
+        if (Handles.CRAFT_ITEM_STACK_AS_NMS_COPY != null) {
+            return readField(Handles.CRAFT_ITEM_STACK_AS_NMS_COPY, itemStack);
+        }
         try {
             return CRAFT_ITEM_STACK_AS_NMS_COPY.invoke(null, itemStack);
         } catch (IllegalAccessException | InvocationTargetException e) {
@@ -1026,30 +1081,25 @@ public final class SpigotReflectionUtil {
         return null;
     }
 
+    //Only valid on 1.17+, resolves the paper entity lookup or the vanilla level entity getter of a world
+    private static Object getLevelEntityGetter(Object serverLevel) {
+        if (PAPER_ENTITY_LOOKUP_EXISTS) {
+            return readField(Handles.LEVEL_ENTITY_STORAGE, serverLevel);
+        }
+        Object entitySectionManager = readField(Handles.LEVEL_ENTITY_STORAGE, serverLevel);
+        return readField(Handles.ENTITY_SECTION_MANAGER_ENTITY_GETTER, entitySectionManager);
+    }
+
     private static @Nullable Entity getEntityByIdWithWorldUnsafe(World world, int id) {
         if (world == null) {
             return null;
         }
-        Entity cachedEntity = ENTITY_ID_CACHE.getOrDefault(id, null);
-        if (cachedEntity != null) {
-            return cachedEntity;
-        }
         try {
             Object serverLevel = GET_CRAFT_WORLD_HANDLE_METHOD.invoke(world);
             Object nmsEntity;
             //On 1.17 we need this to bypass
             if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_17)) {
-                ReflectionObject reflectObj = PAPER_ENTITY_LOOKUP_LEGACY
-                        ? new ReflectionObject(serverLevel, SERVER_LEVEL_CLASS)
-                        : new ReflectionObject(serverLevel, LEVEL_CLASS);
-                Object levelEntityGetter;
-                if (PAPER_ENTITY_LOOKUP_EXISTS) {
-                    levelEntityGetter = reflectObj.readObject(0, PAPER_ENTITY_LOOKUP_CLASS);
-                } else {
-                    Object entitySectionManager = reflectObj.readObject(0, PERSISTENT_ENTITY_SECTION_MANAGER_CLASS);
-                    ReflectionObject reflectEntitySectionManager = new ReflectionObject(entitySectionManager);
-                    levelEntityGetter = reflectEntitySectionManager.readObject(0, LEVEL_ENTITY_GETTER_CLASS);
-                }
+                Object levelEntityGetter = getLevelEntityGetter(serverLevel);
                 nmsEntity = GET_ENTITY_BY_ID_LEVEL_ENTITY_GETTER_METHOD.invoke(levelEntityGetter, id);
             } else {
                 nmsEntity = GET_ENTITY_BY_ID_METHOD.invoke(serverLevel, id);
@@ -1058,7 +1108,7 @@ public final class SpigotReflectionUtil {
                 return null;
             }
             Entity entity = getBukkitEntity(nmsEntity);
-            ENTITY_ID_CACHE.put(id, entity);
+            EntityIdIndex.of(world).put(entity);
             return entity;
         } catch (IllegalAccessException | InvocationTargetException exception) {
             throw new RuntimeException("Error while looking up entity by id " + id + " in " + world, exception);
@@ -1071,6 +1121,14 @@ public final class SpigotReflectionUtil {
      */
     @Deprecated
     public static @Nullable Entity getEntityById(@Nullable World origin, int id) {
+        Entity indexed = origin != null ? EntityIdIndex.of(origin).get(id) : null;
+        if (indexed == null) {
+            //Entity ids are unique across worlds, so they might have specified the wrong world
+            indexed = EntityIdIndex.find(id);
+        }
+        if (indexed != null) {
+            return indexed;
+        }
         if (origin != null) {
             Entity e = getEntityByIdWithWorldUnsafe(origin, id);
             if (e != null) {
@@ -1079,6 +1137,9 @@ public final class SpigotReflectionUtil {
         }
         //They specified the wrong world
         for (World world : Bukkit.getWorlds()) {
+            if (world == origin) {
+                continue;
+            }
             Entity entity = getEntityByIdWithWorldUnsafe(world, id);
             if (entity != null) {
                 return entity;
@@ -1099,19 +1160,7 @@ public final class SpigotReflectionUtil {
     public static List<Entity> getEntityList(World world) {
         if (V_1_17_OR_HIGHER) {
             Object worldServer = convertBukkitWorldToWorldServer(world);
-            ReflectionObject wrappedWorldServer = new ReflectionObject(worldServer);
-            Object levelEntityGetter;
-            if (PAPER_ENTITY_LOOKUP_EXISTS) {
-                if (!PAPER_ENTITY_LOOKUP_LEGACY) {
-                    //Check in the correct class!
-                    wrappedWorldServer = new ReflectionObject(worldServer, LEVEL_CLASS);
-                }
-                levelEntityGetter = wrappedWorldServer.readObject(0, PAPER_ENTITY_LOOKUP_CLASS);
-            } else {
-                Object persistentEntitySectionManager = wrappedWorldServer.readObject(0, PERSISTENT_ENTITY_SECTION_MANAGER_CLASS);
-                ReflectionObject wrappedPersistentEntitySectionManager = new ReflectionObject(persistentEntitySectionManager);
-                levelEntityGetter = wrappedPersistentEntitySectionManager.readObject(0, LEVEL_ENTITY_GETTER_CLASS);
-            }
+            Object levelEntityGetter = getLevelEntityGetter(worldServer);
             Iterable<Object> nmsEntitiesIterable = null;
             try {
                 nmsEntitiesIterable = (Iterable<Object>) GET_LEVEL_ENTITY_GETTER_ITERABLE_METHOD.invoke(levelEntityGetter);
@@ -1183,4 +1232,64 @@ public final class SpigotReflectionUtil {
         return null;
     }
 
+    // inlined into the callers, so the handle passed from a static final field stays a constant to the JIT,
+    // also used for the handles of methods which take and return a single object
+    private static Object readField(MethodHandle getter, Object instance) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Method handles of the members used on hot paths, which are static final so the JIT can constant-fold them.
+     * They are resolved once this class is first used, which only happens after {@link #init()}.
+     * Handles which can't be created are null, the callers then fall back to plain reflection.
+     */
+    private static final class Handles {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+        private static final @Nullable MethodHandle CRAFT_PLAYER_HANDLE = unreflect(GET_CRAFT_PLAYER_HANDLE_METHOD);
+        private static final @Nullable MethodHandle ENTITY_PLAYER_CONNECTION = getter(ENTITY_PLAYER_CONNECTION_ACCESSOR);
+        private static final @Nullable MethodHandle PLAYER_CONNECTION_NETWORK_MANAGER = getter(PLAYER_CONNECTION_NETWORK_MANAGER_ACCESSOR);
+        private static final @Nullable MethodHandle NETWORK_MANAGER_CHANNEL = getter(NETWORK_MANAGER_CHANNEL_ACCESSOR);
+        private static final @Nullable MethodHandle LEVEL_ENTITY_STORAGE = getter(LEVEL_ENTITY_STORAGE_ACCESSOR);
+        private static final @Nullable MethodHandle ENTITY_SECTION_MANAGER_ENTITY_GETTER = getter(ENTITY_SECTION_MANAGER_ENTITY_GETTER_ACCESSOR);
+        private static final @Nullable MethodHandle ENTITY_PLAYER_PING = pingGetter();
+        private static final @Nullable MethodHandle CRAFT_ITEM_STACK_AS_BUKKIT_COPY = unreflect(SpigotReflectionUtil.CRAFT_ITEM_STACK_AS_BUKKIT_COPY);
+        private static final @Nullable MethodHandle CRAFT_ITEM_STACK_AS_NMS_COPY = unreflect(SpigotReflectionUtil.CRAFT_ITEM_STACK_AS_NMS_COPY);
+
+        private static @Nullable MethodHandle getter(@Nullable FieldAccessor accessor) {
+            return accessor != null ? accessor.getGetter() : null;
+        }
+
+        private static @Nullable MethodHandle pingGetter() {
+            if (ENTITY_PLAYER_PING_FIELD == null) {
+                return null;
+            }
+            try {
+                ENTITY_PLAYER_PING_FIELD.setAccessible(true);
+                return MethodHandles.lookup().unreflectGetter(ENTITY_PLAYER_PING_FIELD)
+                        .asType(MethodType.methodType(int.class, Object.class));
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        // takes and returns objects only, both for instance methods without parameters and static methods with one
+        private static @Nullable MethodHandle unreflect(@Nullable Method method) {
+            if (method == null) {
+                return null;
+            }
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
 }
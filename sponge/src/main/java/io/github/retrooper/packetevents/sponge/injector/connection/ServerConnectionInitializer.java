@@ -20,6 +20,7 @@ package io.github.retrooper.packetevents.sponge.injector.connection;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.UserConnectEvent;
+import com.github.retrooper.packetevents.jfr.PacketFlightRecorder;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
 import com.github.retrooper.packetevents.protocol.player.User;
@@ -42,6 +43,7 @@ public class ServerConnectionInitializer {
         if (FakeChannelUtil.isFakeChannel(channel)) {
             return;
         }
+        Object flightEvent = PacketFlightRecorder.get().beginUserInject();
         User user = new User(channel, connectionState, null, new UserProfile(null, null));
 
         if (connectionState == ConnectionState.PLAY) {
@@ -74,6 +76,9 @@ public class ServerConnectionInitializer {
 
             channel.closeFuture().addListener((ChannelFutureListener) future -> PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID()));
             PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
+            if (flightEvent != null) {
+                PacketFlightRecorder.get().commitUserInject(flightEvent, user);
+            }
         }
     }
 
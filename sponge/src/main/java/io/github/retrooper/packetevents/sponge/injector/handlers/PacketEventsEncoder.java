@@ -36,7 +36,6 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToMessageEncoder;
-import org.jetbrains.annotations.Nullable;
 import org.spongepowered.api.Sponge;
 
 import java.lang.reflect.InvocationTargetException;
@@ -78,16 +77,20 @@ public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
         list.add(byteBuf.retain());
     }
 
-    private @Nullable PacketSendEvent handleClientBoundPacket(Channel channel, User user, UUID player, ByteBuf buffer, ChannelPromise promise) throws Exception {
+    private void handleClientBoundPacket(Channel channel, User user, UUID player, ByteBuf buffer, ChannelPromise promise) throws Exception {
         PacketSendEvent packetSendEvent = PacketEventsImplHelper.handleClientBoundPacket(channel, user, player == null ? null : Sponge.server().player(player).orElse(null), buffer, true);
-        if (packetSendEvent != null && packetSendEvent.hasTasksAfterSend()) {
-            promise.addListener((p) -> {
-                for (Runnable task : packetSendEvent.getTasksAfterSend()) {
-                    task.run();
-                }
-            });
+        if (packetSendEvent != null) {
+            if (packetSendEvent.hasTasksAfterSend()) {
+                // the event may already have been recycled once the packet has been sent
+                List<Runnable> tasksAfterSend = packetSendEvent.getTasksAfterSend();
+                promise.addListener((p) -> {
+                    for (Runnable task : tasksAfterSend) {
+                        task.run();
+                    }
+                });
+            }
+            packetSendEvent.recycle();
         }
-        return packetSendEvent;
     }
 
     @Override
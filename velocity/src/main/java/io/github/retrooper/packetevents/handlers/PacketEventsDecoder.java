@@ -20,12 +20,13 @@ package io.github.retrooper.packetevents.handlers;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
-import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.EnumUtil;
 import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
 import com.github.retrooper.packetevents.util.reflection.Reflection;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.velocitypowered.api.proxy.Player;
 import io.github.retrooper.packetevents.injector.ServerConnectionInitializer;
 import io.netty.buffer.ByteBuf;
@@ -57,9 +58,7 @@ public class PacketEventsDecoder extends MessageToMessageDecoder<ByteBuf> {
             PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> transformed.readerIndex(readerIndex));
             if (!packetReceiveEvent.isCancelled()) {
                 if (packetReceiveEvent.getLastUsedWrapper() != null) {
-                    ByteBufHelper.clear(packetReceiveEvent.getByteBuf());
-                    packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
-                    packetReceiveEvent.getLastUsedWrapper().write();
+                    PacketEventsImplHelper.reEncode(packetReceiveEvent, transformed);
                 }
                 transformed.readerIndex(firstReaderIndex);
                 output.add(transformed.retain());
@@ -69,15 +68,55 @@ public class PacketEventsDecoder extends MessageToMessageDecoder<ByteBuf> {
                     task.run();
                 }
             }
+            packetReceiveEvent.recycle();
         } finally {
             transformed.release();
         }
     }
 
+    /**
+     * Calls the listeners on the buffer itself instead of a copy of it, see {@link com.github.retrooper.packetevents.settings.PacketEventsSettings#copyOnWrite(boolean)}.
+     * The buffer is only copied if the packet has to be re-encoded, otherwise it is passed on as it is.
+     */
+    private void readCopyOnWrite(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> output) throws Exception {
+        int firstReaderIndex = byteBuf.readerIndex();
+        PacketReceiveEvent packetReceiveEvent = EventCreationUtil.createReceiveEvent(ctx.channel(), user, player,
+                byteBuf, false);
+        int readerIndex = byteBuf.readerIndex();
+        PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> byteBuf.readerIndex(readerIndex));
+        if (!packetReceiveEvent.isCancelled()) {
+            PacketWrapper<?> wrapper = packetReceiveEvent.getLastUsedWrapper();
+            if (wrapper != null) {
+                // The wrapper writes unmodified sections from the original buffer, so it's only reset afterwards
+                ByteBuf transformed = ctx.alloc().buffer(byteBuf.writerIndex() - firstReaderIndex);
+                try {
+                    PacketEventsImplHelper.reEncode(packetReceiveEvent, transformed);
+                } catch (Throwable throwable) {
+                    transformed.release();
+                    throw throwable;
+                }
+                output.add(transformed);
+            } else {
+                output.add(byteBuf.retain());
+            }
+            byteBuf.readerIndex(firstReaderIndex);
+        }
+        if (packetReceiveEvent.hasPostTasks()) {
+            for (Runnable task : packetReceiveEvent.getPostTasks()) {
+                task.run();
+            }
+        }
+        packetReceiveEvent.recycle();
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> out) throws Exception {
         if (byteBuf.isReadable()) {
-            read(ctx, byteBuf, out);
+            if (PacketEvents.getAPI().getSettings().isCopyOnWriteEnabled()) {
+                readCopyOnWrite(ctx, byteBuf, out);
+            } else {
+                read(ctx, byteBuf, out);
+            }
         }
     }
 
@@ -23,11 +23,16 @@ import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.velocitypowered.api.proxy.Player;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
+import org.jetbrains.annotations.Nullable;
 
 @ChannelHandler.Sharable
 public class PacketEventsEncoder extends MessageToByteEncoder<ByteBuf> {
@@ -46,9 +51,7 @@ public class PacketEventsEncoder extends MessageToByteEncoder<ByteBuf> {
         PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> buffer.readerIndex(readerIndex));
         if (!packetSendEvent.isCancelled()) {
             if (packetSendEvent.getLastUsedWrapper() != null) {
-                ByteBufHelper.clear(packetSendEvent.getByteBuf());
-                packetSendEvent.getLastUsedWrapper().writeVarInt(packetSendEvent.getPacketId());
-                packetSendEvent.getLastUsedWrapper().write();
+                PacketEventsImplHelper.reEncode(packetSendEvent, buffer);
             }
             buffer.readerIndex(firstReaderIndex);
         } else {
@@ -59,6 +62,65 @@ public class PacketEventsEncoder extends MessageToByteEncoder<ByteBuf> {
                 task.run();
             }
         }
+        packetSendEvent.recycle();
+    }
+
+    /**
+     * Calls the listeners on the buffer itself instead of a copy of it, see {@link com.github.retrooper.packetevents.settings.PacketEventsSettings#copyOnWrite(boolean)}.
+     *
+     * @return the buffer itself if it wasn't modified, the re-encoded packet, or null if the packet was cancelled
+     */
+    private @Nullable ByteBuf readCopyOnWrite(ChannelHandlerContext ctx, ByteBuf buffer) throws Exception {
+        int firstReaderIndex = buffer.readerIndex();
+        PacketSendEvent packetSendEvent = EventCreationUtil.createSendEvent(ctx.channel(), user, player, buffer,
+                false);
+        int readerIndex = buffer.readerIndex();
+        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> buffer.readerIndex(readerIndex));
+        ByteBuf result = null;
+        if (!packetSendEvent.isCancelled()) {
+            PacketWrapper<?> wrapper = packetSendEvent.getLastUsedWrapper();
+            if (wrapper != null) {
+                // Only now the packet has to be copied, the wrapper writes unmodified sections from the original buffer
+                result = ctx.alloc().buffer(buffer.writerIndex() - firstReaderIndex);
+                try {
+                    PacketEventsImplHelper.reEncode(packetSendEvent, result);
+                } catch (Throwable throwable) {
+                    result.release();
+                    throw throwable;
+                }
+            } else {
+                result = buffer;
+            }
+            buffer.readerIndex(firstReaderIndex);
+        }
+        if (packetSendEvent.hasPostTasks()) {
+            for (Runnable task : packetSendEvent.getPostTasks()) {
+                task.run();
+            }
+        }
+        packetSendEvent.recycle();
+        return result;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (!(msg instanceof ByteBuf) || !((ByteBuf) msg).isReadable()
+                || !PacketEvents.getAPI().getSettings().isCopyOnWriteEnabled()) {
+            super.write(ctx, msg, promise);
+            return;
+        }
+        ByteBuf buffer = (ByteBuf) msg;
+        ByteBuf result = null;
+        try {
+            result = readCopyOnWrite(ctx, buffer);
+        } finally {
+            // An untouched packet is passed on as it is, taking over our reference to it
+            if (result != buffer) {
+                buffer.release();
+            }
+        }
+        // Like MessageToByteEncoder, an empty buffer is written for cancelled packets to complete the promise
+        ctx.write(result != null ? result : Unpooled.EMPTY_BUFFER, promise);
     }
 
     @Override
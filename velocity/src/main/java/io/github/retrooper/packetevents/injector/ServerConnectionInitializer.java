@@ -21,6 +21,7 @@ package io.github.retrooper.packetevents.injector;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.UserConnectEvent;
 import com.github.retrooper.packetevents.event.UserDisconnectEvent;
+import com.github.retrooper.packetevents.jfr.PacketFlightRecorder;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
@@ -37,6 +38,7 @@ public class ServerConnectionInitializer {
     }
 
     public static void initChannel(Channel channel, ConnectionState state) {
+        Object flightEvent = PacketFlightRecorder.get().beginUserInject();
         User user = new User(channel, state, null, new UserProfile(null, null));
         UserConnectEvent connectEvent = new UserConnectEvent(user);
         PacketEvents.getAPI().getEventManager().callEvent(connectEvent);
@@ -49,6 +51,9 @@ public class ServerConnectionInitializer {
         addChannelHandlers(channel, decoder, encoder);
         channel.closeFuture().addListener((ChannelFutureListener) future -> PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID()));
         PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
+        if (flightEvent != null) {
+            PacketFlightRecorder.get().commitUserInject(flightEvent, user);
+        }
     }
 
     public static void destroyChannel(Channel channel) {